@@ -10,6 +10,7 @@ plugins {
 	id("org.springframework.boot") version "3.5.7"
 	id("io.spring.dependency-management") version "1.1.7"
     kotlin("jvm")
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.cinema"
@@ -34,6 +35,7 @@ repositories {
 
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server")
 	implementation("org.springframework.boot:spring-boot-starter-security")
@@ -50,6 +52,8 @@ dependencies {
 	annotationProcessor("org.projectlombok:lombok")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("org.springframework.security:spring-security-test")
+	// đếm số câu SQL mỗi request trong test (@QueryBudget)
+	testImplementation("net.ttddyy:datasource-proxy:1.10.1")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
     implementation(kotlin("stdlib-jdk8"))
     implementation("com.cloudinary:cloudinary-http44:1.38.0")
@@ -61,6 +65,26 @@ dependencies {
 
 }
 
+// Load test (src/loadTest): gradle loadTest -Ploadtest.users=200 -Ploadtest.showtimes=2
+val loadTest: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+configurations[loadTest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadTest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("loadTest") {
+	group = "verification"
+	description = "Giả lập đêm mở bán: giữ ghế → đặt vé → VNPay callback trên H2"
+	classpath = loadTest.runtimeClasspath
+	mainClass = "com.cinema.ticketbooking.loadtest.BookingRushLoadTest"
+	maxHeapSize = "1g"
+	listOf("users", "showtimes", "seatsPerBooking", "attempts", "failedPaymentRatio").forEach { name ->
+		findProperty("loadtest.$name")?.let { systemProperty("loadtest.$name", it) }
+	}
+	systemProperty("loadtest.reportFile", layout.buildDirectory.file("reports/loadtest/summary.txt").get().asFile.path)
+}
+
 tasks.withType<Test>().configureEach {
     useJUnitPlatform()
 
@@ -97,3 +121,54 @@ tasks.withType<Test>().configureEach {
     })
 }
 
+
+// Micro-benchmark (src/jmh): gradle jmh jmhReport
+// -Pjmh.includes=<regex> để chạy một phần, -Pjmh.baseline=<results.json cũ> để so sánh
+jmh {
+	warmupIterations = 2
+	iterations = 3
+	fork = 1
+	timeOnIteration = "2s"
+	warmup = "2s"
+	resultFormat = "JSON"
+	findProperty("jmh.includes")?.let { includes = listOf(it.toString()) }
+}
+
+tasks.register("jmhReport") {
+	group = "benchmark"
+	description = "Tóm tắt kết quả JMH thành bảng text ổn định để diff giữa các commit"
+	mustRunAfter("jmh")
+	val results = layout.buildDirectory.file("results/jmh/results.json")
+	val summary = layout.buildDirectory.file("reports/jmh/summary.txt")
+	val baselinePath = providers.gradleProperty("jmh.baseline")
+	inputs.file(results)
+	inputs.property("baseline", baselinePath.orElse(""))
+	outputs.file(summary)
+	doLast {
+		fun load(file: File): Map<String, Map<String, Any?>> {
+			@Suppress("UNCHECKED_CAST")
+			val rows = groovy.json.JsonSlurper().parse(file) as List<Map<String, Any?>>
+			return rows.associateBy { row ->
+				val params = (row["params"] as Map<*, *>?)?.entries?.joinToString(",") { "${it.key}=${it.value}" }
+				row["benchmark"].toString().removePrefix("com.cinema.ticketbooking.") + (params?.let { "[$it]" } ?: "")
+			}
+		}
+		fun score(row: Map<String, Any?>) = ((row["primaryMetric"] as Map<*, *>)["score"] as Number).toDouble()
+
+		val current = load(results.get().asFile)
+		val baseline = baselinePath.orNull?.let { load(file(it)) } ?: emptyMap()
+		val lines = mutableListOf(
+			String.format("%-60s %6s %14s %12s %-8s %9s", "Benchmark", "Mode", "Score", "Error", "Units", "vs base"))
+		for ((name, row) in current.toSortedMap()) {
+			val metric = row["primaryMetric"] as Map<*, *>
+			val error = (metric["scoreError"] as Number?)?.toDouble() ?: Double.NaN
+			val delta = baseline[name]?.let { String.format("%+8.1f%%", (score(row) / score(it) - 1) * 100) } ?: ""
+			lines += String.format("%-60s %6s %14.3f %12.3f %-8s %9s",
+				name, row["mode"], score(row), error, metric["scoreUnit"], delta)
+		}
+		val out = summary.get().asFile
+		out.parentFile.mkdirs()
+		out.writeText(lines.joinToString("\n") + "\n")
+		println(out.readText())
+	}
+}
@@ -21,3 +21,94 @@ CREATE INDEX idx_seat_holds_seat_showtime ON seat_holds(seat_id, show_time_id);
 -- - Trước khi chạy script, hãy backup database!
 -- - Sau khi chạy script, restart ứng dụng Spring Boot
 -- - Nếu dùng spring.jpa.hibernate.ddl-auto=update, Hibernate sẽ tự động thêm cột mới
+
+-- Giữ ghế không khoá hàng seats: mỗi (ghế, showtime) chỉ có tối đa một SeatHold.
+-- Ràng buộc unique thay thế cho index idx_seat_holds_seat_showtime ở bước 4.
+ALTER TABLE seat_holds
+ADD CONSTRAINT uk_seat_holds_seat_show_time UNIQUE (seat_id, show_time_id);
+DROP INDEX idx_seat_holds_seat_showtime ON seat_holds;
+
+-- Id của seat_holds, booking_items, payments (@PooledId) cấp theo khối 50 từ bảng
+-- id_generators để Hibernate batch được INSERT. IdBlockAllocator giữ khối bằng
+-- SELECT ... FOR UPDATE rồi tăng next_val, trên pool kết nối riêng id-allocator.
+-- Khởi tạo giá trị lớn hơn id hiện có để không trùng với các dòng đã tạo bằng
+-- AUTO_INCREMENT (dòng chưa có thì IdBlockAllocator tự tạo từ MAX(id) + 1).
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+);
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'seat_holds', COALESCE(MAX(id), 0) + 100 FROM seat_holds;
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'booking_items', COALESCE(MAX(id), 0) + 100 FROM booking_items;
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'payments', COALESCE(MAX(id), 0) + 100 FROM payments;
+
+-- Outbox cho các việc sau thanh toán (QR, email), xử lý bởi OutboxDispatcher
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(40) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(1000),
+    created_at DATETIME(6),
+    updated_at DATETIME(6)
+);
+CREATE INDEX idx_outbox_events_status_next_attempt ON outbox_events(status, next_attempt_at);
+
+-- Callback VNPay đã xử lý (idempotency theo vnp_TxnRef:vnp_TransactionNo)
+CREATE TABLE IF NOT EXISTS processed_payment_callbacks (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    callback_key VARCHAR(150) NOT NULL,
+    redirect_url VARCHAR(1000),
+    created_at DATETIME(6),
+    CONSTRAINT uk_processed_payment_callbacks_key UNIQUE (callback_key)
+);
+
+-- Keyset pagination cho lịch sử booking (/users/{id}/bookings) và danh sách admin (/bookings)
+CREATE INDEX idx_bookings_user_created_id ON bookings(user_id, created_at, id);
+CREATE INDEX idx_bookings_created_id ON bookings(created_at, id);
+
+-- Ảnh QR vé tách khỏi bookings: PNG thô theo booking, etag = SHA-256 hex của nội dung.
+-- Chuyển các QR base64 đã có sang bảng mới rồi bỏ cột bookings.qr_code.
+CREATE TABLE IF NOT EXISTS ticket_artifacts (
+    booking_id BIGINT NOT NULL PRIMARY KEY,
+    png BLOB NOT NULL,
+    etag VARCHAR(64) NOT NULL,
+    created_at DATETIME(6),
+    CONSTRAINT fk_ticket_artifacts_booking FOREIGN KEY (booking_id) REFERENCES bookings(id) ON DELETE CASCADE
+);
+INSERT INTO ticket_artifacts (booking_id, png, etag, created_at)
+SELECT id, FROM_BASE64(qr_code), SHA2(FROM_BASE64(qr_code), 256), NOW(6)
+FROM bookings WHERE qr_code IS NOT NULL AND qr_code <> '';
+ALTER TABLE bookings DROP COLUMN qr_code;
+
+-- QR vé chuyển sang mã ký (booking, suất chiếu, ghế, hạn dùng) để cổng soát vé offline;
+-- xoá ảnh cũ chứa JSON không ký, ảnh mới được tạo lại ở lần đọc/gửi email kế tiếp.
+DELETE FROM ticket_artifacts;
+
+-- Email gửi thất bại sau nhiều lần thử (hoặc còn trong hàng đợi khi ứng dụng dừng), giữ nguyên MIME để gửi lại
+CREATE TABLE IF NOT EXISTS email_dead_letters (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    recipient VARCHAR(255),
+    subject VARCHAR(255),
+    mime MEDIUMBLOB,
+    attempts INT NOT NULL,
+    last_error VARCHAR(1000),
+    created_at DATETIME(6)
+);
+
+-- Chủ booking trên ảnh vé, để GET /bookings/{id}/qr kiểm tra quyền mà không đọc bookings
+ALTER TABLE ticket_artifacts ADD COLUMN user_id BIGINT;
+UPDATE ticket_artifacts a JOIN bookings b ON b.id = a.booking_id SET a.user_id = b.user_id;
+
+-- Vé đã vào cửa, mỗi booking một dòng: cổng soát vé INSERT và coi trùng khoá là vé đã
+-- dùng, nên vé đã quét không vào lại được sau khi khởi động lại. Dòng quá hạn vé được xoá.
+CREATE TABLE IF NOT EXISTS ticket_admissions (
+    booking_id BIGINT NOT NULL PRIMARY KEY,
+    expires_at DATETIME(6) NOT NULL,
+    admitted_at DATETIME(6)
+);
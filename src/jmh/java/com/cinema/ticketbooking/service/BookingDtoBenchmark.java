@@ -0,0 +1,98 @@
+package com.cinema.ticketbooking.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import com.cinema.ticketbooking.domain.response.ResBookingDto;
+import com.cinema.ticketbooking.repository.projection.BookingItemSeatProjection;
+import com.cinema.ticketbooking.repository.projection.BookingRowProjection;
+import com.cinema.ticketbooking.repository.projection.FilmSummaryProjection;
+import com.cinema.ticketbooking.repository.projection.ShowTimeSummaryProjection;
+import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
+import com.cinema.ticketbooking.util.constant.FilmStatusEnum;
+
+/**
+ * Ghép ResBookingDto cho một booking 4 ghế từ các projection (proxy trên Map,
+ * cùng cơ chế Spring Data dùng cho kết quả query)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookingDtoBenchmark {
+    private BookingDtoMapper bookingDtoMapper;
+    private BookingRowProjection row;
+    private List<BookingItemSeatProjection> seats;
+    private ShowTimeSummaryProjection showtime;
+    private FilmSummaryProjection film;
+
+    @Setup
+    public void setUp() {
+        bookingDtoMapper = new BookingDtoMapper();
+        SpelAwareProxyProjectionFactory factory = new SpelAwareProxyProjectionFactory();
+
+        Map<String, Object> rowValues = new HashMap<>();
+        rowValues.put("id", 1L);
+        rowValues.put("status", BookingStatusEnum.CONFIRMED);
+        rowValues.put("totalPrice", 380000.0);
+        rowValues.put("createdAt", Instant.now());
+        rowValues.put("userId", 1L);
+        rowValues.put("userName", "customer");
+        rowValues.put("paymentId", 1L);
+        row = factory.createProjection(BookingRowProjection.class, rowValues);
+
+        seats = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            seats.add(factory.createProjection(BookingItemSeatProjection.class, Map.of(
+                    "bookingId", 1L, "seatId", (long) i, "seatRow", "E", "number", i,
+                    "price", 95000.0, "showTimeId", 1L)));
+        }
+
+        Map<String, Object> showtimeValues = new HashMap<>();
+        showtimeValues.put("id", 1L);
+        showtimeValues.put("date", LocalDate.of(2025, 1, 2));
+        showtimeValues.put("startTime", LocalTime.of(19, 0));
+        showtimeValues.put("endTime", LocalTime.of(21, 0));
+        showtimeValues.put("auditoriumNumber", 2L);
+        showtimeValues.put("filmId", 1L);
+        showtimeValues.put("theaterId", 1L);
+        showtimeValues.put("theaterName", "CineJoy Quan 1");
+        showtimeValues.put("streetNumber", "123");
+        showtimeValues.put("streetName", "Nguyen Hue");
+        showtimeValues.put("city", "Ho Chi Minh");
+        showtime = factory.createProjection(ShowTimeSummaryProjection.class, showtimeValues);
+
+        Map<String, Object> filmValues = new HashMap<>();
+        filmValues.put("id", 1L);
+        filmValues.put("name", "Film");
+        filmValues.put("director", "Director");
+        filmValues.put("actors", "Actor A, Actor B");
+        filmValues.put("duration", 120L);
+        filmValues.put("description", "Description");
+        filmValues.put("genre", "Action");
+        filmValues.put("language", "English");
+        filmValues.put("releaseDate", LocalDate.of(2025, 1, 1));
+        filmValues.put("status", FilmStatusEnum.NOW_SHOWING);
+        filmValues.put("thumbnail", "https://example.com/thumb.jpg");
+        film = factory.createProjection(FilmSummaryProjection.class, filmValues);
+    }
+
+    @Benchmark
+    public ResBookingDto toResBookingDto() {
+        return bookingDtoMapper.toDto(row, seats, showtime, film);
+    }
+}
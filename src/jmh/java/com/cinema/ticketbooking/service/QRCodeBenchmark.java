@@ -0,0 +1,39 @@
+package com.cinema.ticketbooking.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Tạo QR 300x300 PNG: payload JSON cũ (email + tổng tiền) so với mã vé ký ngắn
+ * mà generateTicketQRCodePng đang dùng
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QRCodeBenchmark {
+    private static final TicketTokenCodec.Claims CLAIMS = new TicketTokenCodec.Claims(1024L, 57L,
+            List.of(1201L, 1202L, 1203L), Instant.parse("2026-01-01T15:00:00Z"));
+    private static final String PAYLOAD = "{\"bookingId\":1024,\"email\":\"customer@gmail.com\",\"total\":170000.00}";
+
+    private final QRCodeService qrCodeService = new QRCodeService(new BookingMetrics(new SimpleMeterRegistry()),
+            new TicketTokenCodec("benchmark-secret"));
+
+    @Benchmark
+    public byte[] generateQRCodePng() {
+        return qrCodeService.generateQRCodePng(PAYLOAD, 300, 300);
+    }
+
+    @Benchmark
+    public byte[] generateTicketQRCodePng() {
+        return qrCodeService.generateTicketQRCodePng(CLAIMS);
+    }
+}
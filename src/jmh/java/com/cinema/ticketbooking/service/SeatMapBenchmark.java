@@ -0,0 +1,71 @@
+package com.cinema.ticketbooking.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.cinema.ticketbooking.TicketbookingApplication;
+import com.cinema.ticketbooking.domain.ShowTime;
+import com.cinema.ticketbooking.domain.response.ResSeatAvailabilityDto;
+import com.cinema.ticketbooking.repository.AuditoriumRepository;
+import com.cinema.ticketbooking.repository.FilmRepository;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+
+/**
+ * Sơ đồ ghế của một showtime (48 ghế do seeder tạo) trên H2: "warm" đọc từ
+ * SeatStateIndex, "cold" xoá index trước mỗi lần để đi qua đường nạp từ DB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SeatMapBenchmark {
+    private ConfigurableApplicationContext context;
+    private SeatService seatService;
+    private SeatStateIndex seatStateIndex;
+    private Long showTimeId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TicketbookingApplication.class)
+                .profiles("bench")
+                .run();
+        seatService = context.getBean(SeatService.class);
+        seatStateIndex = context.getBean(SeatStateIndex.class);
+
+        ShowTime showTime = new ShowTime();
+        showTime.setFilm(context.getBean(FilmRepository.class).findAll().get(0));
+        showTime.setAuditorium(context.getBean(AuditoriumRepository.class).findAll().get(0));
+        showTime.setDate(LocalDate.now().plusDays(1));
+        showTime.setStartTime(LocalTime.of(19, 0));
+        showTime.setEndTime(LocalTime.of(21, 0));
+        showTimeId = context.getBean(ShowTimeRepository.class).save(showTime).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ResSeatAvailabilityDto> warm() {
+        return seatService.getSeatAvailabilityByShowTime(showTimeId);
+    }
+
+    @Benchmark
+    public List<ResSeatAvailabilityDto> cold() {
+        seatStateIndex.evict(showTimeId);
+        return seatService.getSeatAvailabilityByShowTime(showTimeId);
+    }
+}
@@ -0,0 +1,117 @@
+package com.cinema.ticketbooking.service;
+
+import java.lang.reflect.Field;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * So sánh ký tham số VNPay kiểu cũ (Mac.getInstance mỗi lần, String.format hex,
+ * encode hai lần, sort ArrayList) với {@link VNPaySigner}, và toàn bộ
+ * VNPayService.buildPaymentUrl.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VNPaySignerBenchmark {
+    private static final String SECRET = "G8K4L5M8ZPXITZNFKC17R8MZXLWN9UN0";
+
+    private Map<String, String> params;
+    private VNPaySigner signer;
+    private VNPayService vnPayService;
+
+    @Setup
+    public void setUp() {
+        params = new HashMap<>();
+        params.put("vnp_Version", "2.1.0");
+        params.put("vnp_Command", "pay");
+        params.put("vnp_TmnCode", "AVCYVKTA");
+        params.put("vnp_Amount", "17000000");
+        params.put("vnp_CurrCode", "VND");
+        params.put("vnp_TxnRef", "3f0b6c1e-6a59-4a0e-9d5b-2f1c7e8a9b10");
+        params.put("vnp_OrderInfo", "Thanh toan ve xem phim #1024");
+        params.put("vnp_OrderType", "other");
+        params.put("vnp_Locale", "vn");
+        params.put("vnp_ReturnUrl", "http://localhost:8080/api/v1/payments/vnpay/callback");
+        params.put("vnp_IpAddr", "127.0.0.1");
+        params.put("vnp_CreateDate", "20250101120000");
+        params.put("vnp_ExpireDate", "20250101121500");
+        signer = new VNPaySigner(SECRET);
+
+        vnPayService = new VNPayService(null, null, null, null, null, null, signer,
+                new BookingMetrics(new SimpleMeterRegistry()));
+        setField(vnPayService, "vnpTmnCode", "AVCYVKTA");
+        setField(vnPayService, "vnpUrl", "https://sandbox.vnpayment.vn/paymentv2/vpcpay.html");
+        setField(vnPayService, "vnpReturnUrl", "http://localhost:8080/api/v1/payments/vnpay/callback");
+        setField(vnPayService, "vnpVersion", "2.1.0");
+        setField(vnPayService, "vnpCommand", "pay");
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    @Benchmark
+    public String legacy() throws Exception {
+        List<String> fieldNames = new ArrayList<>(params.keySet());
+        Collections.sort(fieldNames);
+        StringBuilder hashData = new StringBuilder();
+        StringBuilder query = new StringBuilder();
+        Iterator<String> itr = fieldNames.iterator();
+        while (itr.hasNext()) {
+            String fieldName = itr.next();
+            String fieldValue = params.get(fieldName);
+            if ((fieldValue != null) && (fieldValue.length() > 0)) {
+                hashData.append(fieldName).append('=')
+                        .append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8.toString()));
+                query.append(fieldName).append('=')
+                        .append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8.toString()));
+                if (itr.hasNext()) {
+                    query.append('&');
+                    hashData.append('&');
+                }
+            }
+        }
+        Mac hmac512 = Mac.getInstance("HmacSHA512");
+        hmac512.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        byte[] result = hmac512.doFinal(hashData.toString().getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder(2 * result.length);
+        for (byte b : result) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        return query + "&vnp_SecureHash=" + sb;
+    }
+
+    @Benchmark
+    public String signer() {
+        String hashData = signer.canonicalQuery(params);
+        return hashData + "&vnp_SecureHash=" + signer.sign(hashData);
+    }
+
+    @Benchmark
+    public String buildPaymentUrl() throws Exception {
+        return vnPayService.buildPaymentUrl("3f0b6c1e-6a59-4a0e-9d5b-2f1c7e8a9b10", 170000.0,
+                "Thanh toan ve xem phim #1024", "127.0.0.1");
+    }
+}
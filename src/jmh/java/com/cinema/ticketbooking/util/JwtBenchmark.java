@@ -0,0 +1,76 @@
+package com.cinema.ticketbooking.util;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.util.ReflectionUtils;
+
+import com.cinema.ticketbooking.domain.response.ResLoginDto;
+import com.cinema.ticketbooking.domain.response.ResUserJwtDto;
+import com.cinema.ticketbooking.util.constant.GenderEnum;
+import com.cinema.ticketbooking.util.constant.RoleEnum;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.util.Base64;
+
+/**
+ * Tạo access token (SecurityUtil.createAccessToken) và giải mã token trên mỗi request,
+ * cấu hình giống SecurityConfiguration (HS512).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+    private static final String SECRET = "D3/DgwKfJWOHX8a28lcSLuWZQbV9xj2gd83G/akyeqpzJeN39SDFopi7BAsuWqB2Fv3yO/XEDeDXhHyn4AAVLw==";
+
+    private SecurityUtil securityUtil;
+    private JwtDecoder jwtDecoder;
+    private ResLoginDto login;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        byte[] keyBytes = Base64.from(SECRET).decode();
+        SecretKey key = new SecretKeySpec(keyBytes, 0, keyBytes.length, SecurityUtil.JWT_ALGORITHM.getName());
+
+        securityUtil = new SecurityUtil(new NimbusJwtEncoder(new ImmutableSecret<>(key)));
+        setField(securityUtil, "jwtKey", SECRET);
+        setField(securityUtil, "accessTokenExpiration", 86400L);
+        setField(securityUtil, "refreshTokenExpiration", 8640000L);
+        jwtDecoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
+
+        login = new ResLoginDto();
+        login.setUser(new ResUserJwtDto(1L, "customer", "customer@gmail.com", "0900000000",
+                GenderEnum.MEN, null, RoleEnum.CUSTOMER));
+        token = securityUtil.createAccessToken("customer@gmail.com", login);
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    @Benchmark
+    public String createAccessToken() {
+        return securityUtil.createAccessToken("customer@gmail.com", login);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return jwtDecoder.decode(token);
+    }
+}
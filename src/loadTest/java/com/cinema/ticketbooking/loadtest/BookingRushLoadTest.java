@@ -0,0 +1,317 @@
+package com.cinema.ticketbooking.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.cinema.ticketbooking.TicketbookingApplication;
+import com.cinema.ticketbooking.domain.Auditorium;
+import com.cinema.ticketbooking.domain.Seat;
+import com.cinema.ticketbooking.domain.ShowTime;
+import com.cinema.ticketbooking.domain.User;
+import com.cinema.ticketbooking.domain.response.ResLoginDto;
+import com.cinema.ticketbooking.domain.response.ResUserJwtDto;
+import com.cinema.ticketbooking.repository.AuditoriumRepository;
+import com.cinema.ticketbooking.repository.FilmRepository;
+import com.cinema.ticketbooking.repository.SeatRepository;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+import com.cinema.ticketbooking.repository.UserRepository;
+import com.cinema.ticketbooking.service.VNPaySigner;
+import com.cinema.ticketbooking.util.SecurityUtil;
+import com.cinema.ticketbooking.util.constant.RoleEnum;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Giả lập đêm mở bán: N người dùng ảo cùng lúc giữ ghế → đặt vé → VNPay callback
+ * trên một vài showtime, với ứng dụng thật chạy trên H2 (profile "loadtest").
+ * <p>
+ * Báo cáo throughput, p50/p99 từng endpoint, tỉ lệ xung đột (409 khi giữ ghế) và số
+ * ghế bị đặt trùng (phải bằng 0; khác 0 thì thoát với mã 1). Cuối lượt chạy, bản scrape
+ * /actuator/prometheus được lưu thành metrics.prom cạnh file báo cáo để xem thời gian
+ * từng bước (booking.stage, payment.callback, ...).
+ * <p>
+ * Tham số (system property, truyền qua gradle loadTest -P...): loadtest.users,
+ * loadtest.showtimes, loadtest.seatsPerBooking, loadtest.attempts,
+ * loadtest.failedPaymentRatio, loadtest.reportFile.
+ */
+public class BookingRushLoadTest {
+    private final int users = Integer.getInteger("loadtest.users", 200);
+    private final int showTimeCount = Integer.getInteger("loadtest.showtimes", 2);
+    private final int seatsPerBooking = Integer.getInteger("loadtest.seatsPerBooking", 2);
+    private final int attempts = Integer.getInteger("loadtest.attempts", 3);
+    private final double failedPaymentRatio = Double.parseDouble(
+            System.getProperty("loadtest.failedPaymentRatio", "0.1"));
+
+    private final LatencyRecorder holds = new LatencyRecorder("POST seat-holds");
+    private final LatencyRecorder bookings = new LatencyRecorder("POST bookings");
+    private final LatencyRecorder callbacks = new LatencyRecorder("GET vnpay/callback");
+    private final AtomicInteger conflicts = new AtomicInteger();
+    private final AtomicInteger confirmed = new AtomicInteger();
+    private final AtomicInteger paymentsFailed = new AtomicInteger();
+    private final AtomicInteger gaveUp = new AtomicInteger();
+
+    private ConfigurableApplicationContext context;
+    private HttpClient http;
+    private ObjectMapper objectMapper;
+    private VNPaySigner signer;
+    private String baseUrl;
+    private String prometheusUrl;
+    private final Map<Long, List<Long>> seatIdsByShowTime = new TreeMap<>();
+
+    public static void main(String[] args) throws Exception {
+        int violations = new BookingRushLoadTest().run();
+        System.exit(violations == 0 ? 0 : 1);
+    }
+
+    int run() throws Exception {
+        context = new SpringApplicationBuilder(TicketbookingApplication.class).profiles("loadtest").run();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port + "/api/v1";
+            prometheusUrl = "http://localhost:" + port + "/actuator/prometheus";
+            objectMapper = context.getBean(ObjectMapper.class);
+            signer = context.getBean(VNPaySigner.class);
+            http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            createShowTimes();
+            List<String> tokens = createUsers();
+            long elapsedNanos = rush(tokens);
+            int violations = countDoubleBookedSeats();
+            report(elapsedNanos, violations);
+            return violations;
+        } finally {
+            context.close();
+        }
+    }
+
+    private void createShowTimes() {
+        FilmRepository filmRepository = context.getBean(FilmRepository.class);
+        List<Auditorium> auditoriums = context.getBean(AuditoriumRepository.class).findAll();
+        SeatRepository seatRepository = context.getBean(SeatRepository.class);
+        ShowTimeRepository showTimeRepository = context.getBean(ShowTimeRepository.class);
+        for (int i = 0; i < showTimeCount; i++) {
+            ShowTime showTime = new ShowTime();
+            showTime.setFilm(filmRepository.findAll().get(0));
+            showTime.setAuditorium(auditoriums.get(i % auditoriums.size()));
+            showTime.setDate(LocalDate.now().plusDays(1));
+            showTime.setStartTime(LocalTime.of(18 + i % 4, 0));
+            showTime.setEndTime(LocalTime.of(20 + i % 4, 0));
+            showTime = showTimeRepository.save(showTime);
+            List<Long> seatIds = seatRepository.findByAuditoriumIdFetchVariant(showTime.getAuditorium().getId())
+                    .stream().map(Seat::getId).sorted().toList();
+            seatIdsByShowTime.put(showTime.getId(), seatIds);
+        }
+    }
+
+    private List<String> createUsers() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        SecurityUtil securityUtil = context.getBean(SecurityUtil.class);
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setUsername("vu" + i);
+            user.setEmail("vu" + i + "@loadtest.local");
+            user.setPassword("-");
+            user.setRole(RoleEnum.CUSTOMER);
+            created.add(user);
+        }
+        List<String> tokens = new ArrayList<>();
+        for (User user : userRepository.saveAll(created)) {
+            ResLoginDto login = new ResLoginDto();
+            login.setUser(new ResUserJwtDto(user.getId(), user.getUsername(), user.getEmail(), null, null, null,
+                    user.getRole()));
+            tokens.add(securityUtil.createAccessToken(user.getEmail(), login));
+        }
+        return tokens;
+    }
+
+    private long rush(List<String> tokens) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(users);
+        for (String token : tokens) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    virtualUser(token);
+                } catch (Exception e) {
+                    gaveUp.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdownNow();
+        return elapsed;
+    }
+
+    /**
+     * Một người dùng: thử giữ một dãy ghế liền nhau, nếu bị chiếm (409) thì chọn dãy
+     * khác; giữ được thì đặt vé và thanh toán
+     */
+    private void virtualUser(String token) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> showTimeIds = new ArrayList<>(seatIdsByShowTime.keySet());
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            Long showTimeId = showTimeIds.get(random.nextInt(showTimeIds.size()));
+            List<Long> seats = seatIdsByShowTime.get(showTimeId);
+            int first = random.nextInt(seats.size() - seatsPerBooking + 1);
+            List<Long> wanted = seats.subList(first, first + seatsPerBooking);
+
+            HttpResponse<String> hold = send(holds, token, HttpRequest.newBuilder(URI.create(baseUrl + "/seat-holds"))
+                    .POST(json(Map.of("showtimeId", showTimeId, "seatIds", wanted))));
+            if (hold.statusCode() == 409) {
+                conflicts.incrementAndGet();
+                continue;
+            }
+            if (hold.statusCode() != 201) {
+                break;
+            }
+
+            HttpResponse<String> booking = send(bookings, token, HttpRequest.newBuilder(URI.create(baseUrl + "/bookings"))
+                    .POST(json(Map.of("paymentMethod", "VNPAY"))));
+            if (booking.statusCode() >= 300) {
+                break;
+            }
+            String paymentUrl = objectMapper.readTree(booking.body()).path("data").path("paymentUrl").asText();
+
+            boolean pay = random.nextDouble() >= failedPaymentRatio;
+            HttpResponse<String> callback = send(callbacks, null,
+                    HttpRequest.newBuilder(URI.create(callbackUrl(paymentUrl, pay))).GET());
+            String location = callback.headers().firstValue("Location").orElse("");
+            if (pay && location.contains("payment-success")) {
+                confirmed.incrementAndGet();
+            } else if (!pay) {
+                paymentsFailed.incrementAndGet();
+            }
+            return;
+        }
+        gaveUp.incrementAndGet();
+    }
+
+    /**
+     * Callback VNPay giả: ký tham số bằng hash secret của ứng dụng như gateway thật
+     */
+    private String callbackUrl(String paymentUrl, boolean success) {
+        Map<String, String> params = new TreeMap<>();
+        params.put("vnp_TxnRef", queryParam(paymentUrl, "vnp_TxnRef"));
+        params.put("vnp_Amount", queryParam(paymentUrl, "vnp_Amount"));
+        params.put("vnp_TransactionNo", String.valueOf(ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE)));
+        params.put("vnp_ResponseCode", success ? "00" : "24");
+        params.put("vnp_TransactionStatus", success ? "00" : "02");
+        params.put("vnp_BankCode", "NCB");
+        String query = signer.canonicalQuery(params);
+        return baseUrl + "/payments/vnpay/callback?" + query + "&vnp_SecureHash=" + signer.sign(query);
+    }
+
+    private static String queryParam(String url, String name) {
+        int start = url.indexOf(name + "=");
+        if (start < 0) {
+            throw new IllegalStateException(name + " missing in " + url);
+        }
+        start += name.length() + 1;
+        int end = url.indexOf('&', start);
+        return end < 0 ? url.substring(start) : url.substring(start, end);
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) throws IOException {
+        return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+    }
+
+    private HttpResponse<String> send(LatencyRecorder recorder, String token, HttpRequest.Builder request)
+            throws IOException, InterruptedException {
+        request.timeout(Duration.ofSeconds(30)).header("Content-Type", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        long begin = System.nanoTime();
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        recorder.record(System.nanoTime() - begin, status >= 400 && status != 409);
+        return response;
+    }
+
+    private int countDoubleBookedSeats() {
+        Integer count = context.getBean(JdbcTemplate.class).queryForObject("""
+                SELECT COUNT(*) FROM (
+                    SELECT showtime_id, seat_id FROM booking_items
+                    GROUP BY showtime_id, seat_id HAVING COUNT(*) > 1
+                ) t
+                """, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private void report(long elapsedNanos, int violations) throws IOException {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        int requests = holds.count() + bookings.count() + callbacks.count();
+        int seats = seatIdsByShowTime.values().stream().mapToInt(List::size).sum();
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("virtual users        %d (%d showtimes, %d seats, %d seats/booking)",
+                users, showTimeCount, seats, seatsPerBooking));
+        lines.add(String.format("duration             %.2f s", seconds));
+        lines.add(String.format("throughput           %.1f req/s, %.1f confirmed bookings/s",
+                requests / seconds, confirmed.get() / seconds));
+        lines.add(String.format("confirmed bookings   %d (%d seats)", confirmed.get(), confirmed.get() * seatsPerBooking));
+        lines.add(String.format("failed payments      %d", paymentsFailed.get()));
+        lines.add(String.format("gave up              %d", gaveUp.get()));
+        lines.add(String.format("hold conflict rate   %.1f%% (%d of %d holds)",
+                holds.count() == 0 ? 0 : 100.0 * conflicts.get() / holds.count(), conflicts.get(), holds.count()));
+        lines.add(String.format("double-booked seats  %d", violations));
+        lines.add("");
+        lines.add(LatencyRecorder.header());
+        lines.add(holds.summary());
+        lines.add(bookings.summary());
+        lines.add(callbacks.summary());
+
+        String text = String.join(System.lineSeparator(), lines) + System.lineSeparator();
+        System.out.println(text);
+        String reportFile = System.getProperty("loadtest.reportFile");
+        if (reportFile != null) {
+            Path path = Path.of(reportFile);
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, text);
+            Files.writeString(path.resolveSibling("metrics.prom"), scrapeMetrics());
+        }
+    }
+
+    private String scrapeMetrics() throws IOException {
+        try {
+            return http.send(HttpRequest.newBuilder(URI.create(prometheusUrl)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
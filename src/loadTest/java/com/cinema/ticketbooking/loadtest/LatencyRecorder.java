@@ -0,0 +1,56 @@
+package com.cinema.ticketbooking.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Ghi latency (nano giây) và số lỗi của một endpoint từ nhiều thread
+ */
+class LatencyRecorder {
+    private final String name;
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long nanos, boolean error) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized String summary() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return String.format("%-18s %8d %8d %10.2f %10.2f %10.2f", name, count, errors,
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    static String header() {
+        return String.format("%-18s %8s %8s %10s %10s %10s", "endpoint", "count", "errors", "p50 ms", "p99 ms",
+                "max ms");
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
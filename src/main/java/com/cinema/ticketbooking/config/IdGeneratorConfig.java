@@ -0,0 +1,46 @@
+package com.cinema.ticketbooking.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.cinema.ticketbooking.util.id.IdBlockAllocator;
+import com.cinema.ticketbooking.util.id.PooledIdGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Pool kết nối riêng cho {@link IdBlockAllocator} và đưa allocator vào cấu hình
+ * Hibernate để {@link PooledIdGenerator} dùng.
+ * <p>
+ * Pool riêng là bean với {@code defaultCandidate = false}: DataSource chính của Spring
+ * Boot vẫn được tự cấu hình, còn pool này vẫn có metric Hikari và đi qua các
+ * BeanPostProcessor như DataSource chính.
+ */
+@Configuration
+public class IdGeneratorConfig {
+    private static final int ID_ALLOCATOR_POOL_SIZE = 4;
+
+    @Bean(defaultCandidate = false)
+    public HikariDataSource idAllocatorDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class).build();
+        dataSource.setPoolName("id-allocator");
+        dataSource.setMaximumPoolSize(ID_ALLOCATOR_POOL_SIZE);
+        dataSource.setMinimumIdle(1);
+        return dataSource;
+    }
+
+    @Bean
+    public IdBlockAllocator idBlockAllocator(@Qualifier("idAllocatorDataSource") DataSource dataSource) {
+        return new IdBlockAllocator(dataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer idBlockAllocatorHibernateCustomizer(IdBlockAllocator idBlockAllocator) {
+        return properties -> properties.put(PooledIdGenerator.ALLOCATOR_SETTING, idBlockAllocator);
+    }
+}
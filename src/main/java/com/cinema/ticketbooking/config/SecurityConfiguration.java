@@ -2,6 +2,8 @@ package com.cinema.ticketbooking.config;
 
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,6 +32,8 @@ import javax.crypto.spec.SecretKeySpec;
 @Configuration
 @EnableMethodSecurity(securedEnabled = true)
 public class SecurityConfiguration {
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfiguration.class);
+
     @Value("${ticketbooking.jwt.base64-secret}")
     private String jwtKey;
 
@@ -66,13 +70,16 @@ public class SecurityConfiguration {
                         authz -> authz
                                 .requestMatchers("/", "/api/v1/auth/login", "/api/v1/auth/register",
                                         "/api/v1/auth/forgot-password", "/api/v1/auth/verify-otp",
-                                        "/api/v1/payments/vnpay/callback",
+                                        "/api/v1/payments/vnpay/callback", "/api/v1/payments/vnpay/ipn",
                                         "/api/v1/auth/reset-password", "/api/v1/users",
                                         "/api/v1/addresses/**",
                                         "/api/v1/theaters/**",
                                         "/api/v1/auth/refresh", "/h2-console/**",
-                                        "/api/v1/films", "/api/v1/films/**")
+                                        "/api/v1/films", "/api/v1/films/**",
+                                        "/actuator/health")
                                 .permitAll()
+                                // metric lộ tên endpoint, số booking...: Prometheus scrape bằng bearer token ADMIN
+                                .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
                                 .anyRequest().authenticated()
 
                 )
@@ -115,7 +122,7 @@ public class SecurityConfiguration {
             try {
                 return jwtDecoder.decode(token);
             } catch (Exception e) {
-                System.out.println(">>> JWT error: " + e.getMessage());
+                log.warn("JWT error: {}", e.getMessage());
                 throw e;
             }
         };
@@ -0,0 +1,35 @@
+package com.cinema.ticketbooking.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cinema.ticketbooking.domain.response.ResAdmissionDto;
+import com.cinema.ticketbooking.service.AdmissionControlService;
+import com.cinema.ticketbooking.util.annotation.ApiMessage;
+
+@RestController
+@RequestMapping("api/v1")
+public class AdmissionController {
+    private final AdmissionControlService admissionControlService;
+
+    public AdmissionController(AdmissionControlService admissionControlService) {
+        this.admissionControlService = admissionControlService;
+    }
+
+    @PostMapping("/showtimes/{id}/queue")
+    @ApiMessage("join the waiting room of a showtime")
+    public ResponseEntity<ResAdmissionDto> joinQueue(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.OK).body(this.admissionControlService.join(id));
+    }
+
+    @GetMapping("/showtimes/{id}/queue")
+    @ApiMessage("fetch waiting room position")
+    public ResponseEntity<ResAdmissionDto> getQueueStatus(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.OK).body(this.admissionControlService.getStatus(id));
+    }
+}
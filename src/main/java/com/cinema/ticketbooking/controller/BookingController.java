@@ -2,18 +2,18 @@ package com.cinema.ticketbooking.controller;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.cinema.ticketbooking.domain.Booking;
-import com.cinema.ticketbooking.domain.BookingItem;
-import com.cinema.ticketbooking.domain.Film;
-import com.cinema.ticketbooking.domain.ShowTime;
-import com.cinema.ticketbooking.domain.Theater;
+import com.cinema.ticketbooking.domain.TicketArtifact;
 import com.cinema.ticketbooking.domain.User;
 import com.cinema.ticketbooking.domain.request.ReqCreateBookingDto;
 import com.cinema.ticketbooking.domain.request.ReqUpdateBookingStatusDto;
@@ -21,10 +21,13 @@ import com.cinema.ticketbooking.domain.response.ResBookingDto;
 import com.cinema.ticketbooking.domain.response.ResCreateBookingDto;
 import com.cinema.ticketbooking.domain.response.ResRevenueDto;
 import com.cinema.ticketbooking.domain.response.ResultPaginationDto;
+import com.cinema.ticketbooking.service.AdmissionControlService;
 import com.cinema.ticketbooking.service.BookingService;
+import com.cinema.ticketbooking.service.TicketArtifactService;
 import com.cinema.ticketbooking.service.UserService;
 import com.cinema.ticketbooking.util.SecurityUtil;
 import com.cinema.ticketbooking.util.annotation.ApiMessage;
+import com.cinema.ticketbooking.util.error.ApiException;
 import com.cinema.ticketbooking.util.error.IdInvalidException;
 import com.turkraft.springfilter.boot.Filter;
 
@@ -33,24 +36,34 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.time.Duration;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/v1")
 public class BookingController {
     private final BookingService bookingService;
     private final UserService userService;
+    private final AdmissionControlService admissionControlService;
+    private final TicketArtifactService ticketArtifactService;
 
-    BookingController(BookingService bookingService, UserService userService) {
+    BookingController(BookingService bookingService, UserService userService,
+            AdmissionControlService admissionControlService, TicketArtifactService ticketArtifactService) {
         this.bookingService = bookingService;
         this.userService = userService;
+        this.admissionControlService = admissionControlService;
+        this.ticketArtifactService = ticketArtifactService;
     }
 
     @PostMapping("/bookings")
     public ResponseEntity<ResCreateBookingDto> createBooking(
             @Valid @RequestBody ReqCreateBookingDto request,
+            @RequestHeader(value = AdmissionControlService.TICKET_HEADER, required = false) String admissionTicket,
             HttpServletRequest httpRequest) {
         Long userId = SecurityUtil.getCurrentUserId()
                 .orElseThrow(() -> new IdInvalidException("User not authenticated"));
@@ -60,11 +73,19 @@ public class BookingController {
             throw new IdInvalidException("User not found");
         }
 
+        // Ticket phải khớp showtime của các ghế đang hold và chỉ tạo được một booking
+        String claimed = this.admissionControlService.claimForBooking(user.getId(), admissionTicket);
+
         // Get client IP address
         String ipAddress = getClientIp(httpRequest);
 
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(this.bookingService.createBooking(user.getId(), request.getPaymentMethod(), ipAddress));
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(this.bookingService.createBooking(user.getId(), request.getPaymentMethod(), ipAddress));
+        } catch (RuntimeException e) {
+            this.admissionControlService.releaseBookingClaim(claimed);
+            throw e;
+        }
     }
 
     private String getClientIp(HttpServletRequest request) {
@@ -96,103 +117,65 @@ public class BookingController {
     @ApiMessage("fetch all bookings")
     public ResponseEntity<ResultPaginationDto> getAllBookings(
             @Filter Specification<Booking> spec,
-            Pageable pageable) {
+            Pageable pageable,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        // Có tham số cursor (kể cả rỗng cho trang đầu) thì phân trang keyset
+        if (cursor != null) {
+            return ResponseEntity.ok(this.bookingService.getAllBookingsAfter(spec, cursor, pageable.getPageSize(),
+                    withTotal));
+        }
         return ResponseEntity.status(HttpStatus.OK).body(this.bookingService.getAllBookings(spec, pageable));
     }
 
     @GetMapping("/bookings/{id}")
     @ApiMessage("fetch booking by id")
     public ResponseEntity<ResBookingDto> getBookingById(@PathVariable("id") Long id) {
-        Booking booking = this.bookingService.getBookingById(id);
-        if (booking == null) {
+        ResBookingDto response = this.bookingService.getBookingDetails(id);
+        if (response == null) {
             throw new IdInvalidException("Booking not found");
         }
+        return ResponseEntity.ok(response);
+    }
 
-        ResBookingDto response = new ResBookingDto();
-        response.setId(booking.getId());
-        response.setUser(new ResBookingDto.UserInfo(booking.getUser().getId(), booking.getUser().getUsername()));
-        response.setStatus(booking.getStatus());
-        response.setTotal_price(booking.getTotal_price());
-        response.setQrCode(booking.getQrCode());
-
-        // Map seats from booking items
-        if (booking.getBookingItems() != null && !booking.getBookingItems().isEmpty()) {
-            java.util.List<ResBookingDto.SeatInfo> seats = booking.getBookingItems().stream()
-                    .map(item -> new ResBookingDto.SeatInfo(
-                            item.getSeat().getId(),
-                            item.getSeat().getSeatRow(),
-                            item.getSeat().getNumber(),
-                            item.getPrice()))
-                    .collect(java.util.stream.Collectors.toList());
-            response.setSeats(seats);
-
-            // Get showtime from first booking item
-            BookingItem firstItem = booking.getBookingItems().get(0);
-            if (firstItem.getShowTime() != null) {
-                ShowTime showtime = firstItem.getShowTime();
-
-                // Map showtime info
-                ResBookingDto.ShowTimeInfo showtimeInfo = new ResBookingDto.ShowTimeInfo(
-                        showtime.getId(),
-                        showtime.getDate(),
-                        showtime.getStartTime(),
-                        showtime.getEndTime(),
-                        showtime.getAuditorium() != null ? String.valueOf(showtime.getAuditorium().getNumber()) : null);
-                response.setShowtime(showtimeInfo);
-
-                // Map film info
-                if (showtime.getFilm() != null) {
-                    Film film = showtime.getFilm();
-                    ResBookingDto.FilmInfo filmInfo = new ResBookingDto.FilmInfo(
-                            film.getId(),
-                            film.getName(),
-                            film.getDirector(),
-                            film.getActors(),
-                            film.getDuration(),
-                            film.getDescription(),
-                            film.getGenre(),
-                            film.getLanguage(),
-                            film.getReleaseDate(),
-                            film.getStatus(),
-                            film.getThumbnail());
-                    response.setFilm(filmInfo);
-                }
-
-                // Map theater info
-                if (showtime.getAuditorium() != null && showtime.getAuditorium().getTheater() != null) {
-                    Theater theater = showtime.getAuditorium().getTheater();
-                    String addressStr = null;
-                    if (theater.getAddress() != null) {
-                        addressStr = String.format("%s %s, %s",
-                                theater.getAddress().getStreet_number() != null
-                                        ? theater.getAddress().getStreet_number()
-                                        : "",
-                                theater.getAddress().getStreet_name() != null ? theater.getAddress().getStreet_name()
-                                        : "",
-                                theater.getAddress().getCity() != null ? theater.getAddress().getCity() : "").trim();
-                    }
-                    ResBookingDto.TheaterInfo theaterInfo = new ResBookingDto.TheaterInfo(
-                            theater.getId(),
-                            theater.getName(),
-                            addressStr);
-                    response.setTheater(theaterInfo);
-                }
+    /**
+     * Ảnh QR vé (PNG) với ETag mạnh theo SHA-256 nội dung; If-None-Match khớp thì
+     * trả 304 mà không đọc ảnh. Chỉ chủ booking hoặc ADMIN được xem.
+     */
+    @GetMapping(value = "/bookings/{id}/qr", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getBookingQrCode(@PathVariable("id") Long id, WebRequest request) {
+        if (!SecurityUtil.isCurrentUserAdmin()) {
+            Long userId = SecurityUtil.getCurrentUserId()
+                    .orElseThrow(() -> new IdInvalidException("User not authenticated"));
+            if (!userId.equals(this.ticketArtifactService.findOwnerId(id))) {
+                throw new ApiException("You are not allowed to view this ticket", HttpStatus.FORBIDDEN);
             }
         }
 
-        response.setCreatedAt(booking.getCreatedAt());
-        response.setUpdatedAt(booking.getUpdatedAt());
-        response.setCreatedBy(booking.getCreatedBy());
-        response.setUpdatedBy(booking.getUpdatedBy());
+        Optional<String> storedEtag = this.ticketArtifactService.findEtag(id);
+        if (storedEtag.isPresent() && request.checkNotModified("\"" + storedEtag.get() + "\"")) {
+            return null;
+        }
 
-        return ResponseEntity.ok(response);
+        TicketArtifact artifact = this.ticketArtifactService.getOrRender(id);
+        return ResponseEntity.ok()
+                .eTag(artifact.getEtag())
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate())
+                .contentType(MediaType.IMAGE_PNG)
+                .body(artifact.getPng());
     }
 
     @GetMapping("/users/{userId}/bookings")
     @ApiMessage("fetch all bookings of a user")
     public ResponseEntity<ResultPaginationDto> getBookingsByUserId(
             @PathVariable("userId") Long userId,
-            Pageable pageable) {
+            Pageable pageable,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        if (cursor != null) {
+            return ResponseEntity.ok(this.bookingService.getBookingsByUserIdAfter(userId, cursor,
+                    pageable.getPageSize(), withTotal));
+        }
         return ResponseEntity.ok(this.bookingService.getBookingsByUserId(userId, pageable));
     }
 
@@ -202,25 +185,13 @@ public class BookingController {
     public ResponseEntity<ResBookingDto> updateBookingStatus(
             @PathVariable("id") Long id,
             @Valid @RequestBody ReqUpdateBookingStatusDto request) {
-        Booking booking = this.bookingService.getBookingById(id);
-        if (booking == null) {
+        if (!this.bookingService.existsById(id)) {
             throw new IdInvalidException("Booking not found");
         }
 
-        Booking updatedBooking = this.bookingService.updateBookingStatus(id, request.getStatus());
-
-        ResBookingDto response = new ResBookingDto();
-        response.setId(updatedBooking.getId());
-        response.setUser(
-                new ResBookingDto.UserInfo(updatedBooking.getUser().getId(), updatedBooking.getUser().getUsername()));
-        response.setStatus(updatedBooking.getStatus());
-        response.setTotal_price(updatedBooking.getTotal_price());
-        response.setQrCode(updatedBooking.getQrCode());
-        response.setCreatedAt(updatedBooking.getCreatedAt());
-        response.setUpdatedAt(updatedBooking.getUpdatedAt());
-        response.setCreatedBy(updatedBooking.getCreatedBy());
-        response.setUpdatedBy(updatedBooking.getUpdatedBy());
+        this.bookingService.updateBookingStatus(id, request.getStatus());
 
+        ResBookingDto response = this.bookingService.getBookingDetails(id);
         return ResponseEntity.ok(response);
     }
 
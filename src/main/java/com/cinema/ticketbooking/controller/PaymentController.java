@@ -5,8 +5,10 @@ import com.cinema.ticketbooking.domain.request.ReqCreatePaymentDto;
 import com.cinema.ticketbooking.domain.request.ReqVNPayPaymentDto;
 import com.cinema.ticketbooking.domain.response.ResPaymentDto;
 import com.cinema.ticketbooking.domain.response.ResPaymentUrlDto;
+import com.cinema.ticketbooking.domain.response.ResVnPayIpnDto;
 import com.cinema.ticketbooking.service.BookingService;
 import com.cinema.ticketbooking.service.PaymentService;
+import com.cinema.ticketbooking.service.VNPayIpnProcessor;
 import com.cinema.ticketbooking.service.VNPayService;
 import com.cinema.ticketbooking.util.annotation.ApiMessage;
 import com.cinema.ticketbooking.util.error.BadRequestException;
@@ -28,10 +30,13 @@ import java.util.stream.Collectors;
 public class PaymentController {
     private final PaymentService paymentService;
     private final VNPayService vnPayService;
+    private final VNPayIpnProcessor vnPayIpnProcessor;
 
-    public PaymentController(PaymentService paymentService, VNPayService vnPayService) {
+    public PaymentController(PaymentService paymentService, VNPayService vnPayService,
+            VNPayIpnProcessor vnPayIpnProcessor) {
         this.paymentService = paymentService;
         this.vnPayService = vnPayService;
+        this.vnPayIpnProcessor = vnPayIpnProcessor;
     }
 
     @GetMapping("/bookings/{bookingId}/payments")
@@ -102,6 +107,16 @@ public class PaymentController {
         response.sendRedirect(redirectUrl);
     }
 
+    /**
+     * IPN từ VNPay: xác nhận thanh toán kể cả khi người dùng đã đóng trình duyệt.
+     * Chữ ký, đơn và số tiền được kiểm tra trước khi trả lời; RspCode 00 chỉ sau khi
+     * cập nhật trạng thái đã commit.
+     */
+    @GetMapping("/payments/vnpay/ipn")
+    public ResponseEntity<ResVnPayIpnDto> vnpayIpn(@RequestParam Map<String, String> params) {
+        return ResponseEntity.ok(vnPayIpnProcessor.process(params));
+    }
+
     private String getClientIp(HttpServletRequest request) {
         String ipAddress = request.getHeader("X-Forwarded-For");
         if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
@@ -5,12 +5,14 @@ import java.util.List;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.cinema.ticketbooking.domain.SeatHold;
 import com.cinema.ticketbooking.domain.User;
 import com.cinema.ticketbooking.domain.request.ReqCreateSeatHoldDto;
+import com.cinema.ticketbooking.service.AdmissionControlService;
 import com.cinema.ticketbooking.service.SeatHoldService;
 import com.cinema.ticketbooking.service.SeatService;
 import com.cinema.ticketbooking.service.UserService;
@@ -28,15 +30,20 @@ public class SeatHoldController {
     private final SeatHoldService seatHoldService;
     private final SeatService seatService;
     private final UserService userService;
+    private final AdmissionControlService admissionControlService;
 
-    public SeatHoldController(SeatHoldService seatHoldService, SeatService seatService, UserService userService) {
+    public SeatHoldController(SeatHoldService seatHoldService, SeatService seatService, UserService userService,
+            AdmissionControlService admissionControlService) {
         this.seatHoldService = seatHoldService;
         this.seatService = seatService;
         this.userService = userService;
+        this.admissionControlService = admissionControlService;
     }
 
     @PostMapping("/seat-holds")
-    public ResponseEntity<Void> createSeatHold(@Valid @RequestBody ReqCreateSeatHoldDto reqSeatHold) {
+    public ResponseEntity<Void> createSeatHold(@Valid @RequestBody ReqCreateSeatHoldDto reqSeatHold,
+            @RequestHeader(value = AdmissionControlService.TICKET_HEADER, required = false) String admissionTicket) {
+        this.admissionControlService.requireAdmission(reqSeatHold.getShowtimeId(), admissionTicket);
         this.seatHoldService.createSeatHold(reqSeatHold);
         return ResponseEntity.status(HttpStatus.CREATED).body(null);
     }
@@ -22,9 +22,11 @@ import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("api/v1")
@@ -122,4 +124,13 @@ public class ShowTimeController {
         return ResponseEntity.status(HttpStatus.OK)
                 .body(this.seatService.getSeatAvailabilityByShowTime(id));
     }
+
+    /**
+     * Stream thay đổi trạng thái ghế theo showtime (Server-Sent Events), thay cho việc poll API trên
+     */
+    @GetMapping(value = "/showtimes/{id}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiMessage("stream seat availability for showtime")
+    public SseEmitter streamSeatAvailability(@PathVariable Long id) {
+        return this.seatService.streamSeatAvailabilityByShowTime(id);
+    }
 }
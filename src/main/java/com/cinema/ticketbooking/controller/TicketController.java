@@ -0,0 +1,44 @@
+package com.cinema.ticketbooking.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cinema.ticketbooking.domain.request.ReqVerifyTicketBatchDto;
+import com.cinema.ticketbooking.domain.request.ReqVerifyTicketDto;
+import com.cinema.ticketbooking.domain.response.ResTicketVerificationDto;
+import com.cinema.ticketbooking.service.TicketGateService;
+import com.cinema.ticketbooking.util.annotation.ApiMessage;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("api/v1")
+public class TicketController {
+    private final TicketGateService ticketGateService;
+
+    public TicketController(TicketGateService ticketGateService) {
+        this.ticketGateService = ticketGateService;
+    }
+
+    @PostMapping("/tickets/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ApiMessage("verify a ticket at the gate")
+    public ResponseEntity<ResTicketVerificationDto> verifyTicket(@Valid @RequestBody ReqVerifyTicketDto req) {
+        return ResponseEntity.status(HttpStatus.OK).body(this.ticketGateService.verify(req));
+    }
+
+    @PostMapping("/tickets/verify/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ApiMessage("verify a batch of tickets at the gate")
+    public ResponseEntity<List<ResTicketVerificationDto>> verifyTickets(
+            @Valid @RequestBody ReqVerifyTicketBatchDto req) {
+        return ResponseEntity.status(HttpStatus.OK).body(this.ticketGateService.verifyAll(req.getTickets()));
+    }
+}
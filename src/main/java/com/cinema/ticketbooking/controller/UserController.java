@@ -53,10 +53,6 @@ public class UserController {
     @ApiMessage("fetch all users")
     public ResponseEntity<ResultPaginationDto> getAllUsers(
             @Filter Specification<User> spec, Pageable pageable) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        auth.getAuthorities().forEach(authority -> {
-            System.out.println(authority.getAuthority());
-        });
         return ResponseEntity.status(HttpStatus.OK).body(this.userService.getAllUser(spec, pageable));
     }
 
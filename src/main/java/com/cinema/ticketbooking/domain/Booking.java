@@ -11,7 +11,10 @@ import java.time.Instant;
 import java.util.List;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+                // keyset pagination: lịch sử theo user và danh sách admin theo (createdAt, id)
+                @Index(name = "idx_bookings_user_created_id", columnList = "user_id, created_at, id"),
+                @Index(name = "idx_bookings_created_id", columnList = "created_at, id") })
 @Data
 public class Booking {
         @Id
@@ -38,9 +41,6 @@ public class Booking {
         private BookingStatusEnum status;
         private Double total_price;
 
-        @Column(columnDefinition = "TEXT")
-        private String qrCode; // Base64 encoded QR code or QR code URL
-
         @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss a", timezone = "GMT+7")
         private Instant createdAt;
         @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss a", timezone = "GMT+7")
@@ -1,6 +1,7 @@
 package com.cinema.ticketbooking.domain;
 
 import com.cinema.ticketbooking.util.SecurityUtil;
+import com.cinema.ticketbooking.util.id.PooledId;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -11,8 +12,9 @@ import java.time.Instant;
 @Table(name = "booking_items")
 @Data
 public class BookingItem {
+    // Id cấp theo khối (pooled) từ bảng id_generators thay vì IDENTITY để Hibernate gộp được INSERT theo batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("booking_items")
     private Long id;
 
     @ManyToOne
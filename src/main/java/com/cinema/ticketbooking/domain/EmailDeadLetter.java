@@ -0,0 +1,42 @@
+package com.cinema.ticketbooking.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Email đã hết số lần thử gửi (hoặc còn trong hàng đợi khi ứng dụng dừng). Lưu nguyên
+ * MIME để gửi lại bằng tay sau khi sửa sự cố SMTP.
+ */
+@Entity
+@Table(name = "email_dead_letters")
+@Data
+public class EmailDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 50, nullable = false)
+    private String type;
+
+    private String recipient;
+
+    private String subject;
+
+    @Lob
+    @Column(length = 16777215)
+    private byte[] mime;
+
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private Instant createdAt;
+
+    @PrePersist
+    public void handleBeforeCreated() {
+        this.createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,155 @@
+package com.cinema.ticketbooking.domain;
+
+import com.cinema.ticketbooking.repository.OutboxEventRepository;
+import com.cinema.ticketbooking.service.BookingService;
+import com.cinema.ticketbooking.service.EmailDispatcher;
+import com.cinema.ticketbooking.service.EmailService;
+import com.cinema.ticketbooking.service.TicketArtifactService;
+import com.cinema.ticketbooking.util.constant.OutboxStatusEnum;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Xử lý các {@link OutboxEvent} ở nền: tạo QR và gửi email xác nhận booking sau
+ * khi thanh toán thành công, không chặn request callback.
+ * <p>
+ * Mỗi event được giữ bằng một lease trước khi xử lý nên nhiều instance không làm
+ * cùng một event; lỗi được thử lại với backoff luỹ thừa, quá {@link #MAX_ATTEMPTS}
+ * lần thì chuyển sang FAILED. Email đã vào hàng đợi của {@link EmailDispatcher} thì
+ * event vẫn PENDING với hạn lùi thêm {@link #DELIVERY_LEASE}: dispatcher báo đã gửi thì
+ * event DONE, báo đã vào dead letter thì FAILED. Tiến trình chết trước khi có kết quả
+ * thì hết hạn event được xử lý lại (email có thể bị gửi hai lần, không bị mất). Hàng
+ * đợi email đầy thì event được thử lại như lỗi thường.
+ */
+@Component
+public class OutboxDispatcher {
+    static final int BATCH_SIZE = 20;
+    static final int MAX_ATTEMPTS = 8;
+    static final Duration LEASE = Duration.ofMinutes(5);
+    // đủ cho hàng đợi email và các lần thử lại SMTP của EmailDispatcher
+    static final Duration DELIVERY_LEASE = Duration.ofMinutes(30);
+    static final Duration BASE_BACKOFF = Duration.ofSeconds(5);
+    static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TicketArtifactService ticketArtifactService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelay = 2000)
+    public void dispatchDueEvents() {
+        Instant now = Instant.now();
+        List<Long> ids = outboxEventRepository.findDueIds(now, PageRequest.of(0, BATCH_SIZE));
+        for (Long id : ids) {
+            dispatch(id, now);
+        }
+    }
+
+    void dispatch(Long id, Instant now) {
+        Boolean claimed = transactionTemplate.execute(
+                status -> outboxEventRepository.claim(id, now, now.plus(LEASE)) == 1);
+        if (!Boolean.TRUE.equals(claimed)) {
+            return;
+        }
+
+        OutboxEvent event = outboxEventRepository.findById(id).orElse(null);
+        if (event == null) {
+            return;
+        }
+
+        try {
+            boolean delivering = handle(event);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (delivering) {
+                    // Chờ EmailDispatcher báo kết quả; listener có thể đã chạy trước
+                    outboxEventRepository.extendLease(id, Instant.now().plus(DELIVERY_LEASE));
+                } else {
+                    outboxEventRepository.finish(id, OutboxStatusEnum.DONE, null);
+                }
+            });
+        } catch (RuntimeException ex) {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findById(id).ifPresent(e -> {
+                int attempts = e.getAttempts() + 1;
+                e.setAttempts(attempts);
+                e.setLastError(truncate(ex.getMessage()));
+                if (attempts >= MAX_ATTEMPTS) {
+                    e.setStatus(OutboxStatusEnum.FAILED);
+                } else {
+                    e.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+                }
+                outboxEventRepository.save(e);
+            }));
+        }
+    }
+
+    /**
+     * @return true nếu đã giao email cho EmailDispatcher và đang chờ kết quả
+     */
+    private boolean handle(OutboxEvent event) {
+        return switch (event.getType()) {
+            case BOOKING_CONFIRMED -> sendBookingConfirmation(event.getId(), event.getAggregateId());
+        };
+    }
+
+    /**
+     * Tạo QR (nếu chưa có) vào ticket_artifacts rồi gửi email, đều ngoài transaction
+     */
+    private boolean sendBookingConfirmation(Long eventId, Long bookingId) {
+        Booking booking = bookingService.getBookingById(bookingId);
+
+        // Booking đã bị xoá thì không còn gì để gửi
+        if (booking == null) {
+            return false;
+        }
+        TicketArtifact qr = ticketArtifactService.getOrRender(booking);
+        emailService.sendBookingConfirmationWithQR(booking, qr.getPng(), deliveryListener(eventId));
+        return true;
+    }
+
+    EmailDispatcher.DeliveryListener deliveryListener(Long eventId) {
+        return new EmailDispatcher.DeliveryListener() {
+            @Override
+            public void onSent() {
+                transactionTemplate.executeWithoutResult(
+                        status -> outboxEventRepository.finish(eventId, OutboxStatusEnum.DONE, null));
+            }
+
+            @Override
+            public void onDeadLettered(String lastError) {
+                transactionTemplate.executeWithoutResult(status -> outboxEventRepository.finish(eventId,
+                        OutboxStatusEnum.FAILED, truncate("Email dead-lettered: " + lastError)));
+            }
+        };
+    }
+
+    static Duration backoff(int attempts) {
+        long multiplier = 1L << Math.min(attempts - 1, 20);
+        Duration delay = BASE_BACKOFF.multipliedBy(multiplier);
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,57 @@
+package com.cinema.ticketbooking.domain;
+
+import com.cinema.ticketbooking.util.constant.OutboxEventTypeEnum;
+import com.cinema.ticketbooking.util.constant.OutboxStatusEnum;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Công việc cần làm sau khi transaction commit (transactional outbox), được
+ * {@link OutboxDispatcher} xử lý ở nền với retry và backoff.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_status_next_attempt", columnList = "status, next_attempt_at"))
+@Data
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 40, nullable = false)
+    private OutboxEventTypeEnum type;
+
+    @Column(nullable = false)
+    private Long aggregateId; // id của booking
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private OutboxStatusEnum status;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss a", timezone = "GMT+7")
+    private Instant createdAt;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss a", timezone = "GMT+7")
+    private Instant updatedAt;
+
+    @PrePersist
+    public void handleBeforeCreated() {
+        this.createdAt = Instant.now();
+    }
+
+    @PreUpdate
+    public void handleBeforeUpdated() {
+        this.updatedAt = Instant.now();
+    }
+}
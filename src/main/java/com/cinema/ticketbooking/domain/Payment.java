@@ -1,6 +1,7 @@
 package com.cinema.ticketbooking.domain;
 
 import com.cinema.ticketbooking.util.SecurityUtil;
+import com.cinema.ticketbooking.util.id.PooledId;
 import com.cinema.ticketbooking.util.constant.PaymentMethodEnum;
 import com.cinema.ticketbooking.util.constant.PaymentStatusEnum;
 import com.fasterxml.jackson.annotation.JsonFormat;
@@ -13,8 +14,9 @@ import java.time.Instant;
 @Table(name = "payments")
 @Data
 public class Payment {
+    // Id cấp theo khối (pooled) từ bảng id_generators thay vì IDENTITY để Hibernate gộp được INSERT theo batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("payments")
     private Long id;
 
     @ManyToOne
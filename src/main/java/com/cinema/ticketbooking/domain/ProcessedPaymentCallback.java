@@ -0,0 +1,33 @@
+package com.cinema.ticketbooking.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Callback VNPay đã xử lý, khoá theo vnp_TxnRef:vnp_TransactionNo. Unique key
+ * đảm bảo mỗi giao dịch chỉ được xử lý một lần; callback lặp lại trả về
+ * redirectUrl đã lưu.
+ */
+@Entity
+@Table(name = "processed_payment_callbacks", uniqueConstraints = @UniqueConstraint(name = "uk_processed_payment_callbacks_key", columnNames = "callback_key"))
+@Data
+public class ProcessedPaymentCallback {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "callback_key", length = 150, nullable = false)
+    private String callbackKey;
+
+    @Column(length = 1000)
+    private String redirectUrl;
+
+    private Instant createdAt;
+
+    @PrePersist
+    public void handleBeforeCreated() {
+        this.createdAt = Instant.now();
+    }
+}
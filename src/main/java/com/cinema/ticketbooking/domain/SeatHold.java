@@ -1,6 +1,7 @@
 package com.cinema.ticketbooking.domain;
 
 import com.cinema.ticketbooking.util.SecurityUtil;
+import com.cinema.ticketbooking.util.id.PooledId;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -11,11 +12,13 @@ import java.time.Instant;
 import java.util.List;
 
 @Entity
-@Table(name = "seat_holds")
+@Table(name = "seat_holds", uniqueConstraints = @UniqueConstraint(name = "uk_seat_holds_seat_show_time", columnNames = {
+        "seat_id", "show_time_id" }))
 @Data
 public class SeatHold {
+    // Id cấp theo khối (pooled) từ bảng id_generators thay vì IDENTITY để Hibernate gộp được INSERT theo batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("seat_holds")
     private Long id;
 
     @OneToMany(mappedBy = "seatHold", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
@@ -1,34 +1,127 @@
 package com.cinema.ticketbooking.domain;
 
 import com.cinema.ticketbooking.repository.SeatHoldRepository;
+import com.cinema.ticketbooking.repository.projection.SeatHoldExpiryProjection;
+import com.cinema.ticketbooking.service.SeatHoldExpiryWheel;
+import com.cinema.ticketbooking.service.SeatStateIndex;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
- * Scheduler để tự động xóa các SeatHold đã hết hạn (quá 5 phút)
- * Không cần cập nhật Seat status vì ghế không còn có trạng thái toàn cục nữa
+ * Giải phóng các SeatHold đã hết hạn (quá 5 phút).
+ * <p>
+ * Đường chính: {@link SeatHoldExpiryWheel} tick mỗi giây và trả về id các hold tới hạn,
+ * chỉ những hold còn trong DB mới bị xoá. Quét theo expires_at mỗi phút chỉ còn là lưới
+ * an toàn (hold bị sót khi restart, lệch đồng hồ...).
  */
 @Component
 public class SeatHoldCleanupScheduler {
+    private static final Logger log = LoggerFactory.getLogger(SeatHoldCleanupScheduler.class);
+
 
     @Autowired
     private SeatHoldRepository seatHoldRepository;
 
+    @Autowired
+    private SeatStateIndex seatStateIndex;
+
+    @Autowired
+    private SeatHoldExpiryWheel seatHoldExpiryWheel;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("seat_hold.active", seatStateIndex, SeatStateIndex::countHeld)
+                .description("Ghế đang được giữ")
+                .register(meterRegistry);
+        Gauge.builder("seat_hold.expiry.pending", seatHoldExpiryWheel, SeatHoldExpiryWheel::size)
+                .description("Hold đang chờ tới hạn trong wheel (gồm cả hold đã bị xoá)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Nạp các hold còn trong DB vào wheel khi ứng dụng khởi động
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleExistingHolds() {
+        for (SeatHoldExpiryProjection hold : seatHoldRepository.findAllExpiring()) {
+            seatHoldExpiryWheel.schedule(hold.getId(), hold.getExpiresAt());
+        }
+    }
+
+    @Scheduled(fixedRate = 1000) // Mỗi tick của wheel
+    public void releaseDueHolds() {
+        List<SeatHoldExpiryWheel.Entry> due = seatHoldExpiryWheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<Long> holdIds = due.stream().map(SeatHoldExpiryWheel.Entry::holdId).toList();
+        List<SeatHoldExpiryProjection> released = transactionTemplate.execute(status -> {
+            // Hold đã được chuyển thành booking hoặc bị huỷ thì không còn trong DB
+            List<SeatHoldExpiryProjection> holds = seatHoldRepository.findExpiryByIdIn(holdIds);
+            release(holds);
+            return holds;
+        });
+        record(released, "wheel");
+    }
+
     @Scheduled(fixedRate = 60000) // Chạy mỗi 1 phút
     @Transactional
     public void cleanupExpiredSeatHolds() {
         Instant now = Instant.now();
-        List<SeatHold> expiredHolds = seatHoldRepository.findExpiredSeatHolds(now);
+        List<SeatHoldExpiryProjection> expiredHolds = seatHoldRepository.findExpiredSeatHolds(now);
 
         if (!expiredHolds.isEmpty()) {
-            seatHoldRepository.deleteAll(expiredHolds);
-            System.out.println("Cleanup at " + now + ": Deleted " + expiredHolds.size() + " expired SeatHolds.");
+            release(expiredHolds);
+            record(expiredHolds, "sweep");
+            log.info("Cleanup at {}: deleted {} expired SeatHolds", now, expiredHolds.size());
+        }
+    }
+
+    private void release(List<SeatHoldExpiryProjection> holds) {
+        if (holds.isEmpty()) {
+            return;
+        }
+        seatHoldRepository.deleteAllByIdInBatch(holds.stream().map(SeatHoldExpiryProjection::getId).toList());
+        holds.stream()
+                .collect(Collectors.groupingBy(SeatHoldExpiryProjection::getShowTimeId,
+                        Collectors.mapping(SeatHoldExpiryProjection::getSeatId, Collectors.toList())))
+                .forEach(seatStateIndex::releaseHolds);
+    }
+
+    private void record(List<SeatHoldExpiryProjection> holds, String source) {
+        if (holds == null || holds.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        meterRegistry.counter("seat_hold.expired", "source", source).increment(holds.size());
+        for (SeatHoldExpiryProjection hold : holds) {
+            // Độ trễ từ expiresAt tới lúc ghế thực sự được trả lại
+            meterRegistry.timer("seat_hold.expiry.lag", "source", source)
+                    .record(Duration.between(hold.getExpiresAt(), now));
         }
     }
-}
\ No newline at end of file
+}
@@ -8,6 +8,7 @@ import lombok.Data;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -47,6 +48,16 @@ public class ShowTime {
         private String createdBy;
         private String updatedBy;
 
+        /**
+         * Giờ kết thúc suất chiếu; suất qua nửa đêm thì sang ngày hôm sau, thiếu
+         * endTime thì coi như dài 3 giờ
+         */
+        public LocalDateTime endDateTime() {
+                LocalTime end = endTime != null ? endTime : startTime.plusHours(3);
+                LocalDateTime endsAt = date.atTime(end);
+                return end.isBefore(startTime) ? endsAt.plusDays(1) : endsAt;
+        }
+
         @PrePersist
         public void handleBeforeCreated() {
                 this.createdBy = SecurityUtil.getCurrentUserLogin().isPresent()
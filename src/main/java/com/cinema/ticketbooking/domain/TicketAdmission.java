@@ -0,0 +1,42 @@
+package com.cinema.ticketbooking.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Vé đã vào cửa: mỗi booking tối đa một dòng, khoá chính booking_id bảo đảm chỉ một lần
+ * quét được ADMITTED kể cả sau khi khởi động lại hay quét ở instance khác.
+ * expires_at là hạn của vé, dòng quá hạn được xoá vì vé hết hạn bị từ chối trước.
+ */
+@Entity
+@Table(name = "ticket_admissions")
+@Data
+public class TicketAdmission implements Persistable<Long> {
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    private Instant admittedAt;
+
+    @PrePersist
+    public void handleBeforeCreated() {
+        this.admittedAt = Instant.now();
+    }
+
+    @Override
+    public Long getId() {
+        return bookingId;
+    }
+
+    // Id gán tay (booking_id): INSERT thẳng, trùng khoá thì lỗi thay vì merge
+    @Override
+    public boolean isNew() {
+        return admittedAt == null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.cinema.ticketbooking.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Ảnh QR (PNG thô) của một booking, tách khỏi bảng bookings để các query danh sách
+ * không kéo theo vài KB base64 mỗi dòng. etag là SHA-256 (hex) của nội dung PNG;
+ * user_id là chủ booking, để kiểm tra quyền xem vé mà không đọc bookings.
+ */
+@Entity
+@Table(name = "ticket_artifacts")
+@Data
+public class TicketArtifact implements Persistable<Long> {
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Lob
+    @Column(name = "png", nullable = false, length = 65535)
+    private byte[] png;
+
+    @Column(length = 64, nullable = false)
+    private String etag;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private Instant createdAt;
+
+    @PrePersist
+    public void handleBeforeCreated() {
+        this.createdAt = Instant.now();
+    }
+
+    @Override
+    public Long getId() {
+        return bookingId;
+    }
+
+    // Id gán tay (booking_id): INSERT thẳng thay vì merge (SELECT trước)
+    @Override
+    public boolean isNew() {
+        return createdAt == null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.cinema.ticketbooking.domain.request;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ReqVerifyTicketBatchDto {
+    @NotEmpty(message = "tickets is not empty")
+    @Size(max = 500, message = "at most 500 tickets per batch")
+    private List<@Valid ReqVerifyTicketDto> tickets;
+}
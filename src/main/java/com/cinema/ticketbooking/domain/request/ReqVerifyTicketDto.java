@@ -0,0 +1,13 @@
+package com.cinema.ticketbooking.domain.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class ReqVerifyTicketDto {
+    @NotBlank(message = "token is not blank")
+    private String token;
+
+    // Suất chiếu của cổng đang soát; null thì không kiểm tra
+    private Long showTimeId;
+}
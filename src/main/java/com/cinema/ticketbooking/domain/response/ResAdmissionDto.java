@@ -0,0 +1,16 @@
+package com.cinema.ticketbooking.domain.response;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ResAdmissionDto {
+    private Long showTimeId;
+    private long position; // 0 = đã tới lượt
+    private long etaSeconds;
+    private String ticket; // null khi còn đang chờ
+    private Instant ticketExpiresAt;
+}
@@ -20,7 +20,8 @@ public class ResBookingDto {
     private UserInfo user;
     private BookingStatusEnum status;
     private Double total_price;
-    private String qrCode;
+    // GET /api/v1/bookings/{id}/qr (image/png), null khi booking chưa CONFIRMED
+    private String qrCodeUrl;
     private List<SeatInfo> seats;
     private ShowTimeInfo showtime;
     private FilmInfo film;
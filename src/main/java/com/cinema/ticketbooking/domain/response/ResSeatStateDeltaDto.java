@@ -0,0 +1,22 @@
+package com.cinema.ticketbooking.domain.response;
+
+import java.util.List;
+
+import com.cinema.ticketbooking.util.constant.SeatStatusEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Thay đổi trạng thái ghế của một showtime: các ghế trong seatIds chuyển sang status
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResSeatStateDeltaDto {
+    private Long showTimeId;
+    private SeatStatusEnum status;
+    private List<Long> seatIds;
+}
@@ -0,0 +1,22 @@
+package com.cinema.ticketbooking.domain.response;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.cinema.ticketbooking.util.constant.TicketVerificationStatusEnum;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResTicketVerificationDto {
+    private TicketVerificationStatusEnum status;
+    // Các trường dưới null khi status = INVALID
+    private Long bookingId;
+    private Long showTimeId;
+    private List<Long> seatIds;
+    private Instant expiresAt;
+}
@@ -0,0 +1,21 @@
+package com.cinema.ticketbooking.domain.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Phản hồi IPN theo định dạng VNPay yêu cầu; không bọc trong RestResponse
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResVnPayIpnDto {
+    @JsonProperty("RspCode")
+    private String rspCode;
+
+    @JsonProperty("Message")
+    private String message;
+}
@@ -1,5 +1,7 @@
 package com.cinema.ticketbooking.domain.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 
 @Data
@@ -13,5 +15,8 @@ public class ResultPaginationDto {
         private long pageSize;
         private long totalPages;
         private long totalItems;
+        // keyset pagination: cursor của trang kế tiếp, null khi đã hết
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String nextCursor;
     }
 }
@@ -1,9 +1,14 @@
 package com.cinema.ticketbooking.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.cinema.ticketbooking.domain.BookingItem;
+import com.cinema.ticketbooking.repository.projection.BookingItemSeatProjection;
 
 public interface BookingItemRepository extends JpaRepository<BookingItem, Long>, JpaSpecificationExecutor<BookingItem> {
 
@@ -17,4 +22,20 @@ public interface BookingItemRepository extends JpaRepository<BookingItem, Long>,
      */
     boolean existsByShowTimeId(Long showTimeId);
 
+    /**
+     * Lấy toàn bộ id ghế đã được booking cho showtime trong một query
+     */
+    @Query("SELECT bi.seat.id FROM BookingItem bi WHERE bi.showTime.id = :showTimeId")
+    List<Long> findSeatIdsByShowTimeId(@Param("showTimeId") Long showTimeId);
+
+    /**
+     * Ghế của nhiều booking trong một query IN, chỉ lấy cột cần cho ResBookingDto
+     */
+    @Query("SELECT bi.booking.id AS bookingId, s.id AS seatId, s.seatRow AS seatRow, s.number AS number, " +
+            "bi.price AS price, bi.showTime.id AS showTimeId " +
+            "FROM BookingItem bi JOIN bi.seat s " +
+            "WHERE bi.booking.id IN :bookingIds " +
+            "ORDER BY bi.id")
+    List<BookingItemSeatProjection> findSeatsByBookingIds(@Param("bookingIds") java.util.Collection<Long> bookingIds);
+
 }
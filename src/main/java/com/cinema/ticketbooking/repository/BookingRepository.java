@@ -3,10 +3,15 @@ package com.cinema.ticketbooking.repository;
 import org.springframework.stereotype.Repository;
 
 import com.cinema.ticketbooking.domain.Booking;
+import com.cinema.ticketbooking.repository.projection.BookingRowProjection;
+import com.cinema.ticketbooking.repository.projection.CancelledBookingProjection;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,12 +20,14 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking>,
+                BookingRepositoryCustom {
 
         @Query("SELECT DISTINCT b FROM Booking b " +
                         "LEFT JOIN FETCH b.user " +
                         "LEFT JOIN FETCH b.bookingItems bi " +
                         "LEFT JOIN FETCH bi.seat s " +
+                        "LEFT JOIN FETCH s.seatVariant " +
                         "LEFT JOIN FETCH bi.showTime st " +
                         "LEFT JOIN FETCH st.film " +
                         "LEFT JOIN FETCH st.auditorium a " +
@@ -29,23 +36,46 @@ public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpec
                         "WHERE b.id = :id")
         Optional<Booking> findByIdWithDetails(@Param("id") Long id);
 
+        @Query("SELECT b.user.id FROM Booking b WHERE b.id = :id")
+        Optional<Long> findUserIdById(@Param("id") Long id);
+
+        // Booking đã huỷ có suất chiếu từ ngày since, để nạp lại set thu hồi vé khi khởi động
+        @Query("SELECT b.id AS bookingId, MAX(st.date) AS showDate FROM Booking b " +
+                        "JOIN b.bookingItems bi JOIN bi.showTime st " +
+                        "WHERE b.status = com.cinema.ticketbooking.util.constant.BookingStatusEnum.CANCELLED " +
+                        "AND st.date >= :since GROUP BY b.id")
+        List<CancelledBookingProjection> findCancelledWithShowDateSince(@Param("since") LocalDate since);
+
         @Query("SELECT b.id FROM Booking b " +
                         "WHERE b.user.id = :userId " +
-                        "ORDER BY b.createdAt DESC")
+                        "ORDER BY b.createdAt DESC, b.id DESC")
         Page<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
 
-        @Query("SELECT DISTINCT b FROM Booking b " +
-                        "LEFT JOIN FETCH b.user " +
-                        "LEFT JOIN FETCH b.bookingItems bi " +
-                        "LEFT JOIN FETCH bi.seat s " +
-                        "LEFT JOIN FETCH bi.showTime st " +
-                        "LEFT JOIN FETCH st.film " +
-                        "LEFT JOIN FETCH st.auditorium a " +
-                        "LEFT JOIN FETCH a.theater t " +
-                        "LEFT JOIN FETCH t.address " +
-                        "WHERE b.id IN :ids " +
-                        "ORDER BY b.createdAt DESC")
-        java.util.List<Booking> findByIdsWithDetails(@Param("ids") java.util.List<Long> ids);
+        // Keyset: trang đầu của lịch sử booking, không cần COUNT
+        @Query("SELECT b.id FROM Booking b " +
+                        "WHERE b.user.id = :userId " +
+                        "ORDER BY b.createdAt DESC, b.id DESC")
+        java.util.List<Long> findFirstIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+        // Keyset: các booking đứng sau (createdAt, id) của dòng cuối trang trước
+        @Query("SELECT b.id FROM Booking b " +
+                        "WHERE b.user.id = :userId " +
+                        "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+                        "ORDER BY b.createdAt DESC, b.id DESC")
+        java.util.List<Long> findIdsByUserIdBefore(@Param("userId") Long userId,
+                        @Param("createdAt") Instant createdAt, @Param("id") Long id, Limit limit);
+
+        long countByUserId(Long userId);
+
+        // Bước 1 của BookingDetailsLoader: mỗi booking một dòng, kèm tên user và payment đầu tiên
+        @Query("SELECT b.id AS id, b.status AS status, b.total_price AS totalPrice, " +
+                        "b.createdAt AS createdAt, b.updatedAt AS updatedAt, " +
+                        "b.createdBy AS createdBy, b.updatedBy AS updatedBy, " +
+                        "u.id AS userId, u.username AS userName, " +
+                        "(SELECT MIN(p.id) FROM Payment p WHERE p.booking = b) AS paymentId " +
+                        "FROM Booking b LEFT JOIN b.user u " +
+                        "WHERE b.id IN :ids")
+        java.util.List<BookingRowProjection> findRowsByIds(@Param("ids") java.util.Collection<Long> ids);
 
         // Query để lấy tổng doanh thu trong khoảng thời gian
         @Query("SELECT COALESCE(SUM(b.total_price), 0) FROM Booking b " +
@@ -0,0 +1,20 @@
+package com.cinema.ticketbooking.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.cinema.ticketbooking.domain.Booking;
+
+/**
+ * Chỉ lấy id booking theo Specification (bộ lọc của @Filter), không nạp entity
+ */
+public interface BookingRepositoryCustom {
+
+    Page<Long> findIds(Specification<Booking> spec, Pageable pageable);
+
+    List<Long> findIds(Specification<Booking> spec, Sort sort, int limit);
+}
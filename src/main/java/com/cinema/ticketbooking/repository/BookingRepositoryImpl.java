@@ -0,0 +1,72 @@
+package com.cinema.ticketbooking.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.cinema.ticketbooking.domain.Booking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+class BookingRepositoryImpl implements BookingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Long> findIds(Specification<Booking> spec, Pageable pageable) {
+        TypedQuery<Long> query = idQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        // COUNT bị bỏ qua khi trang đầu chưa đầy, giống findAll(spec, pageable)
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Booking> spec, Sort sort, int limit) {
+        return idQuery(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    private TypedQuery<Long> idQuery(Specification<Booking> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Booking> root = cq.from(Booking.class);
+        cq.select(root.get("id"));
+        if (spec != null) {
+            var predicate = spec.toPredicate(root, cq, cb);
+            if (predicate != null) {
+                cq.where(predicate);
+            }
+        }
+        if (sort.isSorted()) {
+            cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(cq);
+    }
+
+    private long count(Specification<Booking> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Booking> root = cq.from(Booking.class);
+        cq.select(cb.count(root));
+        if (spec != null) {
+            var predicate = spec.toPredicate(root, cq, cb);
+            if (predicate != null) {
+                cq.where(predicate);
+            }
+        }
+        return entityManager.createQuery(cq).getSingleResult();
+    }
+}
@@ -0,0 +1,10 @@
+package com.cinema.ticketbooking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.cinema.ticketbooking.domain.EmailDeadLetter;
+
+@Repository
+public interface EmailDeadLetterRepository extends JpaRepository<EmailDeadLetter, Long> {
+}
@@ -1,11 +1,29 @@
 package com.cinema.ticketbooking.repository;
 
 import com.cinema.ticketbooking.domain.Film;
+import com.cinema.ticketbooking.repository.projection.FilmSummaryProjection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface FilmRepository extends JpaRepository<Film, Long>, JpaSpecificationExecutor<Film> {
     boolean existsByName(String name);
+
+    @Query("SELECT f.price FROM Film f WHERE f.id = :id")
+    Optional<Long> findPriceById(@Param("id") Long id);
+
+    // Chỉ các cột hiển thị trong ResBookingDto.FilmInfo
+    @Query("SELECT f.id AS id, f.name AS name, f.director AS director, f.actors AS actors, " +
+            "f.duration AS duration, f.description AS description, f.genre AS genre, f.language AS language, " +
+            "f.releaseDate AS releaseDate, f.status AS status, f.thumbnail AS thumbnail " +
+            "FROM Film f WHERE f.id IN :ids")
+    List<FilmSummaryProjection> findSummariesByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,52 @@
+package com.cinema.ticketbooking.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.cinema.ticketbooking.domain.OutboxEvent;
+import com.cinema.ticketbooking.util.constant.OutboxStatusEnum;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    @Query("""
+                SELECT e.id FROM OutboxEvent e
+                WHERE e.status = com.cinema.ticketbooking.util.constant.OutboxStatusEnum.PENDING
+                  AND e.nextAttemptAt <= :now
+                ORDER BY e.id
+            """)
+    List<Long> findDueIds(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Giữ event trong một khoảng lease; trả về 0 nếu instance khác đã lấy trước
+     */
+    @Modifying
+    @Query("""
+                UPDATE OutboxEvent e SET e.nextAttemptAt = :leaseUntil
+                WHERE e.id = :id
+                  AND e.status = com.cinema.ticketbooking.util.constant.OutboxStatusEnum.PENDING
+                  AND e.nextAttemptAt <= :now
+            """)
+    int claim(@Param("id") Long id, @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Lùi hạn xử lý của event còn PENDING (đang chờ kết quả gửi email)
+     */
+    @Modifying
+    @Query("""
+                UPDATE OutboxEvent e SET e.nextAttemptAt = :until, e.lastError = NULL
+                WHERE e.id = :id
+                  AND e.status = com.cinema.ticketbooking.util.constant.OutboxStatusEnum.PENDING
+            """)
+    int extendLease(@Param("id") Long id, @Param("until") Instant until);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.lastError = :lastError WHERE e.id = :id")
+    int finish(@Param("id") Long id, @Param("status") OutboxStatusEnum status, @Param("lastError") String lastError);
+}
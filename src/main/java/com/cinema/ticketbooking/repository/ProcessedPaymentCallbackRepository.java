@@ -0,0 +1,16 @@
+package com.cinema.ticketbooking.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.cinema.ticketbooking.domain.ProcessedPaymentCallback;
+
+@Repository
+public interface ProcessedPaymentCallbackRepository extends JpaRepository<ProcessedPaymentCallback, Long> {
+    @Query("SELECT c.redirectUrl FROM ProcessedPaymentCallback c WHERE c.callbackKey = :callbackKey")
+    Optional<String> findRedirectUrlByCallbackKey(@Param("callbackKey") String callbackKey);
+}
@@ -1,32 +1,89 @@
 package com.cinema.ticketbooking.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.cinema.ticketbooking.domain.SeatHold;
+import com.cinema.ticketbooking.repository.projection.SeatHoldExpiryProjection;
+import com.cinema.ticketbooking.repository.projection.SeatHoldPricingProjection;
 
 @Repository
 public interface SeatHoldRepository extends JpaRepository<SeatHold, Long>, JpaSpecificationExecutor<SeatHold> {
-    @Query("SELECT sh FROM SeatHold sh LEFT JOIN FETCH sh.seat s WHERE sh.expiresAt IS NOT NULL AND sh.expiresAt < :now")
-    List<SeatHold> findExpiredSeatHolds(@Param("now") Instant now);
+    /**
+     * Hold đã hết hạn, chỉ lấy id ghế/showtime (không nạp entity)
+     */
+    @Query("""
+                SELECT sh.id AS id, sh.seat.id AS seatId, sh.showTime.id AS showTimeId, sh.expiresAt AS expiresAt
+                FROM SeatHold sh
+                WHERE sh.expiresAt IS NOT NULL AND sh.expiresAt < :now
+            """)
+    List<SeatHoldExpiryProjection> findExpiredSeatHolds(@Param("now") Instant now);
+
+    @Query("""
+                SELECT sh.id AS id, sh.seat.id AS seatId, sh.showTime.id AS showTimeId, sh.expiresAt AS expiresAt
+                FROM SeatHold sh
+                WHERE sh.id IN :ids
+            """)
+    List<SeatHoldExpiryProjection> findExpiryByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+                SELECT sh.id AS id, sh.seat.id AS seatId, sh.showTime.id AS showTimeId, sh.expiresAt AS expiresAt
+                FROM SeatHold sh
+                WHERE sh.expiresAt IS NOT NULL
+            """)
+    List<SeatHoldExpiryProjection> findAllExpiring();
 
     @Query("""
                 SELECT sh FROM SeatHold sh
-                LEFT JOIN FETCH sh.seat
-                LEFT JOIN FETCH sh.showTime
+                LEFT JOIN FETCH sh.seat s
+                LEFT JOIN FETCH s.seatVariant
+                LEFT JOIN FETCH sh.showTime st
+                LEFT JOIN FETCH st.film
                 WHERE sh.user.id = :userId
             """)
     List<SeatHold> findByUserIdFetchFull(@Param("userId") Long userId);
 
+    /**
+     * Các SeatHold của user kèm id loại ghế và id phim để tính giá, không nạp entity
+     */
+    @Query("""
+                SELECT sh.id AS id, s.id AS seatId, s.seatVariant.id AS seatVariantId,
+                       st.id AS showTimeId, st.film.id AS filmId
+                FROM SeatHold sh
+                JOIN sh.seat s
+                JOIN sh.showTime st
+                WHERE sh.user.id = :userId
+            """)
+    List<SeatHoldPricingProjection> findPricingByUserId(@Param("userId") Long userId);
+
+    /**
+     * Xoá các hold theo id; trả về số dòng thực sự bị xoá để bên gọi biết hold nào đã
+     * bị request khác lấy mất hoặc đã hết hạn
+     */
+    @Modifying
+    @Query("DELETE FROM SeatHold sh WHERE sh.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT sh.showTime.id FROM SeatHold sh WHERE sh.user.id = :userId")
+    List<Long> findShowTimeIdsByUserId(@Param("userId") Long userId);
+
     /**
      * Kiểm tra ghế đã được hold cho showtime cụ thể chưa
      */
     boolean existsBySeatIdAndShowTimeId(Long seatId, Long showTimeId);
 
+    /**
+     * Lấy toàn bộ id ghế đang được hold cho showtime trong một query
+     */
+    @Query("SELECT sh.seat.id FROM SeatHold sh WHERE sh.showTime.id = :showTimeId")
+    List<Long> findSeatIdsByShowTimeId(@Param("showTimeId") Long showTimeId);
+
 }
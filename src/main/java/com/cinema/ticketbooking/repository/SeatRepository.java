@@ -2,22 +2,18 @@ package com.cinema.ticketbooking.repository;
 
 import com.cinema.ticketbooking.domain.Seat;
 
-import jakarta.persistence.LockModeType;
-
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
-import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, Long>, JpaSpecificationExecutor<Seat> {
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT s FROM Seat s WHERE s.id IN :seatIds")
-    List<Seat> lockSeats(@Param("seatIds") List<Long> seatIds);
-
     List<Seat> findByAuditoriumId(Long auditoriumId);
+
+    @Query("SELECT s FROM Seat s LEFT JOIN FETCH s.seatVariant WHERE s.auditorium.id = :auditoriumId")
+    List<Seat> findByAuditoriumIdFetchVariant(@Param("auditoriumId") Long auditoriumId);
 }
@@ -1,8 +1,28 @@
 package com.cinema.ticketbooking.repository;
 
 import com.cinema.ticketbooking.domain.ShowTime;
+import com.cinema.ticketbooking.repository.projection.ShowTimeSummaryProjection;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ShowTimeRepository extends JpaRepository<ShowTime, Long>, JpaSpecificationExecutor<ShowTime> {
+
+    @Query("SELECT st.id FROM ShowTime st WHERE st.date >= :date")
+    List<Long> findIdsByDateGreaterThanEqual(@Param("date") LocalDate date);
+
+    // Suất chiếu kèm phòng/rạp/địa chỉ (không có cột LOB), mỗi id một dòng
+    @Query("SELECT st.id AS id, st.date AS date, st.startTime AS startTime, st.endTime AS endTime, " +
+            "a.number AS auditoriumNumber, st.film.id AS filmId, " +
+            "t.id AS theaterId, t.name AS theaterName, " +
+            "ad.street_number AS streetNumber, ad.street_name AS streetName, ad.city AS city " +
+            "FROM ShowTime st LEFT JOIN st.auditorium a LEFT JOIN a.theater t LEFT JOIN t.address ad " +
+            "WHERE st.id IN :ids")
+    List<ShowTimeSummaryProjection> findSummariesByIds(@Param("ids") Collection<Long> ids);
 }
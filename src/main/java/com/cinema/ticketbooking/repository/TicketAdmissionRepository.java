@@ -0,0 +1,20 @@
+package com.cinema.ticketbooking.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cinema.ticketbooking.domain.TicketAdmission;
+
+@Repository
+public interface TicketAdmissionRepository extends JpaRepository<TicketAdmission, Long> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TicketAdmission a WHERE a.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
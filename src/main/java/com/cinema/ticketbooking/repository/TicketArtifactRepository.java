@@ -0,0 +1,24 @@
+package com.cinema.ticketbooking.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cinema.ticketbooking.domain.TicketArtifact;
+
+@Repository
+public interface TicketArtifactRepository extends JpaRepository<TicketArtifact, Long> {
+    // Chỉ đọc etag để trả 304 mà không nạp BLOB
+    @Query("SELECT a.etag FROM TicketArtifact a WHERE a.bookingId = :bookingId")
+    Optional<String> findEtagByBookingId(@Param("bookingId") Long bookingId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TicketArtifact a WHERE a.bookingId = :bookingId")
+    int deleteByBookingId(@Param("bookingId") Long bookingId);
+}
@@ -0,0 +1,10 @@
+package com.cinema.ticketbooking.repository.projection;
+
+public interface BookingItemSeatProjection {
+    Long getBookingId();
+    Long getSeatId();
+    String getSeatRow();
+    Integer getNumber();
+    Double getPrice();
+    Long getShowTimeId();
+}
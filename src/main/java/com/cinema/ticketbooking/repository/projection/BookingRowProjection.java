@@ -0,0 +1,18 @@
+package com.cinema.ticketbooking.repository.projection;
+
+import java.time.Instant;
+
+import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
+
+public interface BookingRowProjection {
+    Long getId();
+    BookingStatusEnum getStatus();
+    Double getTotalPrice();
+    Instant getCreatedAt();
+    Instant getUpdatedAt();
+    String getCreatedBy();
+    String getUpdatedBy();
+    Long getUserId();
+    String getUserName();
+    Long getPaymentId();
+}
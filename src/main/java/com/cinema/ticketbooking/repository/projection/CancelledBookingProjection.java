@@ -0,0 +1,8 @@
+package com.cinema.ticketbooking.repository.projection;
+
+import java.time.LocalDate;
+
+public interface CancelledBookingProjection {
+    Long getBookingId();
+    LocalDate getShowDate();
+}
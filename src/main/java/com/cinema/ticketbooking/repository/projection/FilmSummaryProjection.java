@@ -0,0 +1,19 @@
+package com.cinema.ticketbooking.repository.projection;
+
+import java.time.LocalDate;
+
+import com.cinema.ticketbooking.util.constant.FilmStatusEnum;
+
+public interface FilmSummaryProjection {
+    Long getId();
+    String getName();
+    String getDirector();
+    String getActors();
+    Long getDuration();
+    String getDescription();
+    String getGenre();
+    String getLanguage();
+    LocalDate getReleaseDate();
+    FilmStatusEnum getStatus();
+    String getThumbnail();
+}
@@ -0,0 +1,10 @@
+package com.cinema.ticketbooking.repository.projection;
+
+import java.time.Instant;
+
+public interface SeatHoldExpiryProjection {
+    Long getId();
+    Long getSeatId();
+    Long getShowTimeId();
+    Instant getExpiresAt();
+}
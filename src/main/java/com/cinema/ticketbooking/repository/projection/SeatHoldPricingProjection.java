@@ -0,0 +1,9 @@
+package com.cinema.ticketbooking.repository.projection;
+
+public interface SeatHoldPricingProjection {
+    Long getId();
+    Long getSeatId();
+    Long getSeatVariantId();
+    Long getShowTimeId();
+    Long getFilmId();
+}
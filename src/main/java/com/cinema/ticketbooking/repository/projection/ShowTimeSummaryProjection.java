@@ -0,0 +1,18 @@
+package com.cinema.ticketbooking.repository.projection;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public interface ShowTimeSummaryProjection {
+    Long getId();
+    LocalDate getDate();
+    LocalTime getStartTime();
+    LocalTime getEndTime();
+    Long getAuditoriumNumber();
+    Long getFilmId();
+    Long getTheaterId();
+    String getTheaterName();
+    String getStreetNumber();
+    String getStreetName();
+    String getCity();
+}
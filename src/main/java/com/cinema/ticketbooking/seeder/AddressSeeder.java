@@ -2,6 +2,8 @@ package com.cinema.ticketbooking.seeder;
 
 import com.cinema.ticketbooking.domain.Address;
 import com.cinema.ticketbooking.repository.AddressRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -11,6 +13,8 @@ import java.util.List;
 @Component
 @Order(1)
 public class AddressSeeder implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(AddressSeeder.class);
+
     private final AddressRepository addressRepository;
     public AddressSeeder(AddressRepository addressRepository) {
         this.addressRepository = addressRepository;
@@ -38,10 +42,10 @@ public class AddressSeeder implements CommandLineRunner {
                     .build();
 
             addressRepository.saveAll(List.of(addr1, addr2, addr3));
-            System.out.println("Seeded Addresses");
+            log.info("Seeded Addresses");
         }
         else {
-            System.out.println("Addresses already exist");
+            log.info("Addresses already exist");
         }
     }
 }
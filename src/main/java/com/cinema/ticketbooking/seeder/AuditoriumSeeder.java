@@ -9,6 +9,8 @@ import com.cinema.ticketbooking.repository.SeatRepository;
 import com.cinema.ticketbooking.repository.SeatVariantRepository;
 import com.cinema.ticketbooking.repository.TheaterRepository;
 import com.cinema.ticketbooking.util.constant.SeatTypeEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -19,6 +21,8 @@ import java.util.List;
 @Component
 @Order(4)
 public class AuditoriumSeeder implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(AuditoriumSeeder.class);
+
     private final AuditoriumRepository auditoriumRepository;
     private final TheaterRepository theaterRepository;
     private final SeatRepository seatRepository;
@@ -79,9 +83,9 @@ public class AuditoriumSeeder implements CommandLineRunner {
                 }
             }
 
-            System.out.println("Seeded Auditoriums and Seats");
+            log.info("Seeded Auditoriums and Seats");
         } else {
-            System.out.println("Auditorium already exists");
+            log.info("Auditorium already exists");
         }
     }
 }
@@ -3,6 +3,8 @@ package com.cinema.ticketbooking.seeder;
 import com.cinema.ticketbooking.domain.Film;
 import com.cinema.ticketbooking.repository.FilmRepository;
 import com.cinema.ticketbooking.util.constant.FilmStatusEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -13,6 +15,8 @@ import java.util.List;
 @Component
 @Order(5)
 public class FilmSeeder implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(FilmSeeder.class);
+
         private final FilmRepository filmRepository;
 
         public FilmSeeder(FilmRepository filmRepository) {
@@ -447,9 +451,9 @@ public class FilmSeeder implements CommandLineRunner {
                                         film20, film21, film22, film23, film24, film25, film26, film27, film28, film29,
                                         film30));
 
-                        System.out.println("Seeded Films");
+                        log.info("Seeded Films");
                 } else {
-                        System.out.println("Film already exist");
+                        log.info("Film already exist");
                 }
         }
 }
@@ -3,6 +3,8 @@ package com.cinema.ticketbooking.seeder;
 import com.cinema.ticketbooking.domain.SeatVariant;
 import com.cinema.ticketbooking.repository.SeatVariantRepository;
 import com.cinema.ticketbooking.util.constant.SeatTypeEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -12,6 +14,8 @@ import java.util.List;
 @Component
 @Order(2)
 public class SeatVariantSeeder implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(SeatVariantSeeder.class);
+
     private final SeatVariantRepository seatVariantRepository;
 
     public SeatVariantSeeder(SeatVariantRepository seatVariantRepository) {
@@ -33,9 +37,9 @@ public class SeatVariantSeeder implements CommandLineRunner {
 
             seatVariantRepository.saveAll(List.of(regularSeat, vipSeat));
 
-            System.out.println("Seeded Seat Variants");
+            log.info("Seeded Seat Variants");
         } else {
-            System.out.println("Seat Variants already exist");
+            log.info("Seat Variants already exist");
         }
     }
 }
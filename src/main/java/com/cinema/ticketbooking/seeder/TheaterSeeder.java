@@ -4,6 +4,8 @@ import com.cinema.ticketbooking.domain.Address;
 import com.cinema.ticketbooking.domain.Theater;
 import com.cinema.ticketbooking.repository.AddressRepository;
 import com.cinema.ticketbooking.repository.TheaterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -13,6 +15,8 @@ import java.util.List;
 @Component
 @Order(3)
 public class TheaterSeeder implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(TheaterSeeder.class);
+
     private final TheaterRepository theaterRepository;
     private final AddressRepository addressRepository;
     public TheaterSeeder(TheaterRepository theaterRepository,  AddressRepository addressRepository) {
@@ -50,10 +54,10 @@ public class TheaterSeeder implements CommandLineRunner {
                     .build();
 
             theaterRepository.saveAll(List.of(t1, t2, t3, t4, t5));
-            System.out.println("Seeded Theaters");
+            log.info("Seeded Theaters");
         }
         else {
-            System.out.println("Theater already exist");
+            log.info("Theater already exist");
         }
     }
 }
@@ -3,6 +3,8 @@ package com.cinema.ticketbooking.seeder;
 import com.cinema.ticketbooking.domain.User;
 import com.cinema.ticketbooking.repository.UserRepository;
 import com.cinema.ticketbooking.util.constant.RoleEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -11,6 +13,8 @@ import org.springframework.stereotype.Component;
 @Component
 @Order(2)
 public class UserSeeder implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(UserSeeder.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     public UserSeeder(UserRepository userRepository,  PasswordEncoder passwordEncoder) {
@@ -25,7 +29,7 @@ public class UserSeeder implements CommandLineRunner {
             seedCustomer();
         }
         else {
-            System.out.println("Users already exist");
+            log.info("Users already exist");
         }
     }
 
@@ -0,0 +1,332 @@
+package com.cinema.ticketbooking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.cinema.ticketbooking.domain.ShowTime;
+import com.cinema.ticketbooking.domain.response.ResAdmissionDto;
+import com.cinema.ticketbooking.repository.SeatHoldRepository;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+import com.cinema.ticketbooking.util.SecurityUtil;
+import com.cinema.ticketbooking.util.error.ApiException;
+
+/**
+ * Phòng chờ ảo cho các suất chiếu đông khách.
+ * <p>
+ * Mỗi showtime có một hàng đợi FIFO: người dùng nhận số thứ tự khi vào hàng, và một
+ * token bucket (rate/giây, tối đa burst) quyết định bao nhiêu số được cho vào. Người
+ * đã tới lượt nhận một admission ticket có ký HMAC (showtime, số thứ tự, email, hạn
+ * dùng), phải gửi kèm header {@value #TICKET_HEADER} khi tạo SeatHold và Booking.
+ * <p>
+ * Ticket gắn với một showtime: giữ ghế dùng lại ticket trong thời hạn, còn tạo booking
+ * thì kiểm tra ticket với showtime của các ghế đang hold và dùng hết ticket. Ticket đã
+ * cấp được giữ theo user tới khi hết hạn hoặc đã dùng, nên hỏi lại (kể cả khi phản hồi
+ * trước bị mất) nhận lại đúng ticket đó chứ không phải xếp hàng lại. Hàng đợi bị xoá
+ * khi suất chiếu đã kết thúc.
+ * <p>
+ * Chỉ bắt buộc khi {@code ticketbooking.admission.enabled=true}; trạng thái hàng đợi
+ * nằm trong bộ nhớ của một instance.
+ */
+@Service
+public class AdmissionControlService {
+    public static final String TICKET_HEADER = "X-Admission-Ticket";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Value("${ticketbooking.admission.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ticketbooking.admission.rate-per-second:20}")
+    private double ratePerSecond;
+
+    @Value("${ticketbooking.admission.burst:50}")
+    private int burst;
+
+    @Value("${ticketbooking.admission.ticket-validity-in-seconds:600}")
+    private long ticketValidity;
+
+    @Value("${ticketbooking.admission.secret:${ticketbooking.jwt.base64-secret}}")
+    private String secret;
+
+    private final ConcurrentHashMap<Long, ShowTimeQueue> queues = new ConcurrentHashMap<>();
+    // ticket đã dùng để tạo booking → hạn của ticket (epoch giây)
+    private final ConcurrentHashMap<String, Long> usedTickets = new ConcurrentHashMap<>();
+    // Mac đã init với secret cho mỗi thread, tạo lần đầu khi ký (sau khi @Value được gán)
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    private final SeatHoldRepository seatHoldRepository;
+    private final ShowTimeRepository showTimeRepository;
+
+    public AdmissionControlService(SeatHoldRepository seatHoldRepository, ShowTimeRepository showTimeRepository) {
+        this.seatHoldRepository = seatHoldRepository;
+        this.showTimeRepository = showTimeRepository;
+    }
+
+    /**
+     * Vào hàng đợi của showtime; gọi lại khi đã có số thì giữ nguyên vị trí cũ
+     */
+    public ResAdmissionDto join(Long showTimeId) {
+        String email = currentUser();
+        ShowTimeQueue queue = queues.get(showTimeId);
+        if (queue == null) {
+            Instant closesAt = closesAt(showTimeId);
+            queue = queues.computeIfAbsent(showTimeId, id -> new ShowTimeQueue(burst, closesAt));
+        }
+        ShowTimeQueue joined = queue;
+        synchronized (joined) {
+            if (issuedTicket(joined, email) == null) {
+                joined.seqByUser.computeIfAbsent(email, e -> ++joined.lastSeq);
+            }
+            joined.refill(System.nanoTime(), ratePerSecond, burst);
+            return status(showTimeId, email, joined);
+        }
+    }
+
+    /**
+     * Vị trí hiện tại, thời gian chờ dự kiến và ticket nếu đã tới lượt
+     */
+    public ResAdmissionDto getStatus(Long showTimeId) {
+        String email = currentUser();
+        ShowTimeQueue queue = queues.get(showTimeId);
+        if (queue == null) {
+            throw new ApiException("Not in the waiting room for this showtime", HttpStatus.NOT_FOUND);
+        }
+        synchronized (queue) {
+            if (issuedTicket(queue, email) == null && !queue.seqByUser.containsKey(email)) {
+                throw new ApiException("Not in the waiting room for this showtime", HttpStatus.NOT_FOUND);
+            }
+            queue.refill(System.nanoTime(), ratePerSecond, burst);
+            return status(showTimeId, email, queue);
+        }
+    }
+
+    /**
+     * Kiểm tra admission ticket của người dùng hiện tại cho showtime; ticket còn hạn
+     * được dùng lại cho nhiều lần giữ ghế
+     */
+    public void requireAdmission(Long showTimeId, String ticket) {
+        if (!enabled) {
+            return;
+        }
+        verify(showTimeId, ticket);
+    }
+
+    /**
+     * Kiểm tra ticket với showtime của các ghế user đang hold rồi đánh dấu đã dùng, nên
+     * mỗi ticket chỉ tạo được một booking. Booking lỗi thì gọi
+     * {@link #releaseBookingClaim(String)} để user thử lại với cùng ticket.
+     *
+     * @return ticket đã giữ chỗ, null khi không bật admission hoặc user không hold ghế nào
+     */
+    public String claimForBooking(Long userId, String ticket) {
+        if (!enabled) {
+            return null;
+        }
+        List<Long> showTimeIds = seatHoldRepository.findShowTimeIdsByUserId(userId);
+        if (showTimeIds.isEmpty()) {
+            return null; // createBooking tự báo lỗi không có ghế
+        }
+        if (showTimeIds.size() > 1) {
+            throw new ApiException("Seats held for more than one showtime", HttpStatus.FORBIDDEN);
+        }
+        long expiresAt = verify(showTimeIds.get(0), ticket);
+        if (usedTickets.putIfAbsent(ticket, expiresAt) != null) {
+            throw new ApiException("Admission ticket already used, join the waiting room again",
+                    HttpStatus.FORBIDDEN);
+        }
+        return ticket;
+    }
+
+    public void releaseBookingClaim(String claimed) {
+        if (claimed != null) {
+            usedTickets.remove(claimed);
+        }
+    }
+
+    /**
+     * Xoá hàng đợi của các suất chiếu đã kết thúc và ticket đã dùng đã hết hạn
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictExpired() {
+        evictExpired(Instant.now());
+    }
+
+    void evictExpired(Instant now) {
+        queues.values().removeIf(queue -> !queue.closesAt.isAfter(now));
+        for (ShowTimeQueue queue : queues.values()) {
+            synchronized (queue) {
+                queue.issuedByUser.values().removeIf(issued -> !issued.expiresAt().isAfter(now));
+            }
+        }
+        usedTickets.values().removeIf(expiresAt -> expiresAt < now.getEpochSecond());
+    }
+
+    int queueCount() {
+        return queues.size();
+    }
+
+    /**
+     * @return hạn của ticket (epoch giây)
+     */
+    private long verify(Long showTimeId, String ticket) {
+        if (ticket == null || ticket.isBlank()) {
+            throw new ApiException("Admission ticket required, join the waiting room first",
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        String[] parts = ticket.split("\\.");
+        if (parts.length != 2 || !MessageDigest.isEqual(sign(parts[0]).getBytes(StandardCharsets.US_ASCII),
+                parts[1].getBytes(StandardCharsets.US_ASCII))) {
+            throw new ApiException("Invalid admission ticket", HttpStatus.FORBIDDEN);
+        }
+
+        String[] claims;
+        long expiresAt;
+        try {
+            claims = new String(DECODER.decode(parts[0]), StandardCharsets.UTF_8).split(":", 4);
+            expiresAt = Long.parseLong(claims[1]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new ApiException("Invalid admission ticket", HttpStatus.FORBIDDEN);
+        }
+        if (claims.length != 4) {
+            throw new ApiException("Invalid admission ticket", HttpStatus.FORBIDDEN);
+        }
+        if (expiresAt < Instant.now().getEpochSecond()) {
+            throw new ApiException("Admission ticket expired, join the waiting room again",
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
+        if (!claims[3].equals(currentUser()) || !claims[0].equals(String.valueOf(showTimeId))) {
+            throw new ApiException("Admission ticket is not valid for this request", HttpStatus.FORBIDDEN);
+        }
+        return expiresAt;
+    }
+
+    private Instant closesAt(Long showTimeId) {
+        ShowTime showTime = showTimeRepository.findById(showTimeId)
+                .orElseThrow(() -> new ApiException("Showtime not found", HttpStatus.NOT_FOUND));
+        Instant closesAt = showTime.endDateTime().atZone(ZoneId.systemDefault()).toInstant();
+        if (!closesAt.isAfter(Instant.now())) {
+            throw new ApiException("Showtime has already ended", HttpStatus.NOT_FOUND);
+        }
+        return closesAt;
+    }
+
+    /**
+     * Ticket đã cấp cho user còn dùng được; ticket hết hạn hoặc đã tạo booking thì bị bỏ
+     * để user xếp hàng lại. Gọi khi đang giữ lock của queue.
+     */
+    private IssuedTicket issuedTicket(ShowTimeQueue queue, String email) {
+        IssuedTicket issued = queue.issuedByUser.get(email);
+        if (issued != null
+                && (!issued.expiresAt().isAfter(Instant.now()) || usedTickets.containsKey(issued.ticket()))) {
+            queue.issuedByUser.remove(email);
+            return null;
+        }
+        return issued;
+    }
+
+    private ResAdmissionDto status(Long showTimeId, String email, ShowTimeQueue queue) {
+        ResAdmissionDto dto = new ResAdmissionDto();
+        dto.setShowTimeId(showTimeId);
+
+        IssuedTicket issued = queue.issuedByUser.get(email);
+        long seq = issued != null ? 0 : queue.seqByUser.get(email);
+        if (issued == null && seq <= queue.admittedUpTo) {
+            // Đã tới lượt: rời hàng đợi, giữ ticket để lần hỏi sau nhận lại đúng ticket này
+            queue.seqByUser.remove(email);
+            Instant expiresAt = Instant.now().plusSeconds(ticketValidity);
+            issued = new IssuedTicket(issueTicket(showTimeId, seq, email, expiresAt), expiresAt);
+            queue.issuedByUser.put(email, issued);
+        }
+        if (issued != null) {
+            dto.setPosition(0);
+            dto.setEtaSeconds(0);
+            dto.setTicket(issued.ticket());
+            dto.setTicketExpiresAt(issued.expiresAt());
+            return dto;
+        }
+
+        long position = seq - queue.admittedUpTo;
+        dto.setPosition(position);
+        dto.setEtaSeconds((long) Math.ceil(Math.max(0, position - queue.tokens) / ratePerSecond));
+        return dto;
+    }
+
+    /**
+     * Payload "showTimeId:hạn:số thứ tự:email"; số thứ tự làm mỗi ticket khác nhau dù
+     * cấp cho cùng user trong cùng một giây
+     */
+    private String issueTicket(Long showTimeId, long seq, String email, Instant expiresAt) {
+        String claims = showTimeId + ":" + expiresAt.getEpochSecond() + ":" + seq + ":" + email;
+        String payload = ENCODER.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        return payload + "." + sign(payload);
+    }
+
+    private String sign(String payload) {
+        return ENCODER.encodeToString(macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign admission ticket", e);
+        }
+    }
+
+    private static String currentUser() {
+        return SecurityUtil.getCurrentUserLogin()
+                .orElseThrow(() -> new RuntimeException("Unauthenticated"));
+    }
+
+    /**
+     * Ticket đã cấp cho một user, giữ để trả lại khi user hỏi lại
+     */
+    record IssuedTicket(String ticket, Instant expiresAt) {
+    }
+
+    /**
+     * Hàng đợi của một showtime. Số thứ tự <= admittedUpTo là đã được vào.
+     */
+    static final class ShowTimeQueue {
+        final Map<String, Long> seqByUser = new HashMap<>();
+        final Map<String, IssuedTicket> issuedByUser = new HashMap<>();
+        final Instant closesAt;
+        long lastSeq;
+        long admittedUpTo;
+        double tokens;
+        long lastRefillNanos = System.nanoTime();
+
+        ShowTimeQueue(int burst, Instant closesAt) {
+            this.tokens = burst;
+            this.closesAt = closesAt;
+        }
+
+        void refill(long nowNanos, double ratePerSecond, int burst) {
+            tokens = Math.min(burst, tokens + (nowNanos - lastRefillNanos) / 1e9 * ratePerSecond);
+            lastRefillNanos = nowNanos;
+            long admit = Math.min((long) tokens, lastSeq - admittedUpTo);
+            admittedUpTo += admit;
+            tokens -= admit;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.cinema.ticketbooking.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.cinema.ticketbooking.domain.response.ResBookingDto;
+import com.cinema.ticketbooking.repository.BookingItemRepository;
+import com.cinema.ticketbooking.repository.BookingRepository;
+import com.cinema.ticketbooking.repository.FilmRepository;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+import com.cinema.ticketbooking.repository.projection.BookingItemSeatProjection;
+import com.cinema.ticketbooking.repository.projection.BookingRowProjection;
+import com.cinema.ticketbooking.repository.projection.FilmSummaryProjection;
+import com.cinema.ticketbooking.repository.projection.ShowTimeSummaryProjection;
+
+/**
+ * Nạp chi tiết nhiều booking theo từng bước thay cho một JOIN FETCH lớn:
+ * booking (kèm user, payment đầu tiên) → ghế của mọi booking trong một IN →
+ * suất chiếu/phòng/rạp theo id khác nhau → phim theo id khác nhau.
+ * <p>
+ * Mọi bước đều là projection nên không có entity nào được đưa vào persistence
+ * context, và mỗi query chỉ trả về một dòng cho mỗi thực thể nên các cột lớn như
+ * {@code Film.description} không bị nhân lên theo số ghế.
+ */
+@Component
+public class BookingDetailsLoader {
+    private final BookingRepository bookingRepo;
+    private final BookingItemRepository bookingItemRepo;
+    private final ShowTimeRepository showTimeRepo;
+    private final FilmRepository filmRepo;
+    private final BookingDtoMapper bookingDtoMapper;
+
+    public BookingDetailsLoader(BookingRepository bookingRepo, BookingItemRepository bookingItemRepo,
+            ShowTimeRepository showTimeRepo, FilmRepository filmRepo, BookingDtoMapper bookingDtoMapper) {
+        this.bookingRepo = bookingRepo;
+        this.bookingItemRepo = bookingItemRepo;
+        this.showTimeRepo = showTimeRepo;
+        this.filmRepo = filmRepo;
+        this.bookingDtoMapper = bookingDtoMapper;
+    }
+
+    /**
+     * @return ResBookingDto theo đúng thứ tự của {@code bookingIds}, bỏ qua id không tồn tại
+     */
+    public List<ResBookingDto> load(List<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, BookingRowProjection> rows = this.bookingRepo.findRowsByIds(bookingIds).stream()
+                .collect(Collectors.toMap(BookingRowProjection::getId, Function.identity()));
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, List<BookingItemSeatProjection>> seatsByBooking = this.bookingItemRepo
+                .findSeatsByBookingIds(rows.keySet()).stream()
+                .collect(Collectors.groupingBy(BookingItemSeatProjection::getBookingId, LinkedHashMap::new,
+                        Collectors.toList()));
+
+        // Suất chiếu lấy từ ghế đầu tiên của mỗi booking
+        Set<Long> showTimeIds = seatsByBooking.values().stream()
+                .map(seats -> seats.get(0).getShowTimeId())
+                .collect(Collectors.toSet());
+        Map<Long, ShowTimeSummaryProjection> showTimes = showTimeIds.isEmpty()
+                ? Map.of()
+                : this.showTimeRepo.findSummariesByIds(showTimeIds).stream()
+                        .collect(Collectors.toMap(ShowTimeSummaryProjection::getId, Function.identity()));
+
+        Set<Long> filmIds = showTimes.values().stream()
+                .map(ShowTimeSummaryProjection::getFilmId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        Map<Long, FilmSummaryProjection> films = filmIds.isEmpty()
+                ? Map.of()
+                : this.filmRepo.findSummariesByIds(filmIds).stream()
+                        .collect(Collectors.toMap(FilmSummaryProjection::getId, Function.identity()));
+
+        List<ResBookingDto> result = new ArrayList<>(rows.size());
+        for (Long id : bookingIds) {
+            BookingRowProjection row = rows.get(id);
+            if (row == null) {
+                continue;
+            }
+            List<BookingItemSeatProjection> seats = seatsByBooking.getOrDefault(id, List.of());
+            ShowTimeSummaryProjection showtime = seats.isEmpty() ? null : showTimes.get(seats.get(0).getShowTimeId());
+            FilmSummaryProjection film = showtime == null || showtime.getFilmId() == null
+                    ? null
+                    : films.get(showtime.getFilmId());
+            result.add(this.bookingDtoMapper.toDto(row, seats, showtime, film));
+        }
+        return result;
+    }
+
+    /**
+     * @return null nếu booking không tồn tại
+     */
+    public ResBookingDto load(Long bookingId) {
+        List<ResBookingDto> result = load(List.of(bookingId));
+        return result.isEmpty() ? null : result.get(0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.cinema.ticketbooking.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.cinema.ticketbooking.domain.response.ResBookingDto;
+import com.cinema.ticketbooking.repository.projection.BookingItemSeatProjection;
+import com.cinema.ticketbooking.repository.projection.BookingRowProjection;
+import com.cinema.ticketbooking.repository.projection.FilmSummaryProjection;
+import com.cinema.ticketbooking.repository.projection.ShowTimeSummaryProjection;
+import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
+
+/**
+ * Ghép ResBookingDto từ các projection do {@link BookingDetailsLoader} đọc ra.
+ * Là nơi duy nhất map booking sang DTO cho mọi endpoint booking.
+ */
+@Component
+public class BookingDtoMapper {
+    static final String QR_URL_PREFIX = "/api/v1/bookings/";
+
+    /**
+     * @param showtime suất chiếu của ghế đầu tiên, có thể null
+     * @param film     phim của suất chiếu, có thể null
+     */
+    public ResBookingDto toDto(BookingRowProjection row, List<BookingItemSeatProjection> seats,
+            ShowTimeSummaryProjection showtime, FilmSummaryProjection film) {
+        ResBookingDto dto = new ResBookingDto();
+        dto.setId(row.getId());
+        dto.setStatus(row.getStatus());
+        dto.setTotal_price(row.getTotalPrice());
+        if (row.getStatus() == BookingStatusEnum.CONFIRMED) {
+            dto.setQrCodeUrl(QR_URL_PREFIX + row.getId() + "/qr");
+        }
+        dto.setCreatedAt(row.getCreatedAt());
+        dto.setUpdatedAt(row.getUpdatedAt());
+        dto.setCreatedBy(row.getCreatedBy());
+        dto.setUpdatedBy(row.getUpdatedBy());
+        dto.setPaymentId(row.getPaymentId());
+
+        if (row.getUserId() != null) {
+            dto.setUser(new ResBookingDto.UserInfo(row.getUserId(), row.getUserName()));
+        }
+
+        if (seats.isEmpty()) {
+            return dto;
+        }
+        dto.setSeats(seats.stream()
+                .map(seat -> new ResBookingDto.SeatInfo(seat.getSeatId(), seat.getSeatRow(), seat.getNumber(),
+                        seat.getPrice()))
+                .collect(Collectors.toList()));
+
+        if (showtime == null) {
+            return dto;
+        }
+        dto.setShowtime(new ResBookingDto.ShowTimeInfo(
+                showtime.getId(),
+                showtime.getDate(),
+                showtime.getStartTime(),
+                showtime.getEndTime(),
+                showtime.getAuditoriumNumber() != null ? String.valueOf(showtime.getAuditoriumNumber()) : null));
+
+        if (film != null) {
+            dto.setFilm(new ResBookingDto.FilmInfo(
+                    film.getId(),
+                    film.getName(),
+                    film.getDirector(),
+                    film.getActors(),
+                    film.getDuration(),
+                    film.getDescription(),
+                    film.getGenre(),
+                    film.getLanguage(),
+                    film.getReleaseDate(),
+                    film.getStatus(),
+                    film.getThumbnail()));
+        }
+
+        if (showtime.getTheaterId() != null) {
+            dto.setTheater(new ResBookingDto.TheaterInfo(
+                    showtime.getTheaterId(),
+                    showtime.getTheaterName(),
+                    formatAddress(showtime)));
+        }
+        return dto;
+    }
+
+    private static String formatAddress(ShowTimeSummaryProjection showtime) {
+        if (showtime.getStreetNumber() == null && showtime.getStreetName() == null && showtime.getCity() == null) {
+            return null;
+        }
+        return String.format("%s %s, %s",
+                showtime.getStreetNumber() != null ? showtime.getStreetNumber() : "",
+                showtime.getStreetName() != null ? showtime.getStreetName() : "",
+                showtime.getCity() != null ? showtime.getCity() : "").trim();
+    }
+}
@@ -1,61 +1,85 @@
 package com.cinema.ticketbooking.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
-import org.apache.coyote.BadRequestException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.cinema.ticketbooking.domain.Booking;
 import com.cinema.ticketbooking.domain.BookingItem;
-import com.cinema.ticketbooking.domain.Seat;
-import com.cinema.ticketbooking.domain.SeatHold;
-import com.cinema.ticketbooking.domain.SeatVariant;
 import com.cinema.ticketbooking.repository.BookingItemRepository;
 import com.cinema.ticketbooking.repository.SeatHoldRepository;
 import com.cinema.ticketbooking.repository.SeatRepository;
-import com.cinema.ticketbooking.util.constant.SeatStatusEnum;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+import com.cinema.ticketbooking.repository.projection.SeatHoldPricingProjection;
 import com.cinema.ticketbooking.util.error.NoResourceException;
+import com.cinema.ticketbooking.util.error.UnavailableResourceException;
 
 @Service
 public class BookingItemService {
     private final BookingItemRepository bookingItemRepo;
-    private final SeatHoldService seatHoldService;
     private final SeatRepository seatRepository;
+    private final ShowTimeRepository showTimeRepository;
     private final SeatHoldRepository seatHoldRepository;
+    private final SeatStateIndex seatStateIndex;
+    private final PricingService pricingService;
+    private final BookingMetrics bookingMetrics;
 
-    BookingItemService(BookingItemRepository bookingItemRepo, SeatHoldService seatHoldService,
-            SeatRepository seatRepository, SeatHoldRepository seatHoldRepository) {
+    BookingItemService(BookingItemRepository bookingItemRepo, SeatRepository seatRepository,
+            ShowTimeRepository showTimeRepository, SeatHoldRepository seatHoldRepository,
+            SeatStateIndex seatStateIndex, PricingService pricingService, BookingMetrics bookingMetrics) {
         this.bookingItemRepo = bookingItemRepo;
-        this.seatHoldService = seatHoldService;
         this.seatRepository = seatRepository;
+        this.showTimeRepository = showTimeRepository;
         this.seatHoldRepository = seatHoldRepository;
+        this.seatStateIndex = seatStateIndex;
+        this.pricingService = pricingService;
+        this.bookingMetrics = bookingMetrics;
     }
 
+    /**
+     * Tạo booking item từ các SeatHold của user và gắn vào booking, trả về tổng tiền.
+     * Item được INSERT (theo batch) khi booking được lưu, qua cascade.
+     * SeatHold chỉ được đọc dưới dạng id (một query), giá lấy từ {@link PricingService}.
+     */
     @Transactional
     public Double createListItem(Long userId, Booking booking) {
-        List<SeatHold> listSeatHold = this.seatHoldService.getSeatHoldByUserId(userId);
-        if (listSeatHold.size() == 0)
+        List<SeatHoldPricingProjection> holds = this.seatHoldRepository.findPricingByUserId(userId);
+        if (holds.isEmpty())
             throw new NoResourceException("Ghế giữ quá thời gian hoặc không khả dụng vui lòng chọn và đặt ghế khác");
+
+        // Tính giá = giá ghế + giá phim
+        double[] prices = this.pricingService.priceHolds(holds);
+
         Double sum = 0.0;
-        for (SeatHold seatHold : listSeatHold) {
-            Seat seat = seatHold.getSeat();
+        List<BookingItem> items = new ArrayList<>(holds.size());
+        for (int i = 0; i < holds.size(); i++) {
+            SeatHoldPricingProjection hold = holds.get(i);
 
             // Tạo booking item với showtime
             BookingItem item = new BookingItem();
             item.setBooking(booking);
-            item.setSeat(seat);
-            item.setShowTime(seatHold.getShowTime()); // Thêm showtime
-            SeatVariant seatVariant = seat.getSeatVariant();
-            // Tính giá = giá ghế + giá phim
-            Long filmPrice = seatHold.getShowTime().getFilm().getPrice();
-            item.setPrice(seatVariant.getBasePrice() + seatVariant.getBonus() + filmPrice);
-            this.bookingItemRepo.save(item);
+            item.setSeat(this.seatRepository.getReferenceById(hold.getSeatId()));
+            item.setShowTime(this.showTimeRepository.getReferenceById(hold.getShowTimeId()));
+            item.setPrice(prices[i]);
+            items.add(item);
             sum += item.getPrice();
         }
+        booking.setBookingItems(items);
 
-        // Xóa các SeatHold sau khi đã booking thành công
-        seatHoldRepository.deleteAll(listSeatHold);
+        // Xóa các SeatHold; request khác đã xoá trước (đặt trùng hoặc hết hạn) thì huỷ cả
+        // transaction để một ghế không bị đặt hai lần
+        int deleted = seatHoldRepository.deleteByIdIn(holds.stream().map(SeatHoldPricingProjection::getId).toList());
+        if (deleted != holds.size()) {
+            throw new UnavailableResourceException("Ghế giữ đã được đặt hoặc đã hết hạn, vui lòng chọn lại ghế");
+        }
+        holds.stream()
+                .collect(Collectors.groupingBy(SeatHoldPricingProjection::getShowTimeId,
+                        Collectors.mapping(SeatHoldPricingProjection::getSeatId, Collectors.toList())))
+                .forEach(seatStateIndex::markBooked);
+        bookingMetrics.recordHoldsConverted(holds.size());
 
         return sum;
     }
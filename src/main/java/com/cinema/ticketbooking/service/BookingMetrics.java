@@ -0,0 +1,149 @@
+package com.cinema.ticketbooking.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Các metric của luồng giữ ghế → booking → thanh toán, xuất qua /actuator/prometheus.
+ * <p>
+ * Service đo thời gian bằng {@link System#nanoTime()} và gọi các hàm {@code record...}
+ * ở đây; tên metric và tag chỉ nằm trong class này. Các gauge của hold (đang giữ,
+ * chờ hết hạn) và độ trễ hết hạn do
+ * {@link com.cinema.ticketbooking.domain.SeatHoldCleanupScheduler} đăng ký.
+ * <p>
+ * Metric có tag showtime chỉ được giữ cho {@link #MAX_SHOWTIMES} showtime có lượt giữ
+ * ghế gần nhất, và bị xoá khi showtime bị xoá, để số series trên Prometheus không tăng
+ * theo mọi suất chiếu từng có.
+ */
+@Component
+public class BookingMetrics {
+    static final int MAX_SHOWTIMES = 500;
+    private static final String[] SHOWTIME_METERS = { "seat_hold.attempts", "seat_hold.created" };
+
+    private final MeterRegistry meterRegistry;
+    // showtime đang có metric, theo thứ tự dùng gần nhất (access order)
+    private final LinkedHashMap<Long, Boolean> showTimesWithMeters = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter holdsConverted;
+    private final Timer paymentUrlCreate;
+    private final Timer qrRender;
+
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.holdsConverted = Counter.builder("seat_hold.converted")
+                .description("Ghế đang giữ được chuyển thành booking item")
+                .register(meterRegistry);
+        this.paymentUrlCreate = Timer.builder("payment.url.create")
+                .description("Thời gian tạo và ký URL thanh toán VNPay")
+                .register(meterRegistry);
+        this.qrRender = Timer.builder("qr.render")
+                .description("Thời gian render QR vé thành PNG")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Một lần gọi giữ ghế; {@code seats} là số ghế yêu cầu
+     */
+    public void recordHoldAttempt(Long showTimeId, int seats, boolean conflict) {
+        trackShowTime(showTimeId);
+        String showTime = String.valueOf(showTimeId);
+        meterRegistry.counter("seat_hold.attempts", "showtime", showTime,
+                "outcome", conflict ? "conflict" : "held").increment();
+        if (!conflict) {
+            meterRegistry.counter("seat_hold.created", "showtime", showTime).increment(seats);
+        }
+    }
+
+    /**
+     * Xoá metric của showtime (showtime đã bị xoá)
+     */
+    public void removeShowTime(Long showTimeId) {
+        synchronized (showTimesWithMeters) {
+            showTimesWithMeters.remove(showTimeId);
+        }
+        removeShowTimeMeters(showTimeId);
+    }
+
+    private void trackShowTime(Long showTimeId) {
+        Long eldest = null;
+        synchronized (showTimesWithMeters) {
+            showTimesWithMeters.put(showTimeId, Boolean.TRUE);
+            if (showTimesWithMeters.size() > MAX_SHOWTIMES) {
+                eldest = showTimesWithMeters.keySet().iterator().next();
+                showTimesWithMeters.remove(eldest);
+            }
+        }
+        if (eldest != null) {
+            removeShowTimeMeters(eldest);
+        }
+    }
+
+    private void removeShowTimeMeters(Long showTimeId) {
+        String showTime = String.valueOf(showTimeId);
+        for (String name : SHOWTIME_METERS) {
+            meterRegistry.find(name).tag("showtime", showTime).meters().forEach(meterRegistry::remove);
+        }
+    }
+
+    /**
+     * Đếm sau khi commit để booking bị rollback không làm sai tỉ lệ chuyển đổi
+     * seat_hold.converted / seat_hold.created
+     */
+    public void recordHoldsConverted(int seats) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            holdsConverted.increment(seats);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                holdsConverted.increment(seats);
+            }
+        });
+    }
+
+    /**
+     * Một bước của createBooking (items, transaction, total)
+     */
+    public void recordBookingStage(String stage, long nanos) {
+        meterRegistry.timer("booking.stage", "stage", stage).record(Duration.ofNanos(nanos));
+    }
+
+    public void recordPaymentUrl(long nanos) {
+        paymentUrlCreate.record(Duration.ofNanos(nanos));
+    }
+
+    /**
+     * Kết quả xử lý callback/IPN VNPay: paid, failed, duplicate, invalid_signature, error
+     */
+    public void recordCallback(String outcome, long nanos) {
+        meterRegistry.timer("payment.callback", "outcome", outcome).record(Duration.ofNanos(nanos));
+    }
+
+    public void recordQrRender(long nanos) {
+        qrRender.record(Duration.ofNanos(nanos));
+    }
+
+    /**
+     * Kết quả soát một vé ở cổng: admitted, already_used, expired, wrong_showtime, revoked,
+     * invalid
+     */
+    public void recordTicketVerification(String outcome) {
+        meterRegistry.counter("ticket.verify", "outcome", outcome).increment();
+    }
+
+    /**
+     * Thời gian gửi một email qua SMTP, theo loại (otp, booking_confirmation) và kết quả
+     */
+    public void recordEmail(String type, boolean success, long nanos) {
+        meterRegistry.timer("email.send", "type", type, "outcome", success ? "sent" : "failed")
+                .record(Duration.ofNanos(nanos));
+    }
+}
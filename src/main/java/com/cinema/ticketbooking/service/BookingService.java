@@ -1,10 +1,13 @@
 package com.cinema.ticketbooking.service;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.cinema.ticketbooking.domain.Booking;
 import com.cinema.ticketbooking.domain.Payment;
@@ -17,10 +20,12 @@ import com.cinema.ticketbooking.repository.BookingRepository;
 import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
 import com.cinema.ticketbooking.util.constant.PaymentMethodEnum;
 import com.cinema.ticketbooking.util.constant.PaymentStatusEnum;
+import com.cinema.ticketbooking.util.pagination.KeysetCursor;
 
 import java.time.Instant;
 import java.time.YearMonth;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -31,32 +36,57 @@ public class BookingService {
     private final BookingItemService bookingItemService;
     private final PaymentService paymentService;
     private final VNPayService vnPayService;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingMetrics bookingMetrics;
+    private final BookingDetailsLoader bookingDetailsLoader;
+    private final TicketArtifactService ticketArtifactService;
 
     BookingService(BookingRepository bookingRepo, UserService userService,
             BookingItemService bookingItemService, PaymentService paymentService,
-            @Lazy VNPayService vnPayService) {
+            @Lazy VNPayService vnPayService, TransactionTemplate transactionTemplate,
+            BookingMetrics bookingMetrics, BookingDetailsLoader bookingDetailsLoader,
+            TicketArtifactService ticketArtifactService) {
         this.bookingRepo = bookingRepo;
         this.userService = userService;
         this.bookingItemService = bookingItemService;
         this.paymentService = paymentService;
         this.vnPayService = vnPayService;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingMetrics = bookingMetrics;
+        this.bookingDetailsLoader = bookingDetailsLoader;
+        this.ticketArtifactService = ticketArtifactService;
     }
 
+    /**
+     * Booking, booking item và payment được ghi trong một transaction (một lần commit):
+     * giá tính từ các SeatHold đã nạp, item và payment được INSERT theo batch cùng booking.
+     * URL thanh toán chỉ được tạo sau khi commit.
+     * Thời gian từng bước được ghi vào metric booking.stage (items, transaction, total).
+     */
     public ResCreateBookingDto createBooking(Long id, PaymentMethodEnum paymentMethod, String ipAddress) {
-        Booking booking = new Booking();
-        User user = this.userService.getUserById(id);
-
-        booking.setUser(user);
-        booking.setStatus(BookingStatusEnum.PENDING);
-        Booking savedBooking = this.bookingRepo.save(booking);
-
-        Double total_price = this.bookingItemService.createListItem(id, savedBooking);
-
-        savedBooking.setTotal_price(total_price);
-        Booking finalBooking = this.bookingRepo.save(savedBooking);
-
-        // Create payment automatically
-        Payment payment = this.paymentService.createPayment(finalBooking, paymentMethod);
+        long start = System.nanoTime();
+        Booking finalBooking = this.transactionTemplate.execute(status -> {
+            User user = this.userService.getUserById(id);
+
+            Booking booking = new Booking();
+            booking.setUser(user);
+            booking.setStatus(BookingStatusEnum.PENDING);
+            long itemsStart = System.nanoTime();
+            booking.setTotal_price(this.bookingItemService.createListItem(id, booking));
+            this.bookingMetrics.recordBookingStage("items", System.nanoTime() - itemsStart);
+
+            // Create payment automatically
+            List<Payment> payments = new ArrayList<>();
+            payments.add(this.paymentService.buildPayment(booking, paymentMethod));
+            booking.setPayments(payments);
+
+            return this.bookingRepo.save(booking);
+        });
+        this.bookingMetrics.recordBookingStage("transaction", System.nanoTime() - start);
+
+        User user = finalBooking.getUser();
+        Payment payment = finalBooking.getPayments().get(0);
+        Double total_price = finalBooking.getTotal_price();
 
         // Create response DTO
         ResCreateBookingDto response = new ResCreateBookingDto();
@@ -73,7 +103,8 @@ public class BookingService {
                 String orderInfo = "Thanh toan ve xem phim #" + finalBooking.getId();
 
                 if (paymentMethod == PaymentMethodEnum.VNPAY) {
-                    paymentUrl = vnPayService.createPaymentUrl(payment.getId(), total_price, orderInfo, ipAddress);
+                    paymentUrl = vnPayService.buildPaymentUrl(payment.getTransactionRef(), total_price, orderInfo,
+                            ipAddress);
                 }
 
                 response.setPaymentUrl(paymentUrl);
@@ -82,16 +113,14 @@ public class BookingService {
             }
         }
 
+        this.bookingMetrics.recordBookingStage("total", System.nanoTime() - start);
         return response;
     }
 
     public ResultPaginationDto getAllBookings(Specification<Booking> spec, Pageable pageable) {
-        Page<Booking> pageBooking = this.bookingRepo.findAll(spec, pageable);
-
-        // Convert Booking to ResBookingDto
-        List<ResBookingDto> bookingDtos = pageBooking.getContent().stream()
-                .map(this::convertToResBookingDto)
-                .collect(Collectors.toList());
+        // Chỉ lấy id theo bộ lọc rồi nạp chi tiết bằng projection
+        Page<Long> pageBooking = this.bookingRepo.findIds(spec, pageable);
+        List<ResBookingDto> bookingDtos = this.bookingDetailsLoader.load(pageBooking.getContent());
 
         ResultPaginationDto resultPaginationDto = new ResultPaginationDto();
         ResultPaginationDto.Meta mt = new ResultPaginationDto.Meta();
@@ -107,99 +136,71 @@ public class BookingService {
         return resultPaginationDto;
     }
 
-    private ResBookingDto convertToResBookingDto(Booking booking) {
-        ResBookingDto dto = new ResBookingDto();
-        dto.setId(booking.getId());
-        dto.setStatus(booking.getStatus());
-        dto.setTotal_price(booking.getTotal_price());
-        dto.setQrCode(booking.getQrCode());
-        dto.setCreatedAt(booking.getCreatedAt());
-        dto.setUpdatedAt(booking.getUpdatedAt());
-        dto.setCreatedBy(booking.getCreatedBy());
-        dto.setUpdatedBy(booking.getUpdatedBy());
-
-        // Map user info
-        if (booking.getUser() != null) {
-            ResBookingDto.UserInfo userInfo = new ResBookingDto.UserInfo();
-            userInfo.setId(booking.getUser().getId());
-            userInfo.setName(booking.getUser().getUsername());
-            dto.setUser(userInfo);
-        }
+    /**
+     * Danh sách admin theo keyset (createdAt DESC, id DESC): không dùng OFFSET nên
+     * trang sâu không chậm dần, COUNT chỉ chạy khi {@code withTotal}.
+     */
+    public ResultPaginationDto getAllBookingsAfter(Specification<Booking> spec, String cursor, int size,
+            boolean withTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Specification<Booking> keyset = (root, query, cb) -> after == null ? null : cb.or(
+                cb.lessThan(root.get("createdAt"), after.createdAt()),
+                cb.and(cb.equal(root.get("createdAt"), after.createdAt()), cb.lessThan(root.get("id"), after.id())));
+
+        // Lấy dư một dòng để biết còn trang sau hay không
+        List<Long> ids = this.bookingRepo.findIds(keyset.and(spec),
+                Sort.by(Sort.Direction.DESC, "createdAt", "id"), size + 1);
+        List<ResBookingDto> rows = this.bookingDetailsLoader.load(ids);
+
+        Long total = withTotal ? this.bookingRepo.count(spec) : null;
+        return toKeysetResult(rows, size, total);
+    }
 
-        // Map seats, showtime, film, theater from booking items
-        if (booking.getBookingItems() != null && !booking.getBookingItems().isEmpty()) {
-            // Map seats
-            java.util.List<ResBookingDto.SeatInfo> seats = booking.getBookingItems().stream()
-                    .map(item -> new ResBookingDto.SeatInfo(
-                            item.getSeat().getId(),
-                            item.getSeat().getSeatRow(),
-                            item.getSeat().getNumber(),
-                            item.getPrice()))
-                    .collect(Collectors.toList());
-            dto.setSeats(seats);
-
-            // Get showtime, film, theater from first booking item
-            com.cinema.ticketbooking.domain.BookingItem firstItem = booking.getBookingItems().get(0);
-            if (firstItem.getShowTime() != null) {
-                com.cinema.ticketbooking.domain.ShowTime showtime = firstItem.getShowTime();
-
-                // Map showtime info
-                ResBookingDto.ShowTimeInfo showtimeInfo = new ResBookingDto.ShowTimeInfo(
-                        showtime.getId(),
-                        showtime.getDate(),
-                        showtime.getStartTime(),
-                        showtime.getEndTime(),
-                        showtime.getAuditorium() != null ? String.valueOf(showtime.getAuditorium().getNumber())
-                                : null);
-                dto.setShowtime(showtimeInfo);
-
-                // Map film info
-                if (showtime.getFilm() != null) {
-                    com.cinema.ticketbooking.domain.Film film = showtime.getFilm();
-                    ResBookingDto.FilmInfo filmInfo = new ResBookingDto.FilmInfo(
-                            film.getId(),
-                            film.getName(),
-                            film.getDirector(),
-                            film.getActors(),
-                            film.getDuration(),
-                            film.getDescription(),
-                            film.getGenre(),
-                            film.getLanguage(),
-                            film.getReleaseDate(),
-                            film.getStatus(),
-                            film.getThumbnail());
-                    dto.setFilm(filmInfo);
-                }
+    /**
+     * Lịch sử booking của user theo keyset (createdAt DESC, id DESC).
+     * {@code cursor} rỗng là trang đầu; COUNT chỉ chạy khi {@code withTotal}.
+     */
+    public ResultPaginationDto getBookingsByUserIdAfter(Long userId, String cursor, int size, boolean withTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<Long> ids = after == null
+                ? this.bookingRepo.findFirstIdsByUserId(userId, Limit.of(size + 1))
+                : this.bookingRepo.findIdsByUserIdBefore(userId, after.createdAt(), after.id(), Limit.of(size + 1));
 
-                // Map theater info
-                if (showtime.getAuditorium() != null && showtime.getAuditorium().getTheater() != null) {
-                    com.cinema.ticketbooking.domain.Theater theater = showtime.getAuditorium().getTheater();
-                    String addressStr = null;
-                    if (theater.getAddress() != null) {
-                        addressStr = String.format("%s %s, %s",
-                                theater.getAddress().getStreet_number() != null
-                                        ? theater.getAddress().getStreet_number()
-                                        : "",
-                                theater.getAddress().getStreet_name() != null
-                                        ? theater.getAddress().getStreet_name()
-                                        : "",
-                                theater.getAddress().getCity() != null ? theater.getAddress().getCity() : "").trim();
-                    }
-                    ResBookingDto.TheaterInfo theaterInfo = new ResBookingDto.TheaterInfo(
-                            theater.getId(),
-                            theater.getName(),
-                            addressStr);
-                    dto.setTheater(theaterInfo);
-                }
-            }
-        }
+        List<ResBookingDto> rows = this.bookingDetailsLoader.load(ids);
 
-        // Map payment ID (get first payment if exists)
-        if (booking.getPayments() != null && !booking.getPayments().isEmpty()) {
-            dto.setPaymentId(booking.getPayments().get(0).getId());
+        Long total = withTotal ? this.bookingRepo.countByUserId(userId) : null;
+        return toKeysetResult(rows, size, total);
+    }
+
+    private ResultPaginationDto toKeysetResult(List<ResBookingDto> rows, int size, Long total) {
+        boolean hasNext = rows.size() > size;
+        List<ResBookingDto> page = hasNext ? rows.subList(0, size) : rows;
+
+        ResultPaginationDto resultPaginationDto = new ResultPaginationDto();
+        ResultPaginationDto.Meta mt = new ResultPaginationDto.Meta();
+
+        // Keyset không có số trang; -1 nghĩa là không đếm
+        mt.setCurrentPage(0);
+        mt.setPageSize(size);
+        mt.setTotalItems(total == null ? -1 : total);
+        mt.setTotalPages(total == null ? -1 : (total + size - 1) / size);
+        if (hasNext) {
+            ResBookingDto last = page.get(page.size() - 1);
+            mt.setNextCursor(new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
         }
 
-        return dto;
+        resultPaginationDto.setMeta(mt);
+        resultPaginationDto.setData(page);
+        return resultPaginationDto;
+    }
+
+    /**
+     * Chi tiết một booking cho response API, đọc bằng projection (không nạp entity)
+     *
+     * @return null nếu booking không tồn tại
+     */
+    public ResBookingDto getBookingDetails(Long bookingId) {
+        return this.bookingDetailsLoader.load(bookingId);
     }
 
     public Booking getBookingById(Long bookingId) {
@@ -207,6 +208,10 @@ public class BookingService {
                 .orElse(null);
     }
 
+    public boolean existsById(Long bookingId) {
+        return this.bookingRepo.existsById(bookingId);
+    }
+
     public Booking updateBooking(Booking booking) {
         return this.bookingRepo.save(booking);
     }
@@ -214,6 +219,7 @@ public class BookingService {
     public Booking updateBookingStatus(Long bookingId, BookingStatusEnum status) {
         Booking booking = this.bookingRepo.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found with id: " + bookingId));
+        BookingStatusEnum previous = booking.getStatus();
         booking.setStatus(status);
 
         // Update payment status to PAID when booking is CONFIRMED
@@ -225,10 +231,20 @@ public class BookingService {
             }
         }
 
-        return this.bookingRepo.save(booking);
+        Booking saved = this.bookingRepo.save(booking);
+
+        // Vé đã phát hành không còn hiệu lực khi booking rời CONFIRMED
+        if (previous == BookingStatusEnum.CONFIRMED && status != BookingStatusEnum.CONFIRMED) {
+            this.ticketArtifactService.revoke(bookingId);
+        } else if (status == BookingStatusEnum.CONFIRMED) {
+            this.ticketArtifactService.reinstate(bookingId);
+        }
+        return saved;
     }
 
     public void deleteBooking(Long bookingId) {
+        // Thu hồi trước khi xoá: revoke cần các ghế/suất chiếu của booking để tính hạn vé
+        this.ticketArtifactService.revoke(bookingId);
         this.bookingRepo.deleteById(bookingId);
     }
 
@@ -236,16 +252,8 @@ public class BookingService {
         // Step 1: Get paginated IDs only
         Page<Long> pageIds = this.bookingRepo.findIdsByUserId(userId, pageable);
 
-        // Step 2: Fetch booking details with JOIN FETCH
-        List<Long> bookingIds = pageIds.getContent();
-        List<Booking> bookingsWithDetails = bookingIds.isEmpty()
-                ? new java.util.ArrayList<>()
-                : this.bookingRepo.findByIdsWithDetails(bookingIds);
-
-        // Convert to DTOs
-        List<ResBookingDto> bookingDtos = bookingsWithDetails.stream()
-                .map(this::convertToResBookingDto)
-                .collect(Collectors.toList());
+        // Step 2: Load booking details stage by stage (no Cartesian JOIN FETCH)
+        List<ResBookingDto> bookingDtos = this.bookingDetailsLoader.load(pageIds.getContent());
 
         // Build pagination result
         ResultPaginationDto resultPaginationDto = new ResultPaginationDto();
@@ -0,0 +1,292 @@
+package com.cinema.ticketbooking.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import com.cinema.ticketbooking.domain.EmailDeadLetter;
+import com.cinema.ticketbooking.repository.EmailDeadLetterRepository;
+import com.cinema.ticketbooking.util.error.ApiException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Gửi email ở nền cho {@link EmailService}: request chỉ đưa MimeMessage vào một hàng
+ * đợi có giới hạn rồi trả về, không chờ SMTP.
+ * <p>
+ * Mỗi worker lấy tối đa {@code batch-size} email đang chờ và gửi chúng trong cùng một
+ * phiên SMTP ({@link JavaMailSender#send(MimeMessage...)} chỉ connect/STARTTLS một lần
+ * cho cả mảng). Email lỗi được thử lại với backoff luỹ thừa; quá {@code max-attempts}
+ * lần, hoặc còn chờ khi ứng dụng dừng, thì lưu vào bảng email_dead_letters.
+ * Hàng đợi nằm trong bộ nhớ: email chưa gửi sẽ mất nếu tiến trình bị kill đột ngột.
+ * Email có nguồn bền vững (outbox) đi kèm {@link DeliveryListener}: bên gọi chỉ coi là
+ * xong khi listener báo đã gửi hoặc đã vào dead letter, và tự gửi lại nếu không nhận
+ * được kết quả (kể cả khi ứng dụng dừng lúc email còn chờ).
+ */
+@Component
+public class EmailDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+    static final Duration MAX_BACKOFF = Duration.ofMinutes(10);
+
+    @Value("${ticketbooking.mail.workers:2}")
+    private int workers;
+
+    @Value("${ticketbooking.mail.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${ticketbooking.mail.batch-size:20}")
+    private int batchSize;
+
+    @Value("${ticketbooking.mail.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${ticketbooking.mail.retry-backoff-ms:2000}")
+    private long retryBackoffMs;
+
+    private final JavaMailSender mailSender;
+    private final EmailDeadLetterRepository emailDeadLetterRepository;
+    private final BookingMetrics bookingMetrics;
+
+    private BlockingQueue<Envelope> queue;
+    private final Set<Envelope> retrying = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService retryScheduler;
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    public EmailDispatcher(JavaMailSender mailSender, EmailDeadLetterRepository emailDeadLetterRepository,
+            BookingMetrics bookingMetrics) {
+        this.mailSender = mailSender;
+        this.emailDeadLetterRepository = emailDeadLetterRepository;
+        this.bookingMetrics = bookingMetrics;
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mail-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 1; i <= workers; i++) {
+            Thread thread = new Thread(this::work, "mail-sender-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workerThreads.add(thread);
+        }
+    }
+
+    /**
+     * Kết quả gửi của một email, gọi trên thread của dispatcher
+     */
+    public interface DeliveryListener {
+        void onSent();
+
+        void onDeadLettered(String lastError);
+    }
+
+    /**
+     * Đưa email vào hàng đợi; hàng đợi đầy thì ném 503 để bên gọi thử lại sau
+     *
+     * @param type loại email cho metric email.send (otp, booking_confirmation)
+     */
+    public void enqueue(String type, MimeMessage message) {
+        enqueue(type, message, null);
+    }
+
+    /**
+     * @param listener nhận kết quả gửi, null nếu không cần
+     */
+    public void enqueue(String type, MimeMessage message, DeliveryListener listener) {
+        if (!queue.offer(new Envelope(type, message, listener))) {
+            throw new ApiException("Email queue is full, please try again later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private void work() {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Envelope first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.atError().setCause(e).log("Email worker failed");
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Gửi cả batch trong một phiên SMTP; MailSendException cho biết email nào lỗi,
+     * lỗi khác (không connect được...) coi như cả batch lỗi
+     */
+    void sendBatch(List<Envelope> batch) {
+        MimeMessage[] messages = batch.stream().map(Envelope::message).toArray(MimeMessage[]::new);
+        Map<Object, Exception> failed = Map.of();
+        RuntimeException batchError = null;
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+            batchError = e;
+        } catch (RuntimeException e) {
+            batchError = e;
+        }
+        long perMessage = (System.nanoTime() - start) / batch.size();
+
+        for (Envelope envelope : batch) {
+            Exception error = failed.isEmpty() ? batchError : failed.get(envelope.message());
+            bookingMetrics.recordEmail(envelope.type(), error == null, perMessage);
+            if (error != null) {
+                retryOrDeadLetter(envelope, error);
+            } else if (envelope.listener != null) {
+                notify(envelope, () -> envelope.listener.onSent());
+            }
+        }
+    }
+
+    private void retryOrDeadLetter(Envelope envelope, Exception error) {
+        envelope.attempts++;
+        envelope.lastError = error.getMessage();
+        if (envelope.attempts >= maxAttempts || !running) {
+            deadLetter(envelope);
+            return;
+        }
+        retrying.add(envelope);
+        retryScheduler.schedule(() -> {
+            retrying.remove(envelope);
+            if (!queue.offer(envelope)) {
+                envelope.lastError = "Email queue is full";
+                deadLetter(envelope);
+            }
+        }, backoff(envelope.attempts).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = Duration.ofMillis(retryBackoffMs).multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private void deadLetter(Envelope envelope) {
+        try {
+            MimeMessage message = envelope.message();
+            EmailDeadLetter deadLetter = new EmailDeadLetter();
+            deadLetter.setType(envelope.type());
+            Address[] recipients = message.getAllRecipients();
+            deadLetter.setRecipient(recipients == null || recipients.length == 0 ? null : recipients[0].toString());
+            deadLetter.setSubject(message.getSubject());
+            ByteArrayOutputStream mime = new ByteArrayOutputStream();
+            message.writeTo(mime);
+            deadLetter.setMime(mime.toByteArray());
+            deadLetter.setAttempts(envelope.attempts);
+            deadLetter.setLastError(truncate(envelope.lastError));
+            emailDeadLetterRepository.save(deadLetter);
+        } catch (MessagingException | IOException | RuntimeException e) {
+            // Không báo listener: bên gọi sẽ gửi lại vì email chưa được lưu ở đâu
+            log.atError().setCause(e).addKeyValue("type", envelope.type()).log("Failed to store email dead letter");
+            return;
+        }
+        if (envelope.listener != null) {
+            notify(envelope, () -> envelope.listener.onDeadLettered(envelope.lastError));
+        }
+    }
+
+    private void notify(Envelope envelope, Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            log.atError().setCause(e).addKeyValue("type", envelope.type()).log("Email delivery listener failed");
+        }
+    }
+
+    /**
+     * Gửi nốt hàng đợi trong tối đa 10 giây; email còn lại (kể cả đang chờ thử lại)
+     * vào dead letter, trừ email có listener vì bên gọi sẽ gửi lại
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Thread thread : workerThreads) {
+            thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        retryScheduler.shutdownNow();
+        List<Envelope> left = new ArrayList<>(retrying);
+        queue.drainTo(left);
+        for (Envelope envelope : left) {
+            if (envelope.listener == null) {
+                deadLetter(envelope);
+            }
+        }
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    static final class Envelope {
+        private final String type;
+        private final MimeMessage message;
+        private final DeliveryListener listener;
+        private int attempts;
+        private String lastError;
+
+        Envelope(String type, MimeMessage message) {
+            this(type, message, null);
+        }
+
+        Envelope(String type, MimeMessage message, DeliveryListener listener) {
+            this.type = type;
+            this.message = message;
+            this.listener = listener;
+        }
+
+        String type() {
+            return type;
+        }
+
+        MimeMessage message() {
+            return message;
+        }
+    }
+}
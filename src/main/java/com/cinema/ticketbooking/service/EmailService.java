@@ -4,32 +4,45 @@ import com.cinema.ticketbooking.domain.Booking;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.core.io.ByteArrayResource;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import java.util.Base64;
-
+/**
+ * Soạn email rồi giao cho {@link EmailDispatcher} gửi ở nền; các hàm ở đây trả về
+ * ngay khi email đã vào hàng đợi.
+ */
 @Service
 public class EmailService {
     private final JavaMailSender mailSender;
+    private final EmailDispatcher emailDispatcher;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, EmailDispatcher emailDispatcher) {
         this.mailSender = mailSender;
+        this.emailDispatcher = emailDispatcher;
     }
 
     public void sendOtpEmail(String toEmail, String otp) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom("noreply@ticketbooking.com");
-        message.setTo(toEmail);
-        message.setSubject("Password Reset OTP");
-        message.setText("Your OTP for password reset is: " + otp + "\n\nThis OTP will expire in 5 minutes.");
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+            helper.setFrom("noreply@ticketbooking.com");
+            helper.setTo(toEmail);
+            helper.setSubject("Password Reset OTP");
+            helper.setText("Your OTP for password reset is: " + otp + "\n\nThis OTP will expire in 5 minutes.");
 
-        mailSender.send(message);
+            emailDispatcher.enqueue("otp", message);
+        } catch (MessagingException e) {
+            throw new RuntimeException("Failed to send OTP email: " + e.getMessage(), e);
+        }
     }
 
-    public void sendBookingConfirmationWithQR(Booking booking) {
+    /**
+     * @param qrPng    ảnh QR vé (PNG), null thì email không kèm QR
+     * @param listener nhận kết quả gửi từ {@link EmailDispatcher}
+     */
+    public void sendBookingConfirmationWithQR(Booking booking, byte[] qrPng,
+            EmailDispatcher.DeliveryListener listener) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -39,23 +52,21 @@ public class EmailService {
             helper.setSubject("Booking Confirmation - Ticket #" + booking.getId());
 
             // Create HTML email content with embedded QR code
-            String htmlContent = createBookingEmailHtml(booking);
+            String htmlContent = createBookingEmailHtml(booking, qrPng != null);
             helper.setText(htmlContent, true);
 
             // Attach QR code as inline image
-            if (booking.getQrCode() != null && !booking.getQrCode().isEmpty()) {
-                byte[] qrCodeBytes = Base64.getDecoder().decode(booking.getQrCode());
-                ByteArrayResource qrResource = new ByteArrayResource(qrCodeBytes);
-                helper.addInline("qrcode", qrResource, "image/png");
+            if (qrPng != null) {
+                helper.addInline("qrcode", new ByteArrayResource(qrPng), "image/png");
             }
 
-            mailSender.send(message);
+            emailDispatcher.enqueue("booking_confirmation", message, listener);
         } catch (MessagingException e) {
             throw new RuntimeException("Failed to send booking confirmation email: " + e.getMessage(), e);
         }
     }
 
-    private String createBookingEmailHtml(Booking booking) {
+    private String createBookingEmailHtml(Booking booking, boolean withQr) {
         StringBuilder html = new StringBuilder();
         html.append("<!DOCTYPE html>");
         html.append("<html><head><style>");
@@ -87,7 +98,7 @@ public class EmailService {
         html.append("<p><strong>Status:</strong> ").append(booking.getStatus()).append("</p>");
         html.append("</div>");
 
-        if (booking.getQrCode() != null && !booking.getQrCode().isEmpty()) {
+        if (withQr) {
             html.append("<div class='qr-section'>");
             html.append("<h3>Your Ticket QR Code</h3>");
             html.append("<p>Please show this QR code at the cinema entrance:</p>");
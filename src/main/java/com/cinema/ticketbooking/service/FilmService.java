@@ -17,9 +17,11 @@ import java.util.Optional;
 @Service
 public class FilmService {
     final private FilmRepository filmRepository;
+    final private PricingService pricingService;
 
-    public FilmService(FilmRepository filmRepository) {
+    public FilmService(FilmRepository filmRepository, PricingService pricingService) {
         this.filmRepository = filmRepository;
+        this.pricingService = pricingService;
     }
 
     public ResultPaginationDto getAllFilms(Specification<Film> spec, Pageable pageable) {
@@ -57,6 +59,7 @@ public class FilmService {
 
     public void deleteFilm(Long filmId) {
         this.filmRepository.deleteById(filmId);
+        this.pricingService.evictFilm(filmId);
     }
 
     private boolean hasUpdatableField(ReqUpdateFilmDto req) {
@@ -128,7 +131,9 @@ public class FilmService {
                     .filter(thumbnail -> !thumbnail.trim().isEmpty())
                     .ifPresent(thumbnail -> newFilm.setThumbnail(thumbnail));
 
-            return this.filmRepository.save(newFilm);
+            Film savedFilm = this.filmRepository.save(newFilm);
+            this.pricingService.evictFilm(savedFilm.getId());
+            return savedFilm;
 
         }
         return null;
@@ -0,0 +1,33 @@
+package com.cinema.ticketbooking.service;
+
+import java.time.Instant;
+
+import org.springframework.stereotype.Service;
+
+import com.cinema.ticketbooking.domain.OutboxEvent;
+import com.cinema.ticketbooking.repository.OutboxEventRepository;
+import com.cinema.ticketbooking.util.constant.OutboxEventTypeEnum;
+import com.cinema.ticketbooking.util.constant.OutboxStatusEnum;
+
+@Service
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    /**
+     * Ghi event trong transaction của người gọi: event chỉ tồn tại nếu thay đổi
+     * nghiệp vụ đi kèm được commit.
+     */
+    public OutboxEvent enqueue(OutboxEventTypeEnum type, Long aggregateId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        event.setAggregateId(aggregateId);
+        event.setStatus(OutboxStatusEnum.PENDING);
+        event.setAttempts(0);
+        event.setNextAttemptAt(Instant.now());
+        return this.outboxEventRepository.save(event);
+    }
+}
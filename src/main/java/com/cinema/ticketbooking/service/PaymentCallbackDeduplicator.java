@@ -0,0 +1,95 @@
+package com.cinema.ticketbooking.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.cinema.ticketbooking.domain.ProcessedPaymentCallback;
+import com.cinema.ticketbooking.repository.ProcessedPaymentCallbackRepository;
+
+/**
+ * Chống xử lý lặp callback VNPay (gateway retry, người dùng F5 trang return).
+ * <p>
+ * Callback gần đây được giữ trong một LRU có giới hạn để trả lời lặp lại trong O(1);
+ * nguồn chuẩn là bảng processed_payment_callbacks với unique key, nên nhiều instance
+ * hoặc callback chạy song song vẫn chỉ có một lần xử lý thành công.
+ */
+@Service
+public class PaymentCallbackDeduplicator {
+    @Value("${ticketbooking.vnpay.callback-cache-size:10000}")
+    private int cacheSize;
+
+    private final ProcessedPaymentCallbackRepository processedPaymentCallbackRepository;
+
+    private final Map<String, String> recent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    public PaymentCallbackDeduplicator(ProcessedPaymentCallbackRepository processedPaymentCallbackRepository) {
+        this.processedPaymentCallbackRepository = processedPaymentCallbackRepository;
+    }
+
+    public static String callbackKey(String transactionRef, String transactionNo) {
+        return transactionRef + ":" + (transactionNo == null ? "" : transactionNo);
+    }
+
+    /**
+     * RedirectUrl của lần xử lý trước, hoặc null nếu callback chưa được xử lý
+     */
+    public String findProcessed(String callbackKey) {
+        synchronized (recent) {
+            String redirectUrl = recent.get(callbackKey);
+            if (redirectUrl != null) {
+                return redirectUrl;
+            }
+        }
+        String redirectUrl = processedPaymentCallbackRepository.findRedirectUrlByCallbackKey(callbackKey)
+                .orElse(null);
+        if (redirectUrl != null) {
+            remember(callbackKey, redirectUrl);
+        }
+        return redirectUrl;
+    }
+
+    /**
+     * Ghi nhận callback trong transaction của người gọi. Insert được flush ngay để
+     * callback trùng chạy song song chờ trên unique key rồi nhận
+     * DataIntegrityViolationException thay vì xử lý lần hai.
+     */
+    public ProcessedPaymentCallback claim(String callbackKey) {
+        ProcessedPaymentCallback record = new ProcessedPaymentCallback();
+        record.setCallbackKey(callbackKey);
+        return processedPaymentCallbackRepository.saveAndFlush(record);
+    }
+
+    /**
+     * Lưu redirectUrl vào bản ghi đã claim; chỉ đưa vào LRU sau khi commit
+     */
+    public void complete(ProcessedPaymentCallback record, String redirectUrl) {
+        record.setRedirectUrl(redirectUrl);
+        processedPaymentCallbackRepository.save(record);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(record.getCallbackKey(), redirectUrl);
+                }
+            });
+        } else {
+            remember(record.getCallbackKey(), redirectUrl);
+        }
+    }
+
+    private void remember(String callbackKey, String redirectUrl) {
+        synchronized (recent) {
+            recent.put(callbackKey, redirectUrl);
+        }
+    }
+}
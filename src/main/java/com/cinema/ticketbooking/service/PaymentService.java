@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 public class PaymentService {
@@ -20,6 +21,14 @@ public class PaymentService {
     }
 
     public Payment createPayment(Booking booking, PaymentMethodEnum method) {
+        return this.paymentRepository.save(buildPayment(booking, method));
+    }
+
+    /**
+     * Tạo Payment chưa lưu (được lưu cùng Booking qua cascade).
+     * Thanh toán online được cấp transactionRef ngay để không phải ghi lại khi tạo URL.
+     */
+    public Payment buildPayment(Booking booking, PaymentMethodEnum method) {
         if (booking == null) {
             throw new BadRequestException("Booking cannot be null");
         }
@@ -29,8 +38,11 @@ public class PaymentService {
         payment.setMethod(method);
         payment.setStatus(PaymentStatusEnum.UNPAID); // Default status for initial payment
         payment.setTransaction_time(Instant.now());
+        if (method != PaymentMethodEnum.CASH) {
+            payment.setTransactionRef(UUID.randomUUID().toString());
+        }
 
-        return this.paymentRepository.save(payment);
+        return payment;
     }
 
     public Payment updatePaymentStatus(Long paymentId, PaymentStatusEnum status) {
@@ -63,4 +75,11 @@ public class PaymentService {
         }
         return payment;
     }
+
+    /**
+     * Như {@link #getPaymentByTransactionRef(String)} nhưng trả về null khi không có
+     */
+    public Payment findPaymentByTransactionRef(String transactionRef) {
+        return this.paymentRepository.findByTransactionRef(transactionRef);
+    }
 }
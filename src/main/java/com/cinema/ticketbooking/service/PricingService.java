@@ -0,0 +1,146 @@
+package com.cinema.ticketbooking.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.cinema.ticketbooking.domain.SeatVariant;
+import com.cinema.ticketbooking.repository.FilmRepository;
+import com.cinema.ticketbooking.repository.SeatVariantRepository;
+import com.cinema.ticketbooking.repository.projection.SeatHoldPricingProjection;
+
+/**
+ * Tính giá vé: giá ghế (basePrice + bonus của loại ghế) + giá phim.
+ * <p>
+ * Giá loại ghế (chỉ có vài dòng REG/VIP) được nạp toàn bộ một lần, giá phim nạp theo
+ * từng phim khi cần; cả hai được giữ trong bộ nhớ và bị xoá khi SeatVariant/Film
+ * thay đổi (sau khi transaction commit).
+ * <p>
+ * Mỗi lần xoá tăng một generation. Lượt nạp chỉ đưa kết quả vào cache nếu generation
+ * không đổi từ lúc bắt đầu đọc DB, nên giá đọc trước khi transaction đổi giá commit
+ * không ghi đè lên lần xoá sau commit.
+ */
+@Service
+public class PricingService {
+    private final SeatVariantRepository seatVariantRepository;
+    private final FilmRepository filmRepository;
+
+    private volatile Map<Long, VariantPrice> variantPrices;
+    private final ConcurrentHashMap<Long, Long> filmPrices = new ConcurrentHashMap<>();
+
+    // Giữ khi đọc/tăng generation và khi đưa kết quả nạp vào cache
+    private final Object cacheLock = new Object();
+    private long variantGeneration;
+    private long filmGeneration;
+
+    public PricingService(SeatVariantRepository seatVariantRepository, FilmRepository filmRepository) {
+        this.seatVariantRepository = seatVariantRepository;
+        this.filmRepository = filmRepository;
+    }
+
+    public VariantPrice getVariantPrice(Long seatVariantId) {
+        if (seatVariantId == null) {
+            return null;
+        }
+        Map<Long, VariantPrice> prices = variantPrices;
+        if (prices == null || !prices.containsKey(seatVariantId)) {
+            prices = loadVariantPrices();
+        }
+        return prices.get(seatVariantId);
+    }
+
+    public long getFilmPrice(Long filmId) {
+        if (filmId == null) {
+            return 0;
+        }
+        Long cached = filmPrices.get(filmId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation;
+        synchronized (cacheLock) {
+            generation = filmGeneration;
+        }
+        long price = filmRepository.findPriceById(filmId).orElse(0L);
+        synchronized (cacheLock) {
+            if (generation == filmGeneration) {
+                filmPrices.putIfAbsent(filmId, price);
+            }
+        }
+        return price;
+    }
+
+    /**
+     * Giá của từng SeatHold (cùng thứ tự), tính trong một lượt từ cache
+     */
+    public double[] priceHolds(List<SeatHoldPricingProjection> holds) {
+        double[] prices = new double[holds.size()];
+        for (int i = 0; i < prices.length; i++) {
+            SeatHoldPricingProjection hold = holds.get(i);
+            VariantPrice variantPrice = getVariantPrice(hold.getSeatVariantId());
+            if (variantPrice == null) {
+                throw new RuntimeException("Seat variant not found for seat " + hold.getSeatId());
+            }
+            prices[i] = variantPrice.total() + getFilmPrice(hold.getFilmId());
+        }
+        return prices;
+    }
+
+    public void evictVariants() {
+        invalidate(() -> {
+            synchronized (cacheLock) {
+                variantGeneration++;
+                variantPrices = null;
+            }
+        });
+    }
+
+    public void evictFilm(Long filmId) {
+        invalidate(() -> {
+            synchronized (cacheLock) {
+                filmGeneration++;
+                filmPrices.remove(filmId);
+            }
+        });
+    }
+
+    private synchronized Map<Long, VariantPrice> loadVariantPrices() {
+        long generation;
+        synchronized (cacheLock) {
+            generation = variantGeneration;
+        }
+        Map<Long, VariantPrice> prices = new ConcurrentHashMap<>();
+        for (SeatVariant variant : seatVariantRepository.findAll()) {
+            prices.put(variant.getId(), new VariantPrice(variant.getBasePrice(), variant.getBonus()));
+        }
+        synchronized (cacheLock) {
+            if (generation == variantGeneration) {
+                variantPrices = prices;
+            }
+        }
+        return prices;
+    }
+
+    private static void invalidate(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Xoá lại sau commit để không giữ giá cũ được nạp trong lúc transaction chưa xong
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    public record VariantPrice(double basePrice, double bonus) {
+        public double total() {
+            return basePrice + bonus;
+        }
+    }
+}
@@ -1,24 +1,39 @@
 package com.cinema.ticketbooking.service;
 
+import com.cinema.ticketbooking.util.qr.BitMatrixPngEncoder;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.Base64;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 @Service
 public class QRCodeService {
+    // QRCodeWriter không giữ trạng thái nên dùng chung được giữa các thread
+    private static final QRCodeWriter WRITER = new QRCodeWriter();
+    private static final Map<EncodeHintType, Object> HINTS;
+
+    static {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        hints.put(EncodeHintType.MARGIN, 1);
+        HINTS = Map.copyOf(hints);
+    }
+
+    private final BookingMetrics bookingMetrics;
+    private final TicketTokenCodec ticketTokenCodec;
+
+    public QRCodeService(BookingMetrics bookingMetrics, TicketTokenCodec ticketTokenCodec) {
+        this.bookingMetrics = bookingMetrics;
+        this.ticketTokenCodec = ticketTokenCodec;
+    }
 
     /**
      * Generate QR code as Base64 string
@@ -29,24 +44,29 @@ public class QRCodeService {
      * @return Base64 encoded QR code image (PNG format)
      */
     public String generateQRCodeBase64(String data, int width, int height) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-
-            Map<EncodeHintType, Object> hints = new HashMap<>();
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-            hints.put(EncodeHintType.MARGIN, 1);
-
-            BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, width, height, hints);
-            BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
+        return Base64.getEncoder().encodeToString(generateQRCodePng(data, width, height));
+    }
 
-            // Convert BufferedImage to Base64
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(qrImage, "PNG", baos);
-            byte[] imageBytes = baos.toByteArray();
+    /**
+     * Generate QR code as raw PNG bytes (grayscale 1-bit). Mỗi module được phóng
+     * một số nguyên lần pixel nên ảnh có thể nhỏ hơn width/height một chút.
+     *
+     * @param data   Data to encode in QR code
+     * @param width  QR code width in pixels
+     * @param height QR code height in pixels
+     * @return PNG image bytes
+     */
+    public byte[] generateQRCodePng(String data, int width, int height) {
+        long start = System.nanoTime();
+        try {
+            // Kích thước 0 → ma trận tối thiểu (mỗi module 1 pixel), phóng to khi ghi PNG
+            BitMatrix bitMatrix = WRITER.encode(data, BarcodeFormat.QR_CODE, 0, 0, HINTS);
+            int scale = Math.max(1, Math.min(width, height) / bitMatrix.getWidth());
+            byte[] png = BitMatrixPngEncoder.encode(bitMatrix, scale);
+            bookingMetrics.recordQrRender(System.nanoTime() - start);
 
-            return Base64.getEncoder().encodeToString(imageBytes);
-        } catch (WriterException | IOException e) {
+            return png;
+        } catch (WriterException e) {
             throw new RuntimeException("Failed to generate QR code: " + e.getMessage(), e);
         }
     }
@@ -64,17 +84,13 @@ public class QRCodeService {
     }
 
     /**
-     * Generate QR code with booking details in JSON format
-     * 
-     * @param bookingId  Booking ID
-     * @param userEmail  User email
-     * @param totalPrice Total price
-     * @return Base64 encoded QR code
+     * Generate QR code vé chứa mã ký ngắn của {@link TicketTokenCodec}
+     * (booking, suất chiếu, ghế, hạn dùng) thay cho chuỗi JSON có email và tổng tiền
+     *
+     * @param claims Nội dung vé
+     * @return PNG image bytes
      */
-    public String generateBookingQRCodeWithDetails(Long bookingId, String userEmail, Double totalPrice) {
-        // Create JSON-like string for QR code
-        String qrData = String.format("{\"bookingId\":%d,\"email\":\"%s\",\"total\":%.2f}",
-                bookingId, userEmail, totalPrice);
-        return generateQRCodeBase64(qrData, 300, 300);
+    public byte[] generateTicketQRCodePng(TicketTokenCodec.Claims claims) {
+        return generateQRCodePng(ticketTokenCodec.encode(claims), 300, 300);
     }
 }
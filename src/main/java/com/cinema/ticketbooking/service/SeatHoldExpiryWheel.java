@@ -0,0 +1,111 @@
+package com.cinema.ticketbooking.service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Timing wheel phân cấp để theo dõi thời điểm hết hạn của SeatHold.
+ * <p>
+ * Mỗi tick là 1 giây. Tầng 0 có 64 ô 1 giây, tầng 1 có 64 ô 64 giây (~68 phút),
+ * tầng 2 có 64 ô ~68 phút (~3 ngày). Thêm một hold và lấy các hold tới hạn đều là
+ * O(1) (không tính chi phí dời ô khi sang tầng dưới), nên hold được giải phóng trong
+ * khoảng một giây sau expiresAt mà không phải quét bảng seat_holds.
+ * <p>
+ * Wheel chỉ giữ id của hold; hold đã bị xoá (booking, người dùng huỷ) vẫn có thể tới
+ * hạn và người gọi phải bỏ qua những id không còn trong DB.
+ */
+@Component
+public class SeatHoldExpiryWheel {
+    static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 3;
+
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Entry>[][] buckets = new ArrayDeque[LEVELS][WHEEL_SIZE];
+    private final ArrayDeque<Entry> due = new ArrayDeque<>();
+    private long currentTick;
+    private int size;
+
+    public SeatHoldExpiryWheel() {
+        this(System.currentTimeMillis());
+    }
+
+    SeatHoldExpiryWheel(long startMillis) {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                buckets[level][i] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = startMillis / TICK_MILLIS;
+    }
+
+    public synchronized void schedule(Long holdId, Instant expiresAt) {
+        size++;
+        place(new Entry(holdId, expiresAt.toEpochMilli()));
+    }
+
+    /**
+     * Tiến wheel tới thời điểm {@code nowMillis} và trả về các hold đã tới hạn.
+     */
+    public synchronized List<Entry> advance(long nowMillis) {
+        long targetTick = nowMillis / TICK_MILLIS;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Dời ô của tầng trên xuống trước khi xử lý tầng 0
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            ArrayDeque<Entry> bucket = buckets[0][(int) (currentTick & WHEEL_MASK)];
+            due.addAll(bucket);
+            bucket.clear();
+        }
+
+        List<Entry> expired = new ArrayList<>(due);
+        due.clear();
+        size -= expired.size();
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(int level) {
+        ArrayDeque<Entry> bucket = buckets[level][(int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+        List<Entry> entries = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Entry entry : entries) {
+            place(entry);
+        }
+    }
+
+    private void place(Entry entry) {
+        long tick = Math.floorDiv(entry.expiresAtMillis() + TICK_MILLIS - 1, TICK_MILLIS);
+        long delta = tick - currentTick;
+        if (delta <= 0) {
+            due.add(entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (WHEEL_BITS * (level + 1)))) {
+                buckets[level][(int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK)].add(entry);
+                return;
+            }
+        }
+        // Quá tầm của wheel: đặt vào ô xa nhất của tầng trên cùng, sẽ được xếp lại khi dời ô
+        int top = LEVELS - 1;
+        long farthest = (currentTick >>> (WHEEL_BITS * top)) + WHEEL_MASK;
+        buckets[top][(int) (farthest & WHEEL_MASK)].add(entry);
+    }
+
+    public record Entry(Long holdId, long expiresAtMillis) {
+    }
+}
@@ -3,12 +3,14 @@ package com.cinema.ticketbooking.service;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import com.cinema.ticketbooking.domain.Seat;
 import com.cinema.ticketbooking.domain.SeatHold;
 import com.cinema.ticketbooking.domain.ShowTime;
 import com.cinema.ticketbooking.domain.User;
@@ -21,6 +23,7 @@ import com.cinema.ticketbooking.repository.ShowTimeRepository;
 import com.cinema.ticketbooking.repository.UserRepository;
 import com.cinema.ticketbooking.util.SecurityUtil;
 import com.cinema.ticketbooking.util.constant.SeatStatusEnum;
+import com.cinema.ticketbooking.util.error.UnavailableResourceException;
 
 import jakarta.transaction.Transactional;
 
@@ -31,15 +34,23 @@ public class SeatHoldService {
     private final ShowTimeRepository showTimeRepository;
     private final SeatRepository seatRepository;
     private final BookingItemRepository bookingItemRepository;
+    private final SeatStateIndex seatStateIndex;
+    private final SeatHoldExpiryWheel seatHoldExpiryWheel;
+    private final BookingMetrics bookingMetrics;
 
     public SeatHoldService(SeatHoldRepository seatHoldRepository, UserRepository userRepository,
             ShowTimeRepository showTimeRepository, SeatRepository seatRepository,
-            SeatService seatService, BookingItemRepository bookingItemRepository) {
+            SeatService seatService, BookingItemRepository bookingItemRepository,
+            SeatStateIndex seatStateIndex, SeatHoldExpiryWheel seatHoldExpiryWheel,
+            BookingMetrics bookingMetrics) {
         this.seatHoldRepository = seatHoldRepository;
         this.userRepository = userRepository;
         this.showTimeRepository = showTimeRepository;
         this.seatRepository = seatRepository;
         this.bookingItemRepository = bookingItemRepository;
+        this.seatStateIndex = seatStateIndex;
+        this.seatHoldExpiryWheel = seatHoldExpiryWheel;
+        this.bookingMetrics = bookingMetrics;
     }
 
     @Transactional
@@ -53,34 +64,22 @@ public class SeatHoldService {
         ShowTime showtime = showTimeRepository.findById(req.getShowtimeId())
                 .orElseThrow(() -> new RuntimeException("ShowTime not found"));
 
-        List<Seat> seats = seatRepository.lockSeats(req.getSeatIds());
-
-        if (seats.size() != req.getSeatIds().size()) {
-            throw new RuntimeException("Some seats not found");
-        }
-
-        // Kiểm tra xem ghế đã được hold hoặc booked cho showtime này chưa
-        for (Seat seat : seats) {
-            // Kiểm tra SeatHold hiện tại cho showtime này
-            boolean isHeld = seatHoldRepository.existsBySeatIdAndShowTimeId(seat.getId(), showtime.getId());
-            if (isHeld) {
-                throw new RuntimeException("Seat " + seat.getId() + " is already held for this showtime");
-            }
-
-            // Kiểm tra BookingItem (ghế đã được booking) cho showtime này
-            boolean isBooked = bookingItemRepository.existsBySeatIdAndShowTimeId(seat.getId(), showtime.getId());
-            if (isBooked) {
-                throw new RuntimeException("Seat " + seat.getId() + " is already booked for this showtime");
-            }
+        // Giữ chỗ trong bộ nhớ (CAS theo từng ghế của showtime), không khoá hàng Seat trong DB.
+        // Ném lỗi nếu ghế không thuộc phòng chiếu hoặc đã được hold/booking.
+        try {
+            seatStateIndex.claim(showtime.getId(), req.getSeatIds());
+        } catch (UnavailableResourceException e) {
+            bookingMetrics.recordHoldAttempt(showtime.getId(), req.getSeatIds().size(), true);
+            throw e;
         }
 
         Instant expiresAt = Instant.now().plus(5, ChronoUnit.MINUTES);
 
         List<SeatHold> seatHolds = new ArrayList<>();
 
-        for (Seat seat : seats) {
+        for (Long seatId : new LinkedHashSet<>(req.getSeatIds())) {
             SeatHold hold = new SeatHold();
-            hold.setSeat(seat);
+            hold.setSeat(seatRepository.getReferenceById(seatId));
             hold.setShowTime(showtime);
             hold.setUser(user);
             hold.setExpiresAt(expiresAt);
@@ -88,7 +87,19 @@ public class SeatHoldService {
             seatHolds.add(hold);
         }
 
-        seatHoldRepository.saveAll(seatHolds);
+        try {
+            seatHoldRepository.saveAllAndFlush(seatHolds);
+        } catch (DataIntegrityViolationException e) {
+            // Unique (seat_id, show_time_id): ghế đã được giữ bởi một transaction khác
+            bookingMetrics.recordHoldAttempt(showtime.getId(), seatHolds.size(), true);
+            throw new UnavailableResourceException("Some seats are already held for this showtime");
+        }
+
+        // Nếu transaction rollback, hold tới hạn sẽ không còn trong DB và bị bỏ qua
+        for (SeatHold hold : seatHolds) {
+            seatHoldExpiryWheel.schedule(hold.getId(), hold.getExpiresAt());
+        }
+        bookingMetrics.recordHoldAttempt(showtime.getId(), seatHolds.size(), false);
 
         return seatHolds;
     }
@@ -108,6 +119,10 @@ public class SeatHoldService {
 
         // Chỉ xóa SeatHold, không cần cập nhật Seat status
         seatHoldRepository.deleteAll(allHoldsOfUser);
+        allHoldsOfUser.stream()
+                .collect(Collectors.groupingBy(sh -> sh.getShowTime().getId(),
+                        Collectors.mapping(sh -> sh.getSeat().getId(), Collectors.toList())))
+                .forEach(seatStateIndex::releaseHolds);
     }
 
     public List<SeatHold> getSeatHoldByUserId(Long id) {
@@ -0,0 +1,264 @@
+package com.cinema.ticketbooking.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.cinema.ticketbooking.domain.response.ResSeatAvailabilityDto;
+import com.cinema.ticketbooking.domain.response.ResSeatStateDeltaDto;
+import com.cinema.ticketbooking.util.constant.SeatStatusEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Phát thay đổi trạng thái ghế (SSE) tới các client đang xem một showtime.
+ * <p>
+ * Mỗi client có một buffer sự kiện riêng, giới hạn {@link #MAX_PENDING_EVENTS}; client
+ * đọc chậm tới mức buffer đầy thì bị ngắt để không giữ bộ nhớ và không làm chậm người
+ * khác. Mỗi client gửi buffer của mình trên một thread riêng lấy từ pool cached, tối đa
+ * một thread tại một thời điểm nên thứ tự sự kiện được giữ nguyên: client nhận snapshot
+ * trước, sau đó là các delta. Delta mang trạng thái tuyệt đối của ghế nên nhận trùng với
+ * snapshot cũng không sao. Mỗi delta chỉ được serialize một lần dù có bao nhiêu client.
+ * <p>
+ * {@link SseEmitter#send} chặn khi TCP window của client đầy, và complete() chờ cùng
+ * lock với send. Vì vậy client bị treo chỉ giữ thread gửi của chính nó, emitter chỉ được
+ * complete trên thread gửi chứ không trên thread publish, và client gửi một sự kiện quá
+ * {@link #SEND_TIMEOUT_NANOS} bị bỏ khỏi danh sách; thread đó được trả lại khi container
+ * đóng kết nối (write timeout).
+ */
+@Component
+public class SeatMapPublisher {
+    static final long EMITTER_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+    static final int MAX_PENDING_EVENTS = 256;
+    static final long SEND_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public SeatMapPublisher(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "seat-map-publisher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Đăng ký client cho showtime rồi lấy snapshot ngay trên thread của request. Delta
+     * phát ra trong lúc lấy snapshot được giữ trong buffer và gửi sau snapshot, nên không
+     * bỏ lỡ delta nào.
+     */
+    public SseEmitter subscribe(Long showTimeId, Supplier<List<ResSeatAvailabilityDto>> snapshot) {
+        return subscribe(showTimeId, snapshot, new SseEmitter(EMITTER_TIMEOUT_MILLIS));
+    }
+
+    SseEmitter subscribe(Long showTimeId, Supplier<List<ResSeatAvailabilityDto>> snapshot, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(showTimeId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribers.computeIfAbsent(showTimeId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        try {
+            subscriber.start(SseEmitter.event().name("snapshot")
+                    .data(objectMapper.writeValueAsString(snapshot.get()), MediaType.APPLICATION_JSON));
+        } catch (JsonProcessingException | RuntimeException e) {
+            remove(subscriber);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    public void publish(Long showTimeId, SeatStatusEnum status, Collection<Long> seatIds) {
+        Set<Subscriber> targets = subscribers.get(showTimeId);
+        if (seatIds.isEmpty() || targets == null || targets.isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(
+                    new ResSeatStateDeltaDto(showTimeId, status, List.copyOf(seatIds)));
+        } catch (JsonProcessingException e) {
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(SseEmitter.event().name("delta").data(json, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    /**
+     * Gửi comment định kỳ để proxy không cắt kết nối và để phát hiện client đã rời đi
+     */
+    @Scheduled(fixedRate = 15000)
+    public void heartbeat() {
+        evictStalled(System.nanoTime());
+        subscribers.values().forEach(targets -> {
+            for (Subscriber subscriber : targets) {
+                subscriber.offer(SseEmitter.event().comment("ping"));
+            }
+        });
+    }
+
+    /**
+     * Bỏ các client có lần gửi đang chạy lâu hơn {@link #SEND_TIMEOUT_NANOS}
+     */
+    void evictStalled(long nowNanos) {
+        subscribers.values().forEach(targets -> {
+            for (Subscriber subscriber : targets) {
+                if (subscriber.stalledSince(nowNanos)) {
+                    subscriber.disconnect();
+                }
+            }
+        });
+    }
+
+    public int subscriberCount(Long showTimeId) {
+        Set<Subscriber> targets = subscribers.get(showTimeId);
+        return targets == null ? 0 : targets.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(targets -> targets.forEach(Subscriber::disconnect));
+        subscribers.clear();
+        executor.shutdown();
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.close();
+        subscribers.computeIfPresent(subscriber.showTimeId, (id, targets) -> {
+            targets.remove(subscriber);
+            return targets.isEmpty() ? null : targets;
+        });
+    }
+
+    /**
+     * Buffer sự kiện của một client; {@code draining} bảo đảm chỉ một thread gửi cho
+     * client này tại một thời điểm
+     */
+    private final class Subscriber {
+        private final Long showTimeId;
+        private final SseEmitter emitter;
+        private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean started;
+        private boolean draining;
+        private boolean closed;
+        // System.nanoTime() lúc bắt đầu send đang chạy, 0 nếu không gửi
+        private volatile long sendingSince;
+
+        Subscriber(Long showTimeId, SseEmitter emitter) {
+            this.showTimeId = showTimeId;
+            this.emitter = emitter;
+        }
+
+        void start(SseEmitter.SseEventBuilder snapshot) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                pending.addFirst(snapshot);
+                started = true;
+            }
+            schedule();
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            boolean overflow;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                overflow = pending.size() >= MAX_PENDING_EVENTS;
+                if (!overflow) {
+                    pending.addLast(event);
+                }
+            }
+            if (overflow) {
+                // Client không theo kịp: ngắt để client kết nối lại và nhận snapshot mới
+                disconnect();
+                return;
+            }
+            schedule();
+        }
+
+        synchronized void close() {
+            closed = true;
+            pending.clear();
+        }
+
+        boolean stalledSince(long nowNanos) {
+            long since = sendingSince;
+            return since != 0 && nowNanos - since > SEND_TIMEOUT_NANOS;
+        }
+
+        /**
+         * Bỏ client rồi complete emitter trên thread gửi: complete() chờ lock của send
+         * đang treo nên không được chạy trên thread publish/heartbeat
+         */
+        void disconnect() {
+            remove(this);
+            try {
+                executor.execute(emitter::complete);
+            } catch (RejectedExecutionException e) {
+                // Đang tắt ứng dụng
+            }
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (!started || draining || closed || pending.isEmpty()) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Đang tắt ứng dụng
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = closed ? null : pending.pollFirst();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                sendingSince = System.nanoTime();
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client đã ngắt kết nối
+                    remove(this);
+                    return;
+                } finally {
+                    sendingSince = 0;
+                }
+            }
+        }
+    }
+}
@@ -2,24 +2,20 @@ package com.cinema.ticketbooking.service;
 
 import com.cinema.ticketbooking.domain.Seat;
 import com.cinema.ticketbooking.domain.SeatVariant;
-import com.cinema.ticketbooking.domain.ShowTime;
 import com.cinema.ticketbooking.domain.Auditorium;
 import com.cinema.ticketbooking.domain.request.ReqCreateSeatDto;
 import com.cinema.ticketbooking.domain.request.ReqUpdateSeatDto;
 import com.cinema.ticketbooking.domain.response.ResSeatAvailabilityDto;
 import com.cinema.ticketbooking.domain.response.ResultPaginationDto;
 import com.cinema.ticketbooking.repository.AuditoriumRepository;
-import com.cinema.ticketbooking.repository.BookingItemRepository;
-import com.cinema.ticketbooking.repository.SeatHoldRepository;
 import com.cinema.ticketbooking.repository.SeatRepository;
 import com.cinema.ticketbooking.repository.SeatVariantRepository;
-import com.cinema.ticketbooking.repository.ShowTimeRepository;
-import com.cinema.ticketbooking.util.constant.SeatStatusEnum;
 import com.cinema.ticketbooking.util.constant.SeatTypeEnum;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -29,19 +25,17 @@ public class SeatService {
     private final SeatRepository seatRepository;
     private final AuditoriumRepository auditoriumRepository;
     private final SeatVariantRepository seatVariantRepository;
-    private final SeatHoldRepository seatHoldRepository;
-    private final BookingItemRepository bookingItemRepository;
-    private final ShowTimeRepository showTimeRepository;
+    private final SeatStateIndex seatStateIndex;
+    private final SeatMapPublisher seatMapPublisher;
 
     public SeatService(SeatRepository seatRepository, AuditoriumRepository auditoriumRepository,
-            SeatVariantRepository seatVariantRepository, SeatHoldRepository seatHoldRepository,
-            BookingItemRepository bookingItemRepository, ShowTimeRepository showTimeRepository) {
+            SeatVariantRepository seatVariantRepository, SeatStateIndex seatStateIndex,
+            SeatMapPublisher seatMapPublisher) {
         this.seatRepository = seatRepository;
         this.auditoriumRepository = auditoriumRepository;
         this.seatVariantRepository = seatVariantRepository;
-        this.seatHoldRepository = seatHoldRepository;
-        this.bookingItemRepository = bookingItemRepository;
-        this.showTimeRepository = showTimeRepository;
+        this.seatStateIndex = seatStateIndex;
+        this.seatMapPublisher = seatMapPublisher;
     }
 
     public ResultPaginationDto getAllSeats(Specification<Seat> spec, Pageable pageable) {
@@ -66,6 +60,7 @@ public class SeatService {
 
     public void deleteSeat(Long id) {
         this.seatRepository.deleteById(id);
+        this.seatStateIndex.evictAll();
     }
 
     public Seat createSeat(ReqCreateSeatDto reqSeat) {
@@ -78,6 +73,7 @@ public class SeatService {
         seat.setNumber(reqSeat.getNumber());
 
         this.seatRepository.save(seat);
+        this.seatStateIndex.evictAll();
         return seat;
     }
 
@@ -88,6 +84,7 @@ public class SeatService {
         seat.setSeatRow(reqSeat.getSeatRow());
         seat.setNumber(reqSeat.getNumber());
         this.seatRepository.save(seat);
+        this.seatStateIndex.evictAll();
         return seat;
     }
 
@@ -124,43 +121,20 @@ public class SeatService {
     }
 
     /**
-     * Lấy danh sách ghế với trạng thái cho một showtime cụ thể
+     * Lấy danh sách ghế với trạng thái cho một showtime cụ thể.
+     * Dữ liệu được đọc từ {@link SeatStateIndex} trong bộ nhớ.
      */
     public List<ResSeatAvailabilityDto> getSeatAvailabilityByShowTime(Long showTimeId) {
-        ShowTime showTime = showTimeRepository.findById(showTimeId)
-                .orElseThrow(() -> new RuntimeException("ShowTime not found"));
-
-        List<Seat> seats = seatRepository.findByAuditoriumId(showTime.getAuditorium().getId());
-        List<ResSeatAvailabilityDto> result = new ArrayList<>();
-
-        for (Seat seat : seats) {
-            ResSeatAvailabilityDto dto = new ResSeatAvailabilityDto();
-            dto.setSeatId(seat.getId());
-            dto.setSeatRow(seat.getSeatRow());
-            dto.setNumber(seat.getNumber());
-
-            // Set seat variant info
-            if (seat.getSeatVariant() != null) {
-                dto.setSeatVariantId(seat.getSeatVariant().getId());
-                dto.setSeatVariantName(seat.getSeatVariant().getSeatType().name());
-                dto.setBasePrice(seat.getSeatVariant().getBasePrice());
-                dto.setBonus(seat.getSeatVariant().getBonus());
-                dto.setTotalPrice(seat.getSeatVariant().getBasePrice() + seat.getSeatVariant().getBonus());
-            }
-
-            // Check status theo showtime
-            boolean isBooked = bookingItemRepository.existsBySeatIdAndShowTimeId(seat.getId(), showTimeId);
-            if (isBooked) {
-                dto.setStatus(SeatStatusEnum.BOOKED);
-            } else {
-                boolean isHeld = seatHoldRepository.existsBySeatIdAndShowTimeId(seat.getId(), showTimeId);
-                dto.setStatus(isHeld ? SeatStatusEnum.HOLD : SeatStatusEnum.AVAILABLE);
-            }
-
-            result.add(dto);
-        }
+        return seatStateIndex.getSeatAvailability(showTimeId);
+    }
 
-        return result;
+    /**
+     * Stream SSE trạng thái ghế của showtime: một sự kiện "snapshot" rồi các sự kiện "delta"
+     */
+    public SseEmitter streamSeatAvailabilityByShowTime(Long showTimeId) {
+        // Nạp trước để showtime không tồn tại trả lỗi ngay thay vì mở stream
+        seatStateIndex.getSeatAvailability(showTimeId);
+        return seatMapPublisher.subscribe(showTimeId, () -> seatStateIndex.getSeatAvailability(showTimeId));
     }
 
 }
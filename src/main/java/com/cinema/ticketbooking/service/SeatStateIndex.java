@@ -0,0 +1,303 @@
+package com.cinema.ticketbooking.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.cinema.ticketbooking.domain.Seat;
+import com.cinema.ticketbooking.domain.SeatVariant;
+import com.cinema.ticketbooking.domain.ShowTime;
+import com.cinema.ticketbooking.domain.response.ResSeatAvailabilityDto;
+import com.cinema.ticketbooking.repository.BookingItemRepository;
+import com.cinema.ticketbooking.repository.SeatHoldRepository;
+import com.cinema.ticketbooking.repository.SeatRepository;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+import com.cinema.ticketbooking.util.constant.SeatStatusEnum;
+import com.cinema.ticketbooking.util.error.UnavailableResourceException;
+
+/**
+ * Bản đồ trạng thái ghế nằm trong bộ nhớ, theo từng showtime.
+ * <p>
+ * Mỗi showtime giữ layout ghế của phòng chiếu (không đổi) và một mảng trạng thái
+ * (AVAILABLE/HOLD/BOOKED, theo thứ tự của {@link SeatStatusEnum}) cho từng ghế.
+ * Dữ liệu được nạp từ seat_holds/booking_items ở lần truy cập đầu tiên (và cho các
+ * showtime sắp chiếu khi ứng dụng khởi động); sau đó các service ghi xuống DB sẽ
+ * cập nhật lại bản đồ khi transaction commit.
+ */
+@Component
+public class SeatStateIndex {
+    private static final SeatStatusEnum[] STATUSES = SeatStatusEnum.values();
+
+    private final ShowTimeRepository showTimeRepository;
+    private final SeatRepository seatRepository;
+    private final BookingItemRepository bookingItemRepository;
+    private final SeatHoldRepository seatHoldRepository;
+    private final SeatMapPublisher seatMapPublisher;
+    private final PricingService pricingService;
+
+    private final ConcurrentHashMap<Long, ShowTimeSeats> showTimes = new ConcurrentHashMap<>();
+
+    public SeatStateIndex(ShowTimeRepository showTimeRepository, SeatRepository seatRepository,
+            BookingItemRepository bookingItemRepository, SeatHoldRepository seatHoldRepository,
+            SeatMapPublisher seatMapPublisher, PricingService pricingService) {
+        this.showTimeRepository = showTimeRepository;
+        this.seatRepository = seatRepository;
+        this.bookingItemRepository = bookingItemRepository;
+        this.seatHoldRepository = seatHoldRepository;
+        this.seatMapPublisher = seatMapPublisher;
+        this.pricingService = pricingService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        showTimes.clear();
+        for (Long showTimeId : showTimeRepository.findIdsByDateGreaterThanEqual(LocalDate.now())) {
+            getOrLoad(showTimeId);
+        }
+    }
+
+    /**
+     * Danh sách ghế kèm trạng thái của showtime, đọc hoàn toàn từ bộ nhớ
+     * (trừ lần đầu tiên showtime được nạp).
+     */
+    public List<ResSeatAvailabilityDto> getSeatAvailability(Long showTimeId) {
+        return getOrLoad(showTimeId).toDtos(pricingService);
+    }
+
+    /**
+     * Giữ chỗ các ghế của showtime theo kiểu tất cả hoặc không, bằng compare-and-set
+     * AVAILABLE → HOLD trên từng ghế. Không khoá hàng nào trong DB nên hai showtime
+     * dùng chung phòng chiếu không còn tranh chấp nhau; ràng buộc unique trên
+     * seat_holds(seat_id, show_time_id) là lớp bảo vệ cuối cùng.
+     * Nếu transaction hiện tại rollback, các ghế vừa giữ được trả lại.
+     */
+    public void claim(Long showTimeId, Collection<Long> seatIds) {
+        ShowTimeSeats state = getOrLoad(showTimeId);
+        List<Long> distinctSeatIds = new ArrayList<>(new LinkedHashSet<>(seatIds));
+
+        int[] indexes = new int[distinctSeatIds.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = state.indexOf(distinctSeatIds.get(i));
+            if (indexes[i] < 0) {
+                throw new RuntimeException("Some seats not found");
+            }
+        }
+
+        for (int i = 0; i < indexes.length; i++) {
+            if (!state.states.compareAndSet(indexes[i], SeatStatusEnum.AVAILABLE.ordinal(),
+                    SeatStatusEnum.HOLD.ordinal())) {
+                boolean booked = state.states.get(indexes[i]) == SeatStatusEnum.BOOKED.ordinal();
+                for (int j = 0; j < i; j++) {
+                    state.states.compareAndSet(indexes[j], SeatStatusEnum.HOLD.ordinal(),
+                            SeatStatusEnum.AVAILABLE.ordinal());
+                }
+                throw new UnavailableResourceException("Seat " + distinctSeatIds.get(i)
+                        + (booked ? " is already booked for this showtime" : " is already held for this showtime"));
+            }
+        }
+
+        seatMapPublisher.publish(showTimeId, SeatStatusEnum.HOLD, distinctSeatIds);
+        onRollback(() -> update(showTimeId, distinctSeatIds, SeatStatusEnum.HOLD.ordinal(),
+                SeatStatusEnum.AVAILABLE));
+    }
+
+    public void markBooked(Long showTimeId, Collection<Long> seatIds) {
+        afterCommit(() -> update(showTimeId, seatIds, -1, SeatStatusEnum.BOOKED));
+    }
+
+    /**
+     * Trả ghế đang HOLD về AVAILABLE; ghế đã BOOKED giữ nguyên.
+     */
+    public void releaseHolds(Long showTimeId, Collection<Long> seatIds) {
+        afterCommit(() -> update(showTimeId, seatIds, SeatStatusEnum.HOLD.ordinal(), SeatStatusEnum.AVAILABLE));
+    }
+
+    /**
+     * Trả ghế đã BOOKED về AVAILABLE (booking bị huỷ hoặc thanh toán thất bại).
+     */
+    public void releaseBookings(Long showTimeId, Collection<Long> seatIds) {
+        afterCommit(() -> update(showTimeId, seatIds, SeatStatusEnum.BOOKED.ordinal(), SeatStatusEnum.AVAILABLE));
+    }
+
+    public void evict(Long showTimeId) {
+        afterCommit(() -> showTimes.remove(showTimeId));
+    }
+
+    /**
+     * Xoá toàn bộ bản đồ, dùng khi layout ghế hoặc loại ghế thay đổi.
+     */
+    public void evictAll() {
+        afterCommit(showTimes::clear);
+    }
+
+    /**
+     * Số ghế đang HOLD trên các showtime đã nạp, dùng cho gauge seat_hold.active
+     */
+    public int countHeld() {
+        int held = 0;
+        for (ShowTimeSeats state : showTimes.values()) {
+            for (int i = 0; i < state.states.length(); i++) {
+                if (state.states.get(i) == SeatStatusEnum.HOLD.ordinal()) {
+                    held++;
+                }
+            }
+        }
+        return held;
+    }
+
+    private ShowTimeSeats getOrLoad(Long showTimeId) {
+        return showTimes.computeIfAbsent(showTimeId, this::load);
+    }
+
+    private ShowTimeSeats load(Long showTimeId) {
+        ShowTime showTime = showTimeRepository.findById(showTimeId)
+                .orElseThrow(() -> new RuntimeException("ShowTime not found"));
+
+        List<Seat> seats = seatRepository.findByAuditoriumIdFetchVariant(showTime.getAuditorium().getId());
+        Set<Long> bookedSeatIds = new HashSet<>(bookingItemRepository.findSeatIdsByShowTimeId(showTimeId));
+        Set<Long> heldSeatIds = new HashSet<>(seatHoldRepository.findSeatIdsByShowTimeId(showTimeId));
+
+        ShowTimeSeats state = new ShowTimeSeats(seats);
+        for (int i = 0; i < state.seatIds.length; i++) {
+            long seatId = state.seatIds[i];
+            // Booked được ưu tiên hơn hold
+            if (bookedSeatIds.contains(seatId)) {
+                state.states.set(i, SeatStatusEnum.BOOKED.ordinal());
+            } else if (heldSeatIds.contains(seatId)) {
+                state.states.set(i, SeatStatusEnum.HOLD.ordinal());
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Cập nhật thông qua computeIfPresent để chờ nếu showtime đang được nạp:
+     * thay đổi đã commit không bị ghi đè bởi dữ liệu cũ đọc trước đó.
+     * Showtime chưa được nạp thì bỏ qua, lần nạp sau sẽ đọc dữ liệu mới từ DB.
+     * Chỉ những ghế thực sự đổi trạng thái mới được phát tới client đang xem.
+     */
+    private void update(Long showTimeId, Collection<Long> seatIds, int expected, SeatStatusEnum target) {
+        List<Long> changed = new ArrayList<>();
+        showTimes.computeIfPresent(showTimeId, (id, state) -> {
+            for (Long seatId : seatIds) {
+                int idx = state.indexOf(seatId);
+                if (idx < 0) {
+                    continue;
+                }
+                if (expected < 0) {
+                    if (state.states.getAndSet(idx, target.ordinal()) != target.ordinal()) {
+                        changed.add(seatId);
+                    }
+                } else if (state.states.compareAndSet(idx, expected, target.ordinal())) {
+                    changed.add(seatId);
+                }
+            }
+            return state;
+        });
+        seatMapPublisher.publish(showTimeId, target, changed);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void onRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Layout ghế (sắp theo id) và trạng thái của một showtime.
+     */
+    static final class ShowTimeSeats {
+        final long[] seatIds;
+        final String[] seatRows;
+        final int[] numbers;
+        final Long[] variantIds;
+        final String[] variantNames;
+        final AtomicIntegerArray states;
+
+        ShowTimeSeats(List<Seat> seats) {
+            List<Seat> sorted = new ArrayList<>(seats);
+            sorted.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+            int n = sorted.size();
+            seatIds = new long[n];
+            seatRows = new String[n];
+            numbers = new int[n];
+            variantIds = new Long[n];
+            variantNames = new String[n];
+            states = new AtomicIntegerArray(n);
+            for (int i = 0; i < n; i++) {
+                Seat seat = sorted.get(i);
+                seatIds[i] = seat.getId();
+                seatRows[i] = seat.getSeatRow();
+                numbers[i] = seat.getNumber();
+                SeatVariant variant = seat.getSeatVariant();
+                if (variant != null) {
+                    variantIds[i] = variant.getId();
+                    variantNames[i] = variant.getSeatType().name();
+                }
+            }
+        }
+
+        int indexOf(Long seatId) {
+            return seatId == null ? -1 : Arrays.binarySearch(seatIds, seatId);
+        }
+
+        /**
+         * Giá ghế lấy từ {@link PricingService} nên đổi giá loại ghế không cần nạp lại layout
+         */
+        List<ResSeatAvailabilityDto> toDtos(PricingService pricingService) {
+            List<ResSeatAvailabilityDto> result = new ArrayList<>(seatIds.length);
+            for (int i = 0; i < seatIds.length; i++) {
+                ResSeatAvailabilityDto dto = new ResSeatAvailabilityDto();
+                dto.setSeatId(seatIds[i]);
+                dto.setSeatRow(seatRows[i]);
+                dto.setNumber(numbers[i]);
+                if (variantIds[i] != null) {
+                    dto.setSeatVariantId(variantIds[i]);
+                    dto.setSeatVariantName(variantNames[i]);
+                    PricingService.VariantPrice price = pricingService.getVariantPrice(variantIds[i]);
+                    if (price != null) {
+                        dto.setBasePrice(price.basePrice());
+                        dto.setBonus(price.bonus());
+                        dto.setTotalPrice(price.total());
+                    }
+                }
+                dto.setStatus(STATUSES[states.get(i)]);
+                result.add(dto);
+            }
+            return result;
+        }
+    }
+}
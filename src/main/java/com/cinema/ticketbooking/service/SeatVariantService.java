@@ -13,9 +13,14 @@ import org.springframework.stereotype.Service;
 @Service
 public class SeatVariantService {
     private final SeatVariantRepository seatVariantRepository;
+    private final SeatStateIndex seatStateIndex;
+    private final PricingService pricingService;
 
-    public SeatVariantService(SeatVariantRepository seatVariantRepository) {
+    public SeatVariantService(SeatVariantRepository seatVariantRepository, SeatStateIndex seatStateIndex,
+            PricingService pricingService) {
         this.seatVariantRepository = seatVariantRepository;
+        this.seatStateIndex = seatStateIndex;
+        this.pricingService = pricingService;
     }
 
     public ResultPaginationDto getAllSeatVariants(Specification<SeatVariant> spec, Pageable pageable) {
@@ -40,6 +45,8 @@ public class SeatVariantService {
 
     public void deleteSeatVariant(Long id) {
         this.seatVariantRepository.deleteById(id);
+        this.seatStateIndex.evictAll();
+        this.pricingService.evictVariants();
     }
 
     public SeatVariant createSeatVariant(ReqCreateSeatVariantDto reqSeat) {
@@ -61,6 +68,8 @@ public class SeatVariantService {
         seatVariant.setBonus(reqSeatVariant.getBonus());
 
         this.seatVariantRepository.save(seatVariant);
+        this.seatStateIndex.evictAll();
+        this.pricingService.evictVariants();
         return seatVariant;
     }
 
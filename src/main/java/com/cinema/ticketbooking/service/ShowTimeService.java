@@ -23,13 +23,18 @@ public class ShowTimeService {
     private final FilmRepository filmRepository;
     private final AuditoriumRepository auditoriumRepository;
     private final BookingItemRepository bookingItemRepository;
+    private final SeatStateIndex seatStateIndex;
+    private final BookingMetrics bookingMetrics;
 
     public ShowTimeService(ShowTimeRepository showTimeRepository, FilmRepository filmRepository,
-            AuditoriumRepository auditoriumRepository, BookingItemRepository bookingItemRepository) {
+            AuditoriumRepository auditoriumRepository, BookingItemRepository bookingItemRepository,
+            SeatStateIndex seatStateIndex, BookingMetrics bookingMetrics) {
         this.showTimeRepository = showTimeRepository;
         this.filmRepository = filmRepository;
         this.auditoriumRepository = auditoriumRepository;
         this.bookingItemRepository = bookingItemRepository;
+        this.seatStateIndex = seatStateIndex;
+        this.bookingMetrics = bookingMetrics;
     }
 
     public ResultPaginationDto getAllShowTimes(Specification<ShowTime> spec, Pageable pageable) {
@@ -69,6 +74,8 @@ public class ShowTimeService {
 
     public void deleteShowTime(Long id) {
         this.showTimeRepository.deleteById(id);
+        this.seatStateIndex.evict(id);
+        this.bookingMetrics.removeShowTime(id);
     }
 
     /**
@@ -0,0 +1,195 @@
+package com.cinema.ticketbooking.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.cinema.ticketbooking.domain.Booking;
+import com.cinema.ticketbooking.domain.BookingItem;
+import com.cinema.ticketbooking.domain.ShowTime;
+import com.cinema.ticketbooking.domain.TicketArtifact;
+import com.cinema.ticketbooking.repository.BookingRepository;
+import com.cinema.ticketbooking.repository.TicketArtifactRepository;
+import com.cinema.ticketbooking.repository.projection.CancelledBookingProjection;
+import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
+import com.cinema.ticketbooking.util.error.IdInvalidException;
+
+/**
+ * Kho ảnh QR vé (bảng ticket_artifacts). Ảnh được tạo lười ở lần đọc đầu tiên
+ * (email xác nhận hoặc GET /bookings/{id}/qr) và chỉ cho booking đã CONFIRMED.
+ * Các vé vừa đọc/tạo được giữ trong một LRU giới hạn để gửi lại email hay xem lại
+ * vé không phải đọc lại cột PNG. Booking rời trạng thái CONFIRMED thì ảnh bị xoá khỏi
+ * bảng và LRU, và vé được đưa vào set thu hồi của {@link TicketGateService}.
+ */
+@Service
+public class TicketArtifactService {
+    @Value("${ticketbooking.ticket.qr-cache-size:1000}")
+    private int cacheSize;
+
+    private final Map<Long, TicketArtifact> recent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, TicketArtifact> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private final TicketArtifactRepository ticketArtifactRepository;
+    private final BookingRepository bookingRepository;
+    private final QRCodeService qrCodeService;
+    private final TicketGateService ticketGateService;
+
+    public TicketArtifactService(TicketArtifactRepository ticketArtifactRepository,
+            BookingRepository bookingRepository, QRCodeService qrCodeService,
+            TicketGateService ticketGateService) {
+        this.ticketArtifactRepository = ticketArtifactRepository;
+        this.bookingRepository = bookingRepository;
+        this.qrCodeService = qrCodeService;
+        this.ticketGateService = ticketGateService;
+    }
+
+    /**
+     * Id chủ booking; lấy từ LRU nếu vé đang được giữ, null nếu không có booking
+     */
+    public Long findOwnerId(Long bookingId) {
+        TicketArtifact cached = cached(bookingId);
+        if (cached != null && cached.getUserId() != null) {
+            return cached.getUserId();
+        }
+        return this.bookingRepository.findUserIdById(bookingId).orElse(null);
+    }
+
+    /**
+     * Gọi khi booking rời trạng thái CONFIRMED: xoá ảnh vé và thu hồi vé ở cổng
+     */
+    public void revoke(Long bookingId) {
+        this.ticketArtifactRepository.deleteByBookingId(bookingId);
+        synchronized (recent) {
+            recent.remove(bookingId);
+        }
+        this.bookingRepository.findByIdWithDetails(bookingId)
+                .filter(booking -> booking.getBookingItems() != null && !booking.getBookingItems().isEmpty())
+                .ifPresent(booking -> ticketGateService.revoke(bookingId, ticketClaims(booking).expiresAt()));
+    }
+
+    /**
+     * Gọi khi booking được xác nhận (lại)
+     */
+    public void reinstate(Long bookingId) {
+        ticketGateService.reinstate(bookingId);
+    }
+
+    /**
+     * Set thu hồi nằm trong bộ nhớ: nạp lại các booking đã huỷ có suất chiếu chưa qua.
+     * Hạn lấy dư tới hết ngày hôm sau của suất chiếu (suất qua nửa đêm).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevokedTickets() {
+        ZoneId zone = ZoneId.systemDefault();
+        for (CancelledBookingProjection cancelled : this.bookingRepository
+                .findCancelledWithShowDateSince(LocalDate.now(zone).minusDays(1))) {
+            ticketGateService.revoke(cancelled.getBookingId(),
+                    cancelled.getShowDate().plusDays(2).atStartOfDay(zone).toInstant());
+        }
+    }
+
+    public Optional<String> findEtag(Long bookingId) {
+        TicketArtifact cached = cached(bookingId);
+        if (cached != null) {
+            return Optional.of(cached.getEtag());
+        }
+        return this.ticketArtifactRepository.findEtagByBookingId(bookingId);
+    }
+
+    public TicketArtifact getOrRender(Long bookingId) {
+        TicketArtifact cached = cached(bookingId);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<TicketArtifact> stored = this.ticketArtifactRepository.findById(bookingId);
+        if (stored.isPresent()) {
+            return remember(stored.get());
+        }
+        Booking booking = this.bookingRepository.findByIdWithDetails(bookingId)
+                .orElseThrow(() -> new IdInvalidException("Booking not found"));
+        return remember(render(booking));
+    }
+
+    /**
+     * Dùng khi đã có booking trong tay (OutboxDispatcher) để khỏi đọc lại
+     */
+    public TicketArtifact getOrRender(Booking booking) {
+        TicketArtifact cached = cached(booking.getId());
+        if (cached != null) {
+            return cached;
+        }
+        return remember(this.ticketArtifactRepository.findById(booking.getId())
+                .orElseGet(() -> render(booking)));
+    }
+
+    private TicketArtifact cached(Long bookingId) {
+        synchronized (recent) {
+            return recent.get(bookingId);
+        }
+    }
+
+    private TicketArtifact remember(TicketArtifact artifact) {
+        synchronized (recent) {
+            recent.put(artifact.getBookingId(), artifact);
+        }
+        return artifact;
+    }
+
+    private TicketArtifact render(Booking booking) {
+        if (booking.getStatus() != BookingStatusEnum.CONFIRMED) {
+            throw new IdInvalidException("QR code is only available for confirmed bookings");
+        }
+
+        TicketArtifact artifact = new TicketArtifact();
+        artifact.setBookingId(booking.getId());
+        artifact.setUserId(booking.getUser() == null ? null : booking.getUser().getId());
+        artifact.setPng(this.qrCodeService.generateTicketQRCodePng(ticketClaims(booking)));
+        artifact.setEtag(etag(artifact.getPng()));
+        try {
+            return this.ticketArtifactRepository.saveAndFlush(artifact);
+        } catch (DataIntegrityViolationException e) {
+            // Request khác đã tạo ảnh cho booking này trước
+            return this.ticketArtifactRepository.findById(booking.getId()).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Vé có hạn tới giờ kết thúc suất chiếu (suất qua nửa đêm thì sang ngày hôm sau)
+     */
+    static TicketTokenCodec.Claims ticketClaims(Booking booking) {
+        List<BookingItem> items = booking.getBookingItems() == null ? List.of() : booking.getBookingItems();
+        if (items.isEmpty()) {
+            throw new IdInvalidException("Booking has no seats");
+        }
+        ShowTime showTime = items.get(0).getShowTime();
+        return new TicketTokenCodec.Claims(
+                booking.getId(),
+                showTime.getId(),
+                items.stream().map(item -> item.getSeat().getId()).toList(),
+                showTime.endDateTime().atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    static String etag(byte[] png) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.cinema.ticketbooking.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.cinema.ticketbooking.domain.TicketAdmission;
+import com.cinema.ticketbooking.domain.request.ReqVerifyTicketDto;
+import com.cinema.ticketbooking.domain.response.ResTicketVerificationDto;
+import com.cinema.ticketbooking.repository.TicketAdmissionRepository;
+import com.cinema.ticketbooking.util.constant.TicketVerificationStatusEnum;
+
+/**
+ * Soát vé ở cổng: kiểm tra chữ ký và hạn dùng của mã vé ({@link TicketTokenCodec})
+ * trong bộ nhớ, rồi ghi booking vào bảng ticket_admissions bằng một INSERT. Khoá chính
+ * booking_id là nơi duy nhất quyết định vé đã dùng, nên lần quét thứ hai của cùng booking
+ * trả ALREADY_USED kể cả sau khi khởi động lại hay quét ở instance khác. Set trong bộ
+ * nhớ chỉ để lần quét lại trên cùng instance không phải chạm DB.
+ * <p>
+ * Booking rời trạng thái CONFIRMED hoặc bị xoá được đưa vào set thu hồi qua
+ * {@link #revoke} (TicketArtifactService) và vé của nó trả REVOKED. Set thu hồi nằm
+ * trong bộ nhớ của một instance và được nạp lại từ các booking đã huỷ khi khởi động.
+ */
+@Service
+public class TicketGateService {
+    // bookingId → hạn vé (epoch giây) đã ghi vào ticket_admissions; vé đã hết hạn bị từ
+    // chối trước khi tra set nên xoá được
+    private final ConcurrentHashMap<Long, Long> admitted = new ConcurrentHashMap<>();
+    // bookingId → hạn vé (epoch giây) của booking đã bị huỷ
+    private final ConcurrentHashMap<Long, Long> revoked = new ConcurrentHashMap<>();
+
+    private final TicketTokenCodec ticketTokenCodec;
+    private final TicketAdmissionRepository ticketAdmissionRepository;
+    private final BookingMetrics bookingMetrics;
+    private final Clock clock;
+
+    @Autowired
+    public TicketGateService(TicketTokenCodec ticketTokenCodec, TicketAdmissionRepository ticketAdmissionRepository,
+            BookingMetrics bookingMetrics) {
+        this(ticketTokenCodec, ticketAdmissionRepository, bookingMetrics, Clock.systemUTC());
+    }
+
+    TicketGateService(TicketTokenCodec ticketTokenCodec, TicketAdmissionRepository ticketAdmissionRepository,
+            BookingMetrics bookingMetrics, Clock clock) {
+        this.ticketTokenCodec = ticketTokenCodec;
+        this.ticketAdmissionRepository = ticketAdmissionRepository;
+        this.bookingMetrics = bookingMetrics;
+        this.clock = clock;
+    }
+
+    public ResTicketVerificationDto verify(ReqVerifyTicketDto req) {
+        return verify(req, clock.instant());
+    }
+
+    /**
+     * Soát theo thứ tự trong danh sách, nên vé lặp lại trong cùng batch chỉ được vào một lần
+     */
+    public List<ResTicketVerificationDto> verifyAll(List<ReqVerifyTicketDto> reqs) {
+        Instant now = clock.instant();
+        List<ResTicketVerificationDto> results = new ArrayList<>(reqs.size());
+        for (ReqVerifyTicketDto req : reqs) {
+            results.add(verify(req, now));
+        }
+        return results;
+    }
+
+    private ResTicketVerificationDto verify(ReqVerifyTicketDto req, Instant now) {
+        ResTicketVerificationDto res = new ResTicketVerificationDto();
+        TicketTokenCodec.Claims claims = ticketTokenCodec.decode(req.getToken());
+        if (claims == null) {
+            return result(res, TicketVerificationStatusEnum.INVALID);
+        }
+        res.setBookingId(claims.bookingId());
+        res.setShowTimeId(claims.showTimeId());
+        res.setSeatIds(claims.seatIds());
+        res.setExpiresAt(claims.expiresAt());
+
+        if (!now.isBefore(claims.expiresAt())) {
+            return result(res, TicketVerificationStatusEnum.EXPIRED);
+        }
+        if (req.getShowTimeId() != null && req.getShowTimeId() != claims.showTimeId()) {
+            return result(res, TicketVerificationStatusEnum.WRONG_SHOWTIME);
+        }
+        if (revoked.containsKey(claims.bookingId())) {
+            return result(res, TicketVerificationStatusEnum.REVOKED);
+        }
+        if (admitted.containsKey(claims.bookingId())) {
+            return result(res, TicketVerificationStatusEnum.ALREADY_USED);
+        }
+        boolean first = admit(claims.bookingId(), claims.expiresAt());
+        admitted.put(claims.bookingId(), claims.expiresAt().getEpochSecond());
+        return result(res, first
+                ? TicketVerificationStatusEnum.ADMITTED
+                : TicketVerificationStatusEnum.ALREADY_USED);
+    }
+
+    /**
+     * @return false nếu booking đã có dòng trong ticket_admissions (đã vào cửa trước đó)
+     */
+    private boolean admit(Long bookingId, Instant expiresAt) {
+        TicketAdmission admission = new TicketAdmission();
+        admission.setBookingId(bookingId);
+        admission.setExpiresAt(expiresAt);
+        try {
+            ticketAdmissionRepository.saveAndFlush(admission);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Từ chối vé của booking tới khi vé hết hạn
+     */
+    public void revoke(Long bookingId, Instant expiresAt) {
+        revoked.put(bookingId, expiresAt.getEpochSecond());
+    }
+
+    /**
+     * Booking được xác nhận lại: vé cũ (cùng nội dung) dùng được trở lại
+     */
+    public void reinstate(Long bookingId) {
+        revoked.remove(bookingId);
+    }
+
+    private ResTicketVerificationDto result(ResTicketVerificationDto res, TicketVerificationStatusEnum status) {
+        res.setStatus(status);
+        bookingMetrics.recordTicketVerification(status.name().toLowerCase(Locale.ROOT));
+        return res;
+    }
+
+    @Scheduled(fixedRate = 600000) // 10 phút
+    public void evictExpired() {
+        Instant now = clock.instant();
+        admitted.values().removeIf(expiresAt -> expiresAt <= now.getEpochSecond());
+        revoked.values().removeIf(expiresAt -> expiresAt <= now.getEpochSecond());
+        ticketAdmissionRepository.deleteExpired(now);
+    }
+
+    int admittedCount() {
+        return admitted.size();
+    }
+}
@@ -0,0 +1,209 @@
+package com.cinema.ticketbooking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mã vé ngắn in trong QR, đủ để cổng soát vé tin mà không cần hỏi DB:
+ * [version][bookingId][showTimeId][hết hạn, epoch giây][số ghế][seatId tăng dần, lưu
+ * hiệu số] (mọi số là varint) rồi HMAC-SHA256 cắt 10 byte, mã hoá base32 chữ hoa không
+ * padding. Bảng chữ base32 (A-Z, 2-7) nằm trong chế độ alphanumeric của QR nên mỗi ký
+ * tự chỉ tốn 5,5 bit thay vì 8 bit như JSON.
+ */
+@Component
+public class TicketTokenCodec {
+    static final byte VERSION = 1;
+    static final int MAC_LENGTH = 10;
+    // Số ghế tối đa trong một vé, chặn token giả khai báo số ghế rất lớn
+    static final int MAX_SEATS = 64;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".toCharArray();
+    private static final int[] LOOKUP = new int[128];
+
+    static {
+        Arrays.fill(LOOKUP, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            LOOKUP[ALPHABET[i]] = i;
+        }
+    }
+
+    /**
+     * Nội dung đã ký của một vé; seatIds luôn tăng dần
+     */
+    public record Claims(long bookingId, long showTimeId, List<Long> seatIds, Instant expiresAt) {
+    }
+
+    private final SecretKeySpec secretKey;
+    private final ThreadLocal<Mac> macs;
+
+    public TicketTokenCodec(@Value("${ticketbooking.ticket.secret:${ticketbooking.jwt.base64-secret}}") String secret) {
+        this.secretKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String encode(Claims claims) {
+        List<Long> seatIds = claims.seatIds().stream().sorted().toList();
+        if (seatIds.size() > MAX_SEATS) {
+            throw new IllegalArgumentException("Too many seats for one ticket: " + seatIds.size());
+        }
+        byte[] body = new byte[1 + 10 * (4 + seatIds.size())];
+        body[0] = VERSION;
+        int length = 1;
+        length = writeVarint(body, length, claims.bookingId());
+        length = writeVarint(body, length, claims.showTimeId());
+        length = writeVarint(body, length, claims.expiresAt().getEpochSecond());
+        length = writeVarint(body, length, seatIds.size());
+        long previous = 0;
+        for (Long seatId : seatIds) {
+            length = writeVarint(body, length, seatId - previous);
+            previous = seatId;
+        }
+
+        byte[] token = Arrays.copyOf(body, length + MAC_LENGTH);
+        System.arraycopy(mac(body, length), 0, token, length, MAC_LENGTH);
+        return base32(token);
+    }
+
+    /**
+     * Chỉ kiểm tra định dạng và chữ ký, không kiểm tra hạn dùng
+     *
+     * @return nội dung vé, hoặc null nếu mã sai định dạng hay sai chữ ký
+     */
+    public Claims decode(String token) {
+        byte[] bytes = token == null ? null : unbase32(token);
+        if (bytes == null || bytes.length < 5 + MAC_LENGTH || bytes[0] != VERSION) {
+            return null;
+        }
+        int bodyLength = bytes.length - MAC_LENGTH;
+        byte[] expected = Arrays.copyOf(mac(bytes, bodyLength), MAC_LENGTH);
+        byte[] actual = Arrays.copyOfRange(bytes, bodyLength, bytes.length);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+
+        VarintReader reader = new VarintReader(bytes, 1, bodyLength);
+        long bookingId = reader.next();
+        long showTimeId = reader.next();
+        long expiresAt = reader.next();
+        long seatCount = reader.next();
+        if (seatCount < 0 || seatCount > MAX_SEATS) {
+            return null;
+        }
+        List<Long> seatIds = new ArrayList<>((int) seatCount);
+        long seatId = 0;
+        for (int i = 0; i < seatCount; i++) {
+            seatId += reader.next();
+            seatIds.add(seatId);
+        }
+        if (reader.failed || reader.position != bodyLength) {
+            return null;
+        }
+        return new Claims(bookingId, showTimeId, List.copyOf(seatIds), Instant.ofEpochSecond(expiresAt));
+    }
+
+    private byte[] mac(byte[] data, int length) {
+        Mac mac = macs.get();
+        mac.update(data, 0, length);
+        return mac.doFinal();
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+
+    private static int writeVarint(byte[] buf, int offset, long value) {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            buf[offset++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[offset++] = (byte) v;
+        return offset;
+    }
+
+    private static final class VarintReader {
+        private final byte[] buf;
+        private final int limit;
+        private int position;
+        private boolean failed;
+
+        VarintReader(byte[] buf, int position, int limit) {
+            this.buf = buf;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        long next() {
+            long value = 0;
+            for (int shift = 0; shift < 64 && position < limit; shift += 7) {
+                byte b = buf[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            failed = true;
+            return 0;
+        }
+    }
+
+    static String base32(byte[] data) {
+        StringBuilder sb = new StringBuilder((data.length * 8 + 4) / 5);
+        int buffer = 0;
+        int bits = 0;
+        for (byte b : data) {
+            buffer = (buffer << 8) | (b & 0xFF);
+            bits += 8;
+            while (bits >= 5) {
+                sb.append(ALPHABET[(buffer >>> (bits - 5)) & 0x1F]);
+                bits -= 5;
+            }
+        }
+        if (bits > 0) {
+            sb.append(ALPHABET[(buffer << (5 - bits)) & 0x1F]);
+        }
+        return sb.toString();
+    }
+
+    static byte[] unbase32(String text) {
+        byte[] out = new byte[text.length() * 5 / 8];
+        int buffer = 0;
+        int bits = 0;
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int value = c < 128 ? LOOKUP[c] : -1;
+            if (value < 0) {
+                return null;
+            }
+            buffer = (buffer << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                out[length++] = (byte) (buffer >>> (bits - 8));
+                bits -= 8;
+            }
+        }
+        // Bit đệm của ký tự cuối phải bằng 0 để mỗi vé chỉ có đúng một chuỗi hợp lệ
+        if (bits >= 5 || (buffer & ((1 << bits) - 1)) != 0) {
+            return null;
+        }
+        return out;
+    }
+}
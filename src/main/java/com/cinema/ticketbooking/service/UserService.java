@@ -9,6 +9,8 @@ import com.cinema.ticketbooking.domain.response.ResultPaginationDto;
 import com.cinema.ticketbooking.repository.UserRepository;
 import com.cinema.ticketbooking.util.error.BadRequestException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -21,6 +23,8 @@ import java.util.stream.Collectors;
 
 @Service
 public class UserService {
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
@@ -99,22 +103,16 @@ public class UserService {
         if (userOptional.isPresent()) {
             User user = userOptional.get();
 
-            // Debug log
-            System.out.println("Before update - Phone: " + user.getPhone());
-            System.out.println("Request Phone: " + reqUser.getPhone());
-
             // Cập nhật thông tin mới
             user.setUsername(reqUser.getUsername());
             user.setPhone(reqUser.getPhone());
             user.setGender(reqUser.getGender());
             user.setAvatar(reqUser.getAvatar());
 
-            System.out.println("After setPhone - Phone: " + user.getPhone());
-
             // Lưu vào database
             User savedUser = this.userRepository.save(user);
 
-            System.out.println("After save - Phone: " + savedUser.getPhone());
+            log.debug("Updated user {}", savedUser.getId());
 
             // Trả về response
             ResUpdateUserDto updatedUser = new ResUpdateUserDto();
@@ -144,12 +142,6 @@ public class UserService {
     public void updateMyPassword(String email, String oldPassword, String newPassword) {
         User user = this.getUserByEmail(email);
 
-        // Debug log
-        System.out.println("=== Change Password Debug ===");
-        System.out.println("Email: " + email);
-        System.out.println("User found: " + (user != null ? user.getUsername() : "null"));
-        System.out.println("Old password matches: " + passwordEncoder.matches(oldPassword, user.getPassword()));
-
         // Verify old password
         if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
             throw new BadRequestException("Old password is incorrect");
@@ -160,7 +152,7 @@ public class UserService {
         user.setPassword(hashPassword);
         this.userRepository.save(user);
 
-        System.out.println("Password changed successfully for: " + email);
+        log.info("Password changed for user {}", user.getId());
     }
 
     public User getUserByRefreshTokenAndEmail(String refreshToken, String email) {
@@ -0,0 +1,65 @@
+package com.cinema.ticketbooking.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.cinema.ticketbooking.domain.response.ResVnPayIpnDto;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Xử lý IPN (server-to-server) của VNPay với số request đồng thời có giới hạn.
+ * <p>
+ * IPN được xác thực chữ ký và cập nhật payment/booking ngay trên thread của request
+ * qua {@link VNPayService#processIpn}, dùng chung khoá idempotency với return URL nên
+ * mỗi giao dịch chỉ được xác nhận một lần dù đến từ đường nào. RspCode 00 chỉ được trả
+ * sau khi transaction đã commit. Khi đã đủ {@code max-concurrent} IPN đang xử lý, hoặc
+ * xử lý lỗi, trả RspCode 99 mà không chờ.
+ */
+@Component
+public class VNPayIpnProcessor {
+    private static final Logger log = LoggerFactory.getLogger(VNPayIpnProcessor.class);
+    static final ResVnPayIpnDto UNKNOWN_ERROR = new ResVnPayIpnDto("99", "Unknown error");
+
+    @Value("${ticketbooking.vnpay.ipn.max-concurrent:4}")
+    private int maxConcurrent;
+
+    private final VNPayService vnPayService;
+    private Semaphore permits;
+
+    public VNPayIpnProcessor(VNPayService vnPayService) {
+        this.vnPayService = vnPayService;
+    }
+
+    @PostConstruct
+    void start() {
+        permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * @return phản hồi trả cho VNPay
+     */
+    public ResVnPayIpnDto process(Map<String, String> params) {
+        if (!permits.tryAcquire()) {
+            return UNKNOWN_ERROR;
+        }
+        try {
+            // verifyCallback sửa map tham số nên xử lý trên một bản sao
+            return vnPayService.processIpn(new HashMap<>(params));
+        } catch (RuntimeException e) {
+            log.atError()
+                    .setCause(e)
+                    .addKeyValue("txnRef", params.get("vnp_TxnRef"))
+                    .log("VNPay IPN processing failed");
+            return UNKNOWN_ERROR;
+        } finally {
+            permits.release();
+        }
+    }
+}
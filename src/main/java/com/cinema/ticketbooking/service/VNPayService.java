@@ -2,29 +2,32 @@ package com.cinema.ticketbooking.service;
 
 import com.cinema.ticketbooking.domain.Booking;
 import com.cinema.ticketbooking.domain.Payment;
+import com.cinema.ticketbooking.domain.ProcessedPaymentCallback;
+import com.cinema.ticketbooking.domain.response.ResVnPayIpnDto;
 import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
+import com.cinema.ticketbooking.util.constant.OutboxEventTypeEnum;
 import com.cinema.ticketbooking.util.constant.PaymentMethodEnum;
 import com.cinema.ticketbooking.util.constant.PaymentStatusEnum;
 import com.cinema.ticketbooking.util.error.BadRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class VNPayService {
+    private static final Logger log = LoggerFactory.getLogger(VNPayService.class);
+
     @Value("${vnpay.tmnCode}")
     private String vnpTmnCode;
 
-    @Value("${vnpay.hashSecret}")
-    private String vnpHashSecret;
-
     @Value("${vnpay.url}")
     private String vnpUrl;
 
@@ -45,15 +48,25 @@ public class VNPayService {
 
     private final PaymentService paymentService;
     private final BookingService bookingService;
-    private final EmailService emailService;
-    private final QRCodeService qrCodeService;
+    private final OutboxService outboxService;
+    private final SeatStateIndex seatStateIndex;
+    private final PaymentCallbackDeduplicator paymentCallbackDeduplicator;
+    private final TransactionTemplate transactionTemplate;
+    private final VNPaySigner vnPaySigner;
+    private final BookingMetrics bookingMetrics;
 
     public VNPayService(PaymentService paymentService, BookingService bookingService,
-            EmailService emailService, QRCodeService qrCodeService) {
+            OutboxService outboxService, SeatStateIndex seatStateIndex,
+            PaymentCallbackDeduplicator paymentCallbackDeduplicator, TransactionTemplate transactionTemplate,
+            VNPaySigner vnPaySigner, BookingMetrics bookingMetrics) {
         this.paymentService = paymentService;
         this.bookingService = bookingService;
-        this.emailService = emailService;
-        this.qrCodeService = qrCodeService;
+        this.outboxService = outboxService;
+        this.seatStateIndex = seatStateIndex;
+        this.paymentCallbackDeduplicator = paymentCallbackDeduplicator;
+        this.transactionTemplate = transactionTemplate;
+        this.vnPaySigner = vnPaySigner;
+        this.bookingMetrics = bookingMetrics;
     }
 
     public String createPaymentUrl(Long paymentId, Double price, String orderInfo, String ipAddress)
@@ -70,18 +83,28 @@ public class VNPayService {
             paymentService.savePayment(payment);
         }
 
+        return buildPaymentUrl(payment.getTransactionRef(), price,
+                orderInfo != null ? orderInfo : "Thanh toan ve xem phim #" + payment.getBooking().getId(),
+                ipAddress);
+    }
+
+    /**
+     * Tạo URL thanh toán từ transactionRef đã có, không đọc/ghi DB
+     */
+    public String buildPaymentUrl(String transactionRef, Double price, String orderInfo, String ipAddress)
+            throws UnsupportedEncodingException {
+        long start = System.nanoTime();
         // Calculate amount (VNPay requires amount in VND * 100)
         long amount = (long) (price * 100);
 
-        Map<String, String> vnpParams = new HashMap<>();
+        Map<String, String> vnpParams = new TreeMap<>();
         vnpParams.put("vnp_Version", vnpVersion);
         vnpParams.put("vnp_Command", vnpCommand);
         vnpParams.put("vnp_TmnCode", vnpTmnCode);
         vnpParams.put("vnp_Amount", String.valueOf(amount));
         vnpParams.put("vnp_CurrCode", "VND");
-        vnpParams.put("vnp_TxnRef", payment.getTransactionRef()); // Use UUID instead of payment ID
-        vnpParams.put("vnp_OrderInfo",
-                orderInfo != null ? orderInfo : "Thanh toan ve xem phim #" + payment.getBooking().getId());
+        vnpParams.put("vnp_TxnRef", transactionRef); // Use UUID instead of payment ID
+        vnpParams.put("vnp_OrderInfo", orderInfo);
         vnpParams.put("vnp_OrderType", "other");
         vnpParams.put("vnp_Locale", "vn");
         vnpParams.put("vnp_ReturnUrl", vnpReturnUrl);
@@ -96,44 +119,16 @@ public class VNPayService {
         String vnpExpireDate = formatter.format(cld.getTime());
         vnpParams.put("vnp_ExpireDate", vnpExpireDate);
 
-        // Build hash data and query string
-        List<String> fieldNames = new ArrayList<>(vnpParams.keySet());
-        Collections.sort(fieldNames);
-        StringBuilder hashData = new StringBuilder();
-        StringBuilder query = new StringBuilder();
-
-        Iterator<String> itr = fieldNames.iterator();
-        while (itr.hasNext()) {
-            String fieldName = itr.next();
-            String fieldValue = vnpParams.get(fieldName);
-            if ((fieldValue != null) && (fieldValue.length() > 0)) {
-                // Build hash data - URL ENCODE the value
-                hashData.append(fieldName);
-                hashData.append('=');
-                hashData.append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8.toString()));
-
-                // Build query - Same as hash data
-                query.append(fieldName);
-                query.append('=');
-                query.append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8.toString()));
-                if (itr.hasNext()) {
-                    query.append('&');
-                    hashData.append('&');
-                }
-            }
-        }
+        // Query gửi sang VNPay cũng chính là chuỗi được ký
+        String hashData = vnPaySigner.canonicalQuery(vnpParams);
+        String vnpSecureHash = vnPaySigner.sign(hashData);
+        String paymentUrl = vnpUrl + "?" + hashData + "&vnp_SecureHash=" + vnpSecureHash;
 
-        String queryUrl = query.toString();
-        String vnpSecureHash = hmacSHA512(vnpHashSecret, hashData.toString());
-        queryUrl += "&vnp_SecureHash=" + vnpSecureHash;
-        String paymentUrl = vnpUrl + "?" + queryUrl;
-
-        // Debug logging
-        System.out.println("=== VNPay Payment URL Debug ===");
-        System.out.println("Hash Data: " + hashData.toString());
-        System.out.println("Secure Hash: " + vnpSecureHash);
-        System.out.println("Payment URL: " + paymentUrl);
-        System.out.println("================================");
+        log.atDebug()
+                .addKeyValue("txnRef", transactionRef)
+                .addKeyValue("amount", amount)
+                .log("Created VNPay payment URL");
+        bookingMetrics.recordPaymentUrl(System.nanoTime() - start);
 
         return paymentUrl;
     }
@@ -143,48 +138,142 @@ public class VNPayService {
         params.remove("vnp_SecureHashType");
         params.remove("vnp_SecureHash");
 
-        // Build hash data
-        List<String> fieldNames = new ArrayList<>(params.keySet());
-        Collections.sort(fieldNames);
-        StringBuilder hashData = new StringBuilder();
-
-        Iterator<String> itr = fieldNames.iterator();
-        while (itr.hasNext()) {
-            String fieldName = itr.next();
-            String fieldValue = params.get(fieldName);
-            if ((fieldValue != null) && (fieldValue.length() > 0)) {
-                // URL ENCODE for hash verification (same as when creating payment URL)
-                hashData.append(fieldName);
-                hashData.append('=');
-                try {
-                    hashData.append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8.toString()));
-                } catch (UnsupportedEncodingException e) {
-                    throw new RuntimeException(e);
-                }
-                if (itr.hasNext()) {
-                    hashData.append('&');
+        String hashData = vnPaySigner.canonicalQuery(params);
+        boolean valid = vnPaySigner.verify(hashData, vnpSecureHash);
+
+        if (!valid) {
+            log.atWarn()
+                    .addKeyValue("txnRef", params.get("vnp_TxnRef"))
+                    .log("Invalid VNPay callback signature");
+        }
+
+        return valid;
+    }
+
+    /**
+     * Xử lý callback VNPay đúng một lần cho mỗi vnp_TxnRef:vnp_TransactionNo.
+     * Callback lặp lại (đã xác thực chữ ký) trả về redirectUrl của lần đầu mà không
+     * đọc lại payment/booking. Kết quả và thời gian xử lý được ghi vào metric
+     * payment.callback.
+     */
+    public String processCallback(Map<String, String> params) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            if (!verifyCallback(params)) {
+                outcome = "invalid_signature";
+                return directUrlError + "?message=Invalid+signature";
+            }
+
+            String callbackKey = PaymentCallbackDeduplicator.callbackKey(
+                    params.get("vnp_TxnRef"), params.get("vnp_TransactionNo"));
+            String processed = paymentCallbackDeduplicator.findProcessed(callbackKey);
+            if (processed != null) {
+                outcome = "duplicate";
+                return processed;
+            }
+
+            try {
+                String redirectUrl = transactionTemplate.execute(status -> {
+                    ProcessedPaymentCallback record = paymentCallbackDeduplicator.claim(callbackKey);
+                    String url = applyCallback(params);
+                    paymentCallbackDeduplicator.complete(record, url);
+                    return url;
+                });
+                outcome = "00".equals(params.get("vnp_ResponseCode")) ? "paid" : "failed";
+                return redirectUrl;
+            } catch (DataIntegrityViolationException e) {
+                // Callback trùng chạy song song đã claim và commit trước
+                processed = paymentCallbackDeduplicator.findProcessed(callbackKey);
+                if (processed != null) {
+                    outcome = "duplicate";
+                    return processed;
                 }
+                throw e;
             }
+        } finally {
+            bookingMetrics.recordCallback(outcome, System.nanoTime() - start);
         }
+    }
 
-        String calculatedHash = hmacSHA512(vnpHashSecret, hashData.toString());
+    /**
+     * Xử lý IPN đồng bộ và trả RspCode theo quy ước VNPay: 97 sai chữ ký, 01 không có
+     * đơn, 02 đơn đã xác nhận, 04 sai số tiền. 00 chỉ được trả sau khi transaction cập
+     * nhật payment/booking đã commit; lỗi khác để bên gọi trả 99.
+     */
+    public ResVnPayIpnDto processIpn(Map<String, String> params) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            if (!verifyCallback(params)) {
+                outcome = "invalid_signature";
+                return new ResVnPayIpnDto("97", "Invalid signature");
+            }
 
-        // Debug logging
-        System.out.println("=== VNPay Callback Verification ===");
-        System.out.println("Hash Data: " + hashData.toString());
-        System.out.println("Calculated Hash: " + calculatedHash);
-        System.out.println("Received Hash: " + vnpSecureHash);
-        System.out.println("Match: " + calculatedHash.equals(vnpSecureHash));
-        System.out.println("===================================");
+            String callbackKey = PaymentCallbackDeduplicator.callbackKey(
+                    params.get("vnp_TxnRef"), params.get("vnp_TransactionNo"));
+            if (paymentCallbackDeduplicator.findProcessed(callbackKey) != null) {
+                outcome = "duplicate";
+                return new ResVnPayIpnDto("02", "Order already confirmed");
+            }
 
-        return calculatedHash.equals(vnpSecureHash);
+            try {
+                ResVnPayIpnDto response = transactionTemplate.execute(status -> {
+                    Payment payment = paymentService.findPaymentByTransactionRef(params.get("vnp_TxnRef"));
+                    if (payment == null) {
+                        return new ResVnPayIpnDto("01", "Order not found");
+                    }
+                    if (payment.getStatus() == PaymentStatusEnum.PAID) {
+                        return new ResVnPayIpnDto("02", "Order already confirmed");
+                    }
+                    if (!amountMatches(payment, params.get("vnp_Amount"))) {
+                        return new ResVnPayIpnDto("04", "Invalid amount");
+                    }
+                    ProcessedPaymentCallback record = paymentCallbackDeduplicator.claim(callbackKey);
+                    paymentCallbackDeduplicator.complete(record, applyCallback(params));
+                    return new ResVnPayIpnDto("00", "Confirm Success");
+                });
+                outcome = switch (response.getRspCode()) {
+                    case "00" -> "00".equals(params.get("vnp_ResponseCode")) ? "paid" : "failed";
+                    case "01" -> "not_found";
+                    case "02" -> "duplicate";
+                    default -> "invalid_amount";
+                };
+                return response;
+            } catch (DataIntegrityViolationException e) {
+                // Callback trùng chạy song song đã claim và commit trước
+                if (paymentCallbackDeduplicator.findProcessed(callbackKey) != null) {
+                    outcome = "duplicate";
+                    return new ResVnPayIpnDto("02", "Order already confirmed");
+                }
+                throw e;
+            }
+        } finally {
+            bookingMetrics.recordCallback(outcome, System.nanoTime() - start);
+        }
     }
 
-    public String processCallback(Map<String, String> params) {
-        if (!verifyCallback(params)) {
-            return directUrlError + "?message=Invalid+signature";
+    /**
+     * vnp_Amount là số tiền VND nhân 100, so với tổng tiền của booking
+     */
+    private static boolean amountMatches(Payment payment, String vnpAmount) {
+        Booking booking = payment.getBooking();
+        if (vnpAmount == null || booking == null || booking.getTotal_price() == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(vnpAmount) == (long) (booking.getTotal_price() * 100);
+        } catch (NumberFormatException e) {
+            return false;
         }
+    }
 
+    /**
+     * Chỉ cập nhật trạng thái payment/booking và ghi outbox event trong cùng một
+     * transaction; QR và email được {@link com.cinema.ticketbooking.domain.OutboxDispatcher}
+     * xử lý ở nền nên redirect không phải chờ SMTP.
+     */
+    private String applyCallback(Map<String, String> params) {
         String responseCode = params.get("vnp_ResponseCode");
         String transactionRef = params.get("vnp_TxnRef"); // UUID instead of payment ID
 
@@ -195,51 +284,30 @@ public class VNPayService {
             // Payment successful
             paymentService.updatePaymentStatus(payment.getId(), PaymentStatusEnum.PAID);
 
-            // Generate QR code for booking
             Booking booking = payment.getBooking();
             if (booking != null) {
                 // Update booking status to CONFIRMED
                 booking.setStatus(BookingStatusEnum.CONFIRMED);
-
-                // Generate QR code if not exists
-                if (booking.getQrCode() == null || booking.getQrCode().isEmpty()) {
-                    String qrCode = qrCodeService.generateBookingQRCodeWithDetails(
-                            booking.getId(),
-                            booking.getUser().getEmail(),
-                            booking.getTotal_price());
-                    booking.setQrCode(qrCode);
-                }
-
                 bookingService.updateBooking(booking);
 
-                // Send email with QR code
-                emailService.sendBookingConfirmationWithQR(booking);
+                // QR code + email xác nhận được gửi bất đồng bộ
+                outboxService.enqueue(OutboxEventTypeEnum.BOOKING_CONFIRMED, booking.getId());
             }
             return directUrlSuccess + "?paymentId=" + payment.getId() + "&bookingId=" + booking.getId();
         } else {
             // Payment failed - delete booking, booking items and payment
             if (payment != null && payment.getBooking() != null) {
-                Long bookingId = payment.getBooking().getId();
+                Booking booking = payment.getBooking();
+                Map<Long, List<Long>> seatIdsByShowTime = booking.getBookingItems() == null
+                        ? Map.of()
+                        : booking.getBookingItems().stream()
+                                .collect(Collectors.groupingBy(item -> item.getShowTime().getId(),
+                                        Collectors.mapping(item -> item.getSeat().getId(), Collectors.toList())));
                 // Delete booking (cascade will delete booking items and payment)
-                bookingService.deleteBooking(bookingId);
+                bookingService.deleteBooking(booking.getId());
+                seatIdsByShowTime.forEach(seatStateIndex::releaseBookings);
             }
             return directUrlError + "?paymentId=" + payment.getId() + "&responseCode=" + responseCode;
         }
     }
-
-    private String hmacSHA512(String key, String data) {
-        try {
-            Mac hmac512 = Mac.getInstance("HmacSHA512");
-            SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
-            hmac512.init(secretKey);
-            byte[] result = hmac512.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder(2 * result.length);
-            for (byte b : result) {
-                sb.append(String.format("%02x", b & 0xff));
-            }
-            return sb.toString();
-        } catch (Exception ex) {
-            throw new RuntimeException("Error while generating HMAC SHA512", ex);
-        }
-    }
 }
@@ -0,0 +1,151 @@
+package com.cinema.ticketbooking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ký và xác thực tham số VNPay (HmacSHA512 trên chuỗi query đã sắp xếp theo tên).
+ * <p>
+ * Mỗi thread giữ một {@link Mac} đã init sẵn với secret, nên không phải tìm provider
+ * và tạo key cho từng lần ký. Chuỗi canonical (cũng chính là query string gửi sang
+ * VNPay) được dựng trong một lượt, mỗi giá trị chỉ encode một lần.
+ */
+@Component
+public class VNPaySigner {
+    private static final String ALGORITHM = "HmacSHA512";
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    static {
+        // Cùng tập ký tự giữ nguyên như URLEncoder
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['.'] = true;
+        UNRESERVED['-'] = true;
+        UNRESERVED['*'] = true;
+        UNRESERVED['_'] = true;
+    }
+
+    private final SecretKeySpec secretKey;
+    private final ThreadLocal<Mac> macs;
+
+    public VNPaySigner(@Value("${vnpay.hashSecret}") String hashSecret) {
+        this.secretKey = new SecretKeySpec(hashSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Chuỗi "name=value&..." theo thứ tự tên, bỏ giá trị rỗng, value được URL-encode
+     */
+    public String canonicalQuery(Map<String, String> params) {
+        StringBuilder sb = new StringBuilder(params.size() * 32);
+        if (params instanceof SortedMap<String, String> sorted && sorted.comparator() == null) {
+            for (Map.Entry<String, String> entry : sorted.entrySet()) {
+                appendField(sb, entry.getKey(), entry.getValue());
+            }
+        } else {
+            String[] names = params.keySet().toArray(new String[0]);
+            Arrays.sort(names);
+            for (String name : names) {
+                appendField(sb, name, params.get(name));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * HmacSHA512 dạng hex thường
+     */
+    public String sign(String data) {
+        return toHex(macs.get().doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * So sánh chữ ký trong thời gian không phụ thuộc vị trí khác nhau
+     */
+    public boolean verify(String data, String secureHash) {
+        if (secureHash == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                sign(data).getBytes(StandardCharsets.US_ASCII),
+                secureHash.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            out[i * 2] = HEX_LOWER[b >>> 4];
+            out[i * 2 + 1] = HEX_LOWER[b & 0x0f];
+        }
+        return new String(out);
+    }
+
+    /**
+     * Encode giống URLEncoder.encode(value, UTF_8) nhưng ghi thẳng vào builder
+     */
+    static void appendEncoded(StringBuilder sb, String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 128 && UNRESERVED[c]) {
+                sb.append(c);
+            } else if (c == ' ') {
+                sb.append('+');
+            } else if (c < 128) {
+                appendPercent(sb, c);
+            } else {
+                int end = Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(value.charAt(i + 1)) ? i + 2 : i + 1;
+                for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    appendPercent(sb, b & 0xff);
+                }
+                i = end - 1;
+            }
+        }
+    }
+
+    private static void appendField(StringBuilder sb, String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (sb.length() > 0) {
+            sb.append('&');
+        }
+        sb.append(name).append('=');
+        appendEncoded(sb, value);
+    }
+
+    private static void appendPercent(StringBuilder sb, int b) {
+        sb.append('%').append(HEX_UPPER[b >>> 4]).append(HEX_UPPER[b & 0x0f]);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error while initializing HMAC SHA512", e);
+        }
+    }
+}
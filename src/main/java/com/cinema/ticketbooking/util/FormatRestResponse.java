@@ -8,6 +8,7 @@ import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import com.cinema.ticketbooking.domain.response.ResVnPayIpnDto;
 import com.cinema.ticketbooking.domain.response.RestResponse;
 
 @ControllerAdvice
@@ -30,6 +31,18 @@ public class FormatRestResponse implements ResponseBodyAdvice <Object> {
         if (body instanceof String) {
             return body;
         }
+        // Actuator (health, prometheus) giữ nguyên định dạng cho probe/scraper
+        if (request.getURI().getPath().startsWith("/actuator")) {
+            return body;
+        }
+        // Ảnh (QR vé image/png) trả nguyên byte
+        if (body instanceof byte[]) {
+            return body;
+        }
+        // VNPay đọc RspCode/Message ở gốc JSON
+        if (body instanceof ResVnPayIpnDto) {
+            return body;
+        }
         //case error
         if (status >= 400){
             return body;
@@ -2,6 +2,8 @@ package com.cinema.ticketbooking.util;
 
 import com.cinema.ticketbooking.domain.response.ResLoginDto;
 import com.nimbusds.jose.util.Base64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -20,6 +22,8 @@ import java.util.Optional;
 
 @Service
 public class SecurityUtil {
+    private static final Logger log = LoggerFactory.getLogger(SecurityUtil.class);
+
     private final JwtEncoder jwtEncoder;
 
     public SecurityUtil(JwtEncoder jwtEncoder) {
@@ -83,7 +87,7 @@ public class SecurityUtil {
         try {
             return jwtDecoder.decode(refreshToken);
         } catch (Exception e) {
-            System.out.println(">>> Refresh Token error: " + e.getMessage());
+            log.warn("Refresh token error: {}", e.getMessage());
             throw e;
         }
     }
@@ -114,6 +118,12 @@ public class SecurityUtil {
                 .map(auth -> (String) auth.getCredentials());
     }
 
+    public static boolean isCurrentUserAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+
     public static Optional<Long> getCurrentUserId() {
         SecurityContext securityContext = SecurityContextHolder.getContext();
         Authentication authentication = securityContext.getAuthentication();
@@ -0,0 +1,5 @@
+package com.cinema.ticketbooking.util.constant;
+
+public enum OutboxEventTypeEnum {
+    BOOKING_CONFIRMED // tạo QR + gửi email xác nhận
+}
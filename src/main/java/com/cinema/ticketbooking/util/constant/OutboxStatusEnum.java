@@ -0,0 +1,5 @@
+package com.cinema.ticketbooking.util.constant;
+
+public enum OutboxStatusEnum {
+    PENDING, DONE, FAILED
+}
@@ -0,0 +1,5 @@
+package com.cinema.ticketbooking.util.constant;
+
+public enum TicketVerificationStatusEnum {
+    ADMITTED, ALREADY_USED, EXPIRED, WRONG_SHOWTIME, REVOKED, INVALID;
+}
@@ -38,7 +38,7 @@ public class GlobalException {
     }
 
     @ExceptionHandler(value = { ResourceAlreadyExistsException.class, UnavailableResourceException.class })
-    public ResponseEntity<RestResponse<Object>> handleResourceAlreadyExists(ResourceAlreadyExistsException ex) {
+    public ResponseEntity<RestResponse<Object>> handleResourceAlreadyExists(RuntimeException ex) {
         RestResponse<Object> response = new RestResponse<>();
 
         response.setStatusCode(HttpStatus.CONFLICT.value()); // 409
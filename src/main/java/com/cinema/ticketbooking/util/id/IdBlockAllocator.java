@@ -0,0 +1,119 @@
+package com.cinema.ticketbooking.util.id;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+/**
+ * Cấp id theo khối {@link #BLOCK_SIZE} từ bảng id_generators.
+ * <p>
+ * Khối mới được lấy trên pool kết nối riêng idAllocatorDataSource (xem IdGeneratorConfig),
+ * không dùng pool của ứng dụng.
+ * TableGenerator của Hibernate lấy khối trên một kết nối thứ hai của cùng pool trong
+ * khi đang giữ lock của optimizer: khi mọi kết nối đều thuộc các request đang chờ lock
+ * đó thì không ai lấy được khối và tất cả treo tới khi Hikari timeout.
+ * <p>
+ * Mỗi sequence có lock riêng nên pool riêng chỉ cần vài kết nối. Khối đã lấy nhưng chưa
+ * dùng hết khi ứng dụng dừng chỉ để lại khoảng trống trong dãy id.
+ */
+public class IdBlockAllocator {
+    static final int BLOCK_SIZE = 50;
+    private static final Pattern SEQUENCE_NAME = Pattern.compile("[a-z_]+");
+
+    private final DataSource dataSource;
+    private final ConcurrentHashMap<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public IdBlockAllocator(DataSource dataSource) {
+        this.dataSource = dataSource;
+        createTableIfMissing();
+    }
+
+    public long next(String sequenceName) {
+        Block block = blocks.computeIfAbsent(sequenceName, name -> new Block());
+        synchronized (block) {
+            if (block.next >= block.end) {
+                block.next = fetchBlock(sequenceName);
+                block.end = block.next + BLOCK_SIZE;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Giữ [value, value + BLOCK_SIZE) và tăng next_val trong một transaction
+     */
+    private long fetchBlock(String sequenceName) {
+        try (Connection connection = dataSource.getConnection()) {
+            Long value = lockCurrentValue(connection, sequenceName);
+            if (value == null) {
+                initialize(connection, sequenceName);
+                value = lockCurrentValue(connection, sequenceName);
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE id_generators SET next_val = ? WHERE sequence_name = ?")) {
+                update.setLong(1, value + BLOCK_SIZE);
+                update.setString(2, sequenceName);
+                update.executeUpdate();
+            }
+            connection.commit();
+            return value;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not allocate ids for " + sequenceName, e);
+        }
+    }
+
+    private Long lockCurrentValue(Connection connection, String sequenceName) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT next_val FROM id_generators WHERE sequence_name = ? FOR UPDATE")) {
+            select.setString(1, sequenceName);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Tạo dòng cho sequence mới, bắt đầu sau id lớn nhất đang có trong bảng cùng tên
+     */
+    private void initialize(Connection connection, String sequenceName) throws SQLException {
+        if (!SEQUENCE_NAME.matcher(sequenceName).matches()) {
+            throw new IllegalArgumentException("Invalid sequence name " + sequenceName);
+        }
+        connection.rollback();
+        connection.setAutoCommit(true);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO id_generators (sequence_name, next_val) SELECT ?, COALESCE(MAX(id), 0) + 1 FROM "
+                        + sequenceName)) {
+            insert.setString(1, sequenceName);
+            insert.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // Instance khác vừa tạo dòng này
+        }
+    }
+
+    private void createTableIfMissing() {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS id_generators (
+                        sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+                        next_val BIGINT
+                    )""");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create id_generators", e);
+        }
+    }
+
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
@@ -0,0 +1,22 @@
+package com.cinema.ticketbooking.util.id;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Id cấp theo khối từ bảng id_generators qua {@link IdBlockAllocator}, để Hibernate
+ * batch được INSERT (không dùng IDENTITY).
+ */
+@IdGeneratorType(PooledIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface PooledId {
+    /**
+     * sequence_name trong id_generators, trùng tên bảng của entity
+     */
+    String value();
+}
@@ -0,0 +1,33 @@
+package com.cinema.ticketbooking.util.id;
+
+import java.lang.reflect.Member;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+public class PooledIdGenerator implements IdentifierGenerator {
+    /**
+     * Thuộc tính Hibernate chứa bean {@link IdBlockAllocator}, đặt bởi IdGeneratorConfig
+     */
+    public static final String ALLOCATOR_SETTING = "ticketbooking.id-block-allocator";
+
+    private final String sequenceName;
+    private final IdBlockAllocator allocator;
+
+    public PooledIdGenerator(PooledId config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sequenceName = config.value();
+        Object allocator = context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(ALLOCATOR_SETTING);
+        if (!(allocator instanceof IdBlockAllocator idBlockAllocator)) {
+            throw new IllegalStateException(ALLOCATOR_SETTING + " is not configured");
+        }
+        this.allocator = idBlockAllocator;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return allocator.next(sequenceName);
+    }
+}
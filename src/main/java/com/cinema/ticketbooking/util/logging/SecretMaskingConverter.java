@@ -0,0 +1,30 @@
+package com.cinema.ticketbooking.util.logging;
+
+import java.util.regex.Pattern;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Thay %msg trong logback-spring.xml: che chữ ký VNPay, token và mật khẩu trước khi
+ * ghi log, phòng khi có chỗ lỡ log URL thanh toán hay tham số callback.
+ */
+public class SecretMaskingConverter extends MessageConverter {
+    private static final Pattern SECRETS = Pattern.compile(
+            "(?i)((?:vnp_SecureHash|password|refresh_token|access_token)\"?\\s*[=:]\\s*\"?)[^&\\s\",}]+");
+    private static final Pattern BEARER = Pattern.compile("(?i)(Bearer\\s+)[A-Za-z0-9._~+/=-]+");
+    private static final String MASK = "****";
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return mask(super.convert(event));
+    }
+
+    public static String mask(String message) {
+        if (message == null || message.isEmpty()) {
+            return message;
+        }
+        String masked = SECRETS.matcher(message).replaceAll("$1" + MASK);
+        return BEARER.matcher(masked).replaceAll("$1" + MASK);
+    }
+}
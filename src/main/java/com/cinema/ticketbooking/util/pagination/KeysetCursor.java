@@ -0,0 +1,39 @@
+package com.cinema.ticketbooking.util.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import com.cinema.ticketbooking.util.error.BadRequestException;
+
+/**
+ * Vị trí (createdAt, id) của dòng cuối trang trước trong danh sách sắp xếp
+ * createdAt DESC, id DESC. Client chỉ thấy chuỗi base64url mờ, trả lại nguyên vẹn
+ * qua tham số {@code cursor} để lấy trang kế tiếp.
+ */
+public record KeysetCursor(Instant createdAt, long id) {
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return null khi cursor rỗng (trang đầu)
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 3) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new KeysetCursor(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                    Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
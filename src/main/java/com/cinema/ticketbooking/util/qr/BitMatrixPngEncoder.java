@@ -0,0 +1,131 @@
+package com.cinema.ticketbooking.util.qr;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.google.zxing.common.BitMatrix;
+
+/**
+ * Ghi {@link BitMatrix} thẳng ra PNG grayscale 1-bit (mỗi module phóng {@code scale}
+ * pixel), không qua BufferedImage/ImageIO. Buffer scanline, Deflater và stream đầu ra
+ * được giữ theo thread và dùng lại giữa các lần render.
+ */
+public final class BitMatrixPngEncoder {
+    private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private BitMatrixPngEncoder() {
+    }
+
+    public static byte[] encode(BitMatrix matrix, int scale) {
+        int width = matrix.getWidth() * scale;
+        int height = matrix.getHeight() * scale;
+        int rowBytes = (width + 7) / 8;
+
+        Buffers buffers = BUFFERS.get();
+        // Mỗi scanline: 1 byte filter (0 = None) + các bit pixel, 1 = trắng
+        byte[] raw = buffers.raw(height * (rowBytes + 1));
+        int offset = 0;
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            int rowStart = offset;
+            raw[offset++] = 0;
+            for (int i = 0; i < rowBytes; i++) {
+                raw[offset + i] = (byte) 0xFF;
+            }
+            for (int x = 0; x < matrix.getWidth(); x++) {
+                if (matrix.get(x, y)) {
+                    for (int px = x * scale, end = px + scale; px < end; px++) {
+                        raw[offset + (px >> 3)] &= (byte) ~(0x80 >>> (px & 7));
+                    }
+                }
+            }
+            offset += rowBytes;
+            // Các dòng pixel còn lại của module giống hệt dòng đầu
+            for (int r = 1; r < scale; r++) {
+                System.arraycopy(raw, rowStart, raw, offset, rowBytes + 1);
+                offset += rowBytes + 1;
+            }
+        }
+
+        Deflater deflater = buffers.deflater;
+        deflater.reset();
+        deflater.setInput(raw, 0, offset);
+        deflater.finish();
+        byte[] compressed = buffers.compressed(offset + 64);
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = buffers.compressed(compressed.length * 2, compressedLength);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        ByteArrayOutputStream out = buffers.out;
+        out.reset();
+        out.writeBytes(SIGNATURE);
+        byte[] header = new byte[13];
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = 1; // bit depth
+        header[9] = 0; // grayscale
+        writeChunk(out, buffers.crc, IHDR, header, header.length);
+        writeChunk(out, buffers.crc, IDAT, compressed, compressedLength);
+        writeChunk(out, buffers.crc, IEND, new byte[0], 0);
+        return out.toByteArray();
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, CRC32 crc, byte[] type, byte[] data, int length) {
+        byte[] word = new byte[4];
+        writeInt(word, 0, length);
+        out.writeBytes(word);
+        out.writeBytes(type);
+        out.write(data, 0, length);
+        crc.reset();
+        crc.update(type);
+        crc.update(data, 0, length);
+        writeInt(word, 0, (int) crc.getValue());
+        out.writeBytes(word);
+    }
+
+    private static void writeInt(byte[] buf, int offset, int value) {
+        buf[offset] = (byte) (value >>> 24);
+        buf[offset + 1] = (byte) (value >>> 16);
+        buf[offset + 2] = (byte) (value >>> 8);
+        buf[offset + 3] = (byte) value;
+    }
+
+    private static final class Buffers {
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private final CRC32 crc = new CRC32();
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        private byte[] raw = new byte[0];
+        private byte[] compressed = new byte[0];
+
+        byte[] raw(int size) {
+            if (raw.length < size) {
+                raw = new byte[size];
+            }
+            return raw;
+        }
+
+        byte[] compressed(int size) {
+            if (compressed.length < size) {
+                compressed = new byte[size];
+            }
+            return compressed;
+        }
+
+        byte[] compressed(int size, int keep) {
+            byte[] grown = new byte[size];
+            System.arraycopy(compressed, 0, grown, 0, keep);
+            compressed = grown;
+            return compressed;
+        }
+    }
+}
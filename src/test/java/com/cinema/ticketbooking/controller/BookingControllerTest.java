@@ -1,12 +1,16 @@
 package com.cinema.ticketbooking.controller;
 
+import com.cinema.ticketbooking.domain.TicketArtifact;
 import com.cinema.ticketbooking.domain.User;
 import com.cinema.ticketbooking.domain.request.ReqCreateBookingDto;
 import com.cinema.ticketbooking.domain.response.ResCreateBookingDto;
+import com.cinema.ticketbooking.service.AdmissionControlService;
 import com.cinema.ticketbooking.service.BookingService;
+import com.cinema.ticketbooking.service.TicketArtifactService;
 import com.cinema.ticketbooking.service.UserService;
 import com.cinema.ticketbooking.util.SecurityUtil;
 import com.cinema.ticketbooking.util.constant.PaymentMethodEnum;
+import com.cinema.ticketbooking.util.error.ApiException;
 import com.cinema.ticketbooking.util.error.IdInvalidException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,7 +21,11 @@ import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -35,6 +43,12 @@ class BookingControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private AdmissionControlService admissionControlService;
+
+    @Mock
+    private TicketArtifactService ticketArtifactService;
+
     @Mock
     private HttpServletRequest httpServletRequest;
 
@@ -64,7 +78,7 @@ class BookingControllerTest {
             when(bookingService.createBooking(1L, PaymentMethodEnum.CASH, "127.0.0.1")).thenReturn(responseDto);
 
             // Act
-            ResponseEntity<ResCreateBookingDto> response = bookingController.createBooking(request, httpServletRequest);
+            ResponseEntity<ResCreateBookingDto> response = bookingController.createBooking(request, null, httpServletRequest);
 
             // Assert
             assertEquals(HttpStatus.CREATED, response.getStatusCode());
@@ -89,7 +103,7 @@ class BookingControllerTest {
             // Act & Assert
             IdInvalidException exception = assertThrows(
                     IdInvalidException.class,
-                    () -> bookingController.createBooking(request, httpServletRequest)
+                    () -> bookingController.createBooking(request, null, httpServletRequest)
             );
 
             assertEquals("User not authenticated", exception.getMessage());
@@ -110,7 +124,7 @@ class BookingControllerTest {
             // Act & Assert
             IdInvalidException exception = assertThrows(
                     IdInvalidException.class,
-                    () -> bookingController.createBooking(request, httpServletRequest)
+                    () -> bookingController.createBooking(request, null, httpServletRequest)
             );
 
             assertEquals("User not found", exception.getMessage());
@@ -118,4 +132,72 @@ class BookingControllerTest {
             verify(bookingService, never()).createBooking(anyLong(), any(), anyString());
         }
     }
+
+    @Test
+    void getBookingQrCode_shouldReturnPngWithStrongEtag_toOwner() {
+        // Arrange
+        TicketArtifact artifact = new TicketArtifact();
+        artifact.setBookingId(5L);
+        artifact.setPng(new byte[] { 1, 2, 3 });
+        artifact.setEtag("abc123");
+        when(ticketArtifactService.findOwnerId(5L)).thenReturn(1L);
+        when(ticketArtifactService.findEtag(5L)).thenReturn(Optional.empty());
+        when(ticketArtifactService.getOrRender(5L)).thenReturn(artifact);
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        try (MockedStatic<SecurityUtil> utilities = mockStatic(SecurityUtil.class)) {
+            utilities.when(SecurityUtil::isCurrentUserAdmin).thenReturn(false);
+            utilities.when(SecurityUtil::getCurrentUserId).thenReturn(Optional.of(1L));
+
+            // Act
+            ResponseEntity<byte[]> response = bookingController.getBookingQrCode(5L, request);
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(MediaType.IMAGE_PNG, response.getHeaders().getContentType());
+            assertEquals("\"abc123\"", response.getHeaders().getETag());
+            assertArrayEquals(new byte[] { 1, 2, 3 }, response.getBody());
+        }
+    }
+
+    @Test
+    void getBookingQrCode_shouldReject_whenCallerDoesNotOwnBooking() {
+        // Arrange
+        when(ticketArtifactService.findOwnerId(5L)).thenReturn(2L);
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        try (MockedStatic<SecurityUtil> utilities = mockStatic(SecurityUtil.class)) {
+            utilities.when(SecurityUtil::isCurrentUserAdmin).thenReturn(false);
+            utilities.when(SecurityUtil::getCurrentUserId).thenReturn(Optional.of(1L));
+
+            // Act & Assert
+            ApiException ex = assertThrows(ApiException.class, () -> bookingController.getBookingQrCode(5L, request));
+            assertEquals(HttpStatus.FORBIDDEN, ex.getStatus());
+            verify(ticketArtifactService, never()).findEtag(anyLong());
+            verify(ticketArtifactService, never()).getOrRender(anyLong());
+        }
+    }
+
+    @Test
+    void getBookingQrCode_shouldReturnNotModifiedWithoutLoadingImage_whenEtagMatches() {
+        // Arrange
+        when(ticketArtifactService.findEtag(5L)).thenReturn(Optional.of("abc123"));
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/api/v1/bookings/5/qr");
+        servletRequest.addHeader("If-None-Match", "\"abc123\"");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        try (MockedStatic<SecurityUtil> utilities = mockStatic(SecurityUtil.class)) {
+            utilities.when(SecurityUtil::isCurrentUserAdmin).thenReturn(true);
+
+            // Act
+            ResponseEntity<byte[]> response = bookingController.getBookingQrCode(5L,
+                    new ServletWebRequest(servletRequest, servletResponse));
+
+            // Assert
+            assertNull(response);
+            assertEquals(HttpStatus.NOT_MODIFIED.value(), servletResponse.getStatus());
+            verify(ticketArtifactService, never()).getOrRender(anyLong());
+            verify(ticketArtifactService, never()).findOwnerId(anyLong());
+        }
+    }
 }
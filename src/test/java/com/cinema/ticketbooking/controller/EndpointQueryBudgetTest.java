@@ -0,0 +1,266 @@
+package com.cinema.ticketbooking.controller;
+
+import com.cinema.ticketbooking.domain.Auditorium;
+import com.cinema.ticketbooking.domain.Booking;
+import com.cinema.ticketbooking.domain.BookingItem;
+import com.cinema.ticketbooking.domain.Payment;
+import com.cinema.ticketbooking.domain.Seat;
+import com.cinema.ticketbooking.domain.ShowTime;
+import com.cinema.ticketbooking.domain.Theater;
+import com.cinema.ticketbooking.domain.User;
+import com.cinema.ticketbooking.repository.AuditoriumRepository;
+import com.cinema.ticketbooking.repository.BookingRepository;
+import com.cinema.ticketbooking.repository.FilmRepository;
+import com.cinema.ticketbooking.repository.SeatRepository;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+import com.cinema.ticketbooking.repository.UserRepository;
+import com.cinema.ticketbooking.service.TicketTokenCodec;
+import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
+import com.cinema.ticketbooking.util.constant.PaymentMethodEnum;
+import com.cinema.ticketbooking.util.constant.PaymentStatusEnum;
+import com.cinema.ticketbooking.util.constant.RoleEnum;
+import com.cinema.ticketbooking.util.id.IdBlockAllocator;
+import com.cinema.ticketbooking.util.query.QueryBudget;
+import com.cinema.ticketbooking.util.query.QueryCounter;
+import com.cinema.ticketbooking.util.query.QueryCountingConfiguration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ngân sách số câu SQL cho các endpoint đọc, chạy trên H2 với dữ liệu từ seeder.
+ * Số câu không được tăng theo số ghế/booking trả về: N+1 làm test fail.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCountingConfiguration.class)
+class EndpointQueryBudgetTest {
+    private static final int BOOKINGS = 3;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private AuditoriumRepository auditoriumRepository;
+    @Autowired private SeatRepository seatRepository;
+    @Autowired private FilmRepository filmRepository;
+    @Autowired private ShowTimeRepository showTimeRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private TicketTokenCodec ticketTokenCodec;
+    @Autowired private IdBlockAllocator idBlockAllocator;
+
+    private Long auditoriumId;
+    private Long theaterId;
+    private Long showTimeId;
+    private Long userId;
+    private Long bookingId;
+    private String userEmail;
+    private List<Long> freeSeatIds;
+
+    @BeforeEach
+    void setUp() {
+        // Lấy sẵn khối id để budget đo request ở trạng thái ổn định (một khối dùng cho 50 id)
+        idBlockAllocator.next("seat_holds");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Auditorium auditorium = auditoriumRepository.findAll().get(0);
+            auditoriumId = auditorium.getId();
+            Theater theater = auditorium.getTheater();
+            theaterId = theater.getId();
+
+            ShowTime showTime = new ShowTime();
+            showTime.setFilm(filmRepository.findAll().get(0));
+            showTime.setAuditorium(auditorium);
+            showTime.setDate(LocalDate.now().plusDays(1));
+            showTime.setStartTime(LocalTime.of(18, 0));
+            showTime.setEndTime(LocalTime.of(20, 0));
+            showTimeId = showTimeRepository.save(showTime).getId();
+
+            User user = new User();
+            user.setUsername("budget");
+            userEmail = "budget-" + UUID.randomUUID() + "@test.local";
+            user.setEmail(userEmail);
+            user.setPassword("-");
+            user.setRole(RoleEnum.CUSTOMER);
+            userId = userRepository.save(user).getId();
+
+            List<Seat> seats = seatRepository.findByAuditoriumIdFetchVariant(auditoriumId);
+            for (int i = 0; i < BOOKINGS; i++) {
+                Booking booking = new Booking();
+                booking.setUser(user);
+                booking.setStatus(BookingStatusEnum.CONFIRMED);
+                booking.setTotal_price(200000.0);
+                List<BookingItem> items = new ArrayList<>();
+                for (Seat seat : seats.subList(2 * i, 2 * i + 2)) {
+                    BookingItem item = new BookingItem();
+                    item.setBooking(booking);
+                    item.setSeat(seat);
+                    item.setShowTime(showTime);
+                    item.setPrice(100000.0);
+                    items.add(item);
+                }
+                booking.setBookingItems(items);
+                Payment payment = new Payment();
+                payment.setBooking(booking);
+                payment.setMethod(PaymentMethodEnum.VNPAY);
+                payment.setStatus(PaymentStatusEnum.PAID);
+                payment.setTransactionRef(UUID.randomUUID().toString());
+                booking.setPayments(new ArrayList<>(List.of(payment)));
+                bookingId = bookingRepository.save(booking).getId();
+            }
+            freeSeatIds = seats.subList(2 * BOOKINGS, 2 * BOOKINGS + 4).stream().map(Seat::getId).toList();
+        });
+    }
+
+    private static RequestPostProcessor admin() {
+        return jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    }
+
+    @Test
+    @QueryBudget(2)
+    void getSeatsByAuditoriumId() throws Exception {
+        mockMvc.perform(get("/api/v1/seats/auditorium/{id}", auditoriumId).with(admin()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].seatVariantName").exists());
+    }
+
+    @Test
+    @QueryBudget(2)
+    void getAuditoriumsByTheaterId() throws Exception {
+        mockMvc.perform(get("/api/v1/auditoriums/theater/{id}", theaterId).with(admin()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").exists());
+    }
+
+    // BookingDetailsLoader: booking, ghế, suất chiếu, phim; không nạp entity nào
+    @Test
+    @QueryBudget(4)
+    void getBookingById() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/{id}", bookingId).with(admin()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.seats.length()").value(2))
+                .andExpect(jsonPath("$.data.qrCodeUrl").value("/api/v1/bookings/" + bookingId + "/qr"));
+    }
+
+    // trang id rồi BookingDetailsLoader: booking, ghế, suất chiếu, phim (không phụ thuộc số booking/ghế)
+    @Test
+    @QueryBudget(5)
+    void getBookingsByUserId() throws Exception {
+        mockMvc.perform(get("/api/v1/users/{userId}/bookings", userId).with(admin()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.data.length()").value(BOOKINGS))
+                .andExpect(jsonPath("$.data.data[0].paymentId").exists())
+                .andExpect(jsonPath("$.data.data[0].film.name").exists());
+    }
+
+    // id theo bộ lọc rồi BookingDetailsLoader (không phụ thuộc số booking)
+    @Test
+    @QueryBudget(5)
+    void getAllBookings() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings").param("filter", "user.id:" + userId).with(admin()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.data.length()").value(BOOKINGS))
+                .andExpect(jsonPath("$.data.data[0].theater.name").exists());
+    }
+
+    // keyset: trang id (không COUNT dù trang đầy) rồi BookingDetailsLoader
+    @Test
+    @QueryBudget(5)
+    void getBookingsByUserId_withCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/users/{userId}/bookings", userId).param("cursor", "").param("size", "2")
+                .with(admin()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.data.length()").value(2))
+                .andExpect(jsonPath("$.data.meta.nextCursor").exists());
+    }
+
+    // keyset: id theo bộ lọc (không COUNT) rồi BookingDetailsLoader
+    @Test
+    @QueryBudget(5)
+    void getAllBookings_withCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings").param("filter", "user.id:" + userId).param("cursor", "")
+                .with(admin()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.data.length()").value(BOOKINGS))
+                .andExpect(jsonPath("$.data.meta.nextCursor").doesNotExist());
+    }
+
+    // user, showtime, nạp bản đồ ghế lần đầu (3 câu), một INSERT batch cho mọi ghế
+    @Test
+    @QueryBudget(6)
+    void createSeatHold_shouldNotQueryPerSeat() throws Exception {
+        mockMvc.perform(post("/api/v1/seat-holds")
+                .with(jwt().jwt(token -> token.subject(userEmail)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"showtimeId\":" + showTimeId + ",\"seatIds\":" + freeSeatIds + "}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @QueryBudget(5)
+    void getSeatAvailability() throws Exception {
+        mockMvc.perform(get("/api/v1/showtimes/{id}/seats", showTimeId).with(admin()))
+                .andExpect(status().isOk());
+    }
+
+    // Lần đầu tạo ảnh và lưu vào ticket_artifacts; lần sau với If-None-Match lấy etag từ LRU, không query
+    @Test
+    void getBookingQrCode_shouldRenderOnceThenAnswerNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/bookings/{id}/qr", bookingId).with(admin()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        QueryCounter.start();
+        try {
+            mockMvc.perform(get("/api/v1/bookings/{id}/qr", bookingId).header("If-None-Match", etag).with(admin()))
+                    .andExpect(status().isNotModified());
+        } finally {
+            assertEquals(0, QueryCounter.stop().size());
+        }
+    }
+
+    // Soát vé dựa vào chữ ký; chỉ vé vào cửa lần đầu ghi một INSERT ticket_admissions,
+    // vé quét lại trên cùng instance và vé sai không chạm DB
+    @Test
+    @QueryBudget(1)
+    void verifyTickets_shouldInsertOnlyFirstAdmission() throws Exception {
+        String token = ticketTokenCodec.encode(new TicketTokenCodec.Claims(bookingId, showTimeId,
+                List.of(1L, 2L), Instant.now().plusSeconds(3600)));
+        mockMvc.perform(post("/api/v1/tickets/verify/batch").with(admin())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tickets\":[{\"token\":\"" + token + "\",\"showTimeId\":" + showTimeId + "},"
+                        + "{\"token\":\"" + token + "\"},{\"token\":\"NOT-A-TICKET\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].status").value("ADMITTED"))
+                .andExpect(jsonPath("$.data[1].status").value("ALREADY_USED"))
+                .andExpect(jsonPath("$.data[2].status").value("INVALID"));
+    }
+}
@@ -3,6 +3,7 @@ package com.cinema.ticketbooking.controller;
 import com.cinema.ticketbooking.domain.SeatHold;
 import com.cinema.ticketbooking.domain.User;
 import com.cinema.ticketbooking.domain.request.ReqCreateSeatHoldDto;
+import com.cinema.ticketbooking.service.AdmissionControlService;
 import com.cinema.ticketbooking.service.SeatHoldService;
 import com.cinema.ticketbooking.service.SeatService;
 import com.cinema.ticketbooking.service.UserService;
@@ -26,6 +27,7 @@ class SeatHoldControllerTest {
     @Mock private SeatHoldService seatHoldService;
     @Mock private SeatService seatService;
     @Mock private UserService userService;
+    @Mock private AdmissionControlService admissionControlService;
 
     @InjectMocks private SeatHoldController seatHoldController;
 
@@ -43,12 +45,13 @@ class SeatHoldControllerTest {
         when(seatHoldService.createSeatHold(req)).thenReturn(createdHolds);
 
         // Act
-        ResponseEntity<Void> res = seatHoldController.createSeatHold(req);
+        ResponseEntity<Void> res = seatHoldController.createSeatHold(req, null);
 
         // Assert
         assertEquals(HttpStatus.CREATED, res.getStatusCode());
         assertNull(res.getBody());
 
+        verify(admissionControlService).requireAdmission(req.getShowtimeId(), null);
         verify(seatHoldService).createSeatHold(req);
     }
 
@@ -0,0 +1,210 @@
+package com.cinema.ticketbooking.domain;
+
+import com.cinema.ticketbooking.repository.OutboxEventRepository;
+import com.cinema.ticketbooking.service.BookingService;
+import com.cinema.ticketbooking.service.EmailDispatcher;
+import com.cinema.ticketbooking.service.EmailService;
+import com.cinema.ticketbooking.service.TicketArtifactService;
+import com.cinema.ticketbooking.util.constant.OutboxEventTypeEnum;
+import com.cinema.ticketbooking.util.constant.OutboxStatusEnum;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    @Mock private OutboxEventRepository outboxEventRepository;
+    @Mock private BookingService bookingService;
+    @Mock private TicketArtifactService ticketArtifactService;
+    @Mock private EmailService emailService;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    @InjectMocks private OutboxDispatcher outboxDispatcher;
+
+    private OutboxEvent event;
+    private Booking booking;
+
+    private TicketArtifact qr;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        event = new OutboxEvent();
+        event.setId(1L);
+        event.setType(OutboxEventTypeEnum.BOOKING_CONFIRMED);
+        event.setAggregateId(10L);
+        event.setStatus(OutboxStatusEnum.PENDING);
+        event.setNextAttemptAt(Instant.now());
+
+        User user = new User();
+        user.setEmail("a@test.com");
+        booking = new Booking();
+        booking.setId(10L);
+        booking.setUser(user);
+        booking.setTotal_price(170000.0);
+
+        qr = new TicketArtifact();
+        qr.setBookingId(10L);
+        qr.setPng(new byte[] { 1, 2, 3 });
+    }
+
+    @Test
+    void dispatch_shouldAttachStoredQrSendEmailAndKeepPending_untilDelivered() {
+        // Arrange
+        Instant now = Instant.now();
+        when(outboxEventRepository.claim(eq(1L), eq(now), any())).thenReturn(1);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(bookingService.getBookingById(10L)).thenReturn(booking);
+        when(ticketArtifactService.getOrRender(booking)).thenReturn(qr);
+
+        // Act
+        outboxDispatcher.dispatch(1L, now);
+
+        // Assert
+        verify(emailService).sendBookingConfirmationWithQR(eq(booking), eq(qr.getPng()), notNull());
+        verify(outboxEventRepository).extendLease(eq(1L),
+                argThat(until -> until.isAfter(now.plus(OutboxDispatcher.DELIVERY_LEASE).minusSeconds(1))));
+        verify(outboxEventRepository, never()).finish(any(), any(), any());
+    }
+
+    @Test
+    void dispatch_shouldMarkDone_whenDispatcherReportsSent() {
+        // Arrange
+        Instant now = Instant.now();
+        when(outboxEventRepository.claim(eq(1L), eq(now), any())).thenReturn(1);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(bookingService.getBookingById(10L)).thenReturn(booking);
+        when(ticketArtifactService.getOrRender(booking)).thenReturn(qr);
+        ArgumentCaptor<EmailDispatcher.DeliveryListener> listener =
+                ArgumentCaptor.forClass(EmailDispatcher.DeliveryListener.class);
+        outboxDispatcher.dispatch(1L, now);
+        verify(emailService).sendBookingConfirmationWithQR(eq(booking), eq(qr.getPng()), listener.capture());
+
+        // Act
+        listener.getValue().onSent();
+
+        // Assert
+        verify(outboxEventRepository).finish(1L, OutboxStatusEnum.DONE, null);
+    }
+
+    @Test
+    void dispatch_shouldMarkFailed_whenDispatcherDeadLettersEmail() {
+        // Arrange
+        Instant now = Instant.now();
+        when(outboxEventRepository.claim(eq(1L), eq(now), any())).thenReturn(1);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(bookingService.getBookingById(10L)).thenReturn(booking);
+        when(ticketArtifactService.getOrRender(booking)).thenReturn(qr);
+        ArgumentCaptor<EmailDispatcher.DeliveryListener> listener =
+                ArgumentCaptor.forClass(EmailDispatcher.DeliveryListener.class);
+        outboxDispatcher.dispatch(1L, now);
+        verify(emailService).sendBookingConfirmationWithQR(eq(booking), eq(qr.getPng()), listener.capture());
+
+        // Act
+        listener.getValue().onDeadLettered("550 mailbox unavailable");
+
+        // Assert
+        verify(outboxEventRepository).finish(eq(1L), eq(OutboxStatusEnum.FAILED),
+                argThat(error -> error.contains("550 mailbox unavailable")));
+    }
+
+    @Test
+    void dispatch_shouldMarkDone_whenBookingWasDeleted() {
+        // Arrange
+        Instant now = Instant.now();
+        when(outboxEventRepository.claim(eq(1L), eq(now), any())).thenReturn(1);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(bookingService.getBookingById(10L)).thenReturn(null);
+
+        // Act
+        outboxDispatcher.dispatch(1L, now);
+
+        // Assert
+        verifyNoInteractions(emailService);
+        verify(outboxEventRepository).finish(1L, OutboxStatusEnum.DONE, null);
+    }
+
+    @Test
+    void dispatch_shouldDoNothing_whenAnotherInstanceClaimedIt() {
+        // Arrange
+        Instant now = Instant.now();
+        when(outboxEventRepository.claim(eq(1L), eq(now), any())).thenReturn(0);
+
+        // Act
+        outboxDispatcher.dispatch(1L, now);
+
+        // Assert
+        verifyNoInteractions(bookingService, emailService);
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void dispatch_shouldScheduleRetryWithBackoff_whenEmailFails() {
+        // Arrange
+        Instant now = Instant.now();
+        when(outboxEventRepository.claim(eq(1L), eq(now), any())).thenReturn(1);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(bookingService.getBookingById(10L)).thenReturn(booking);
+        when(ticketArtifactService.getOrRender(booking)).thenReturn(qr);
+        doThrow(new RuntimeException("SMTP down")).when(emailService)
+                .sendBookingConfirmationWithQR(eq(booking), eq(qr.getPng()), any());
+
+        // Act
+        outboxDispatcher.dispatch(1L, now);
+
+        // Assert
+        assertEquals(OutboxStatusEnum.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertEquals("SMTP down", event.getLastError());
+        assertTrue(event.getNextAttemptAt().isAfter(now.plusSeconds(4)));
+    }
+
+    @Test
+    void dispatch_shouldMarkFailed_afterMaxAttempts() {
+        // Arrange
+        Instant now = Instant.now();
+        event.setAttempts(OutboxDispatcher.MAX_ATTEMPTS - 1);
+        when(outboxEventRepository.claim(eq(1L), eq(now), any())).thenReturn(1);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(bookingService.getBookingById(10L)).thenThrow(new RuntimeException("boom"));
+
+        // Act
+        outboxDispatcher.dispatch(1L, now);
+
+        // Assert
+        assertEquals(OutboxStatusEnum.FAILED, event.getStatus());
+        assertEquals(OutboxDispatcher.MAX_ATTEMPTS, event.getAttempts());
+    }
+
+    @Test
+    void backoff_shouldDoubleAndCap() {
+        assertEquals(Duration.ofSeconds(5), OutboxDispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(10), OutboxDispatcher.backoff(2));
+        assertEquals(Duration.ofSeconds(40), OutboxDispatcher.backoff(4));
+        assertEquals(OutboxDispatcher.MAX_BACKOFF, OutboxDispatcher.backoff(30));
+    }
+}
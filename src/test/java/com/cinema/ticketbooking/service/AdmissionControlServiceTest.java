@@ -0,0 +1,214 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.ShowTime;
+import com.cinema.ticketbooking.domain.response.ResAdmissionDto;
+import com.cinema.ticketbooking.repository.SeatHoldRepository;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+import com.cinema.ticketbooking.util.SecurityUtil;
+import com.cinema.ticketbooking.util.error.ApiException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlServiceTest {
+
+    private AdmissionControlService admissionControlService;
+    private SeatHoldRepository seatHoldRepository;
+    private ShowTimeRepository showTimeRepository;
+
+    @BeforeEach
+    void setUp() {
+        seatHoldRepository = mock(SeatHoldRepository.class);
+        showTimeRepository = mock(ShowTimeRepository.class);
+        when(showTimeRepository.findById(anyLong())).thenReturn(Optional.of(showTimeOn(LocalDate.now().plusDays(1))));
+        admissionControlService = new AdmissionControlService(seatHoldRepository, showTimeRepository);
+        ReflectionTestUtils.setField(admissionControlService, "enabled", true);
+        ReflectionTestUtils.setField(admissionControlService, "ratePerSecond", 0.001);
+        ReflectionTestUtils.setField(admissionControlService, "burst", 2);
+        ReflectionTestUtils.setField(admissionControlService, "ticketValidity", 600L);
+        ReflectionTestUtils.setField(admissionControlService, "secret", "test-secret");
+    }
+
+    private ResAdmissionDto joinAs(String email, Long showTimeId) {
+        try (MockedStatic<SecurityUtil> mocked = mockStatic(SecurityUtil.class)) {
+            mocked.when(SecurityUtil::getCurrentUserLogin).thenReturn(Optional.of(email));
+            return admissionControlService.join(showTimeId);
+        }
+    }
+
+    private static ShowTime showTimeOn(LocalDate date) {
+        ShowTime showTime = new ShowTime();
+        showTime.setDate(date);
+        showTime.setStartTime(LocalTime.of(19, 0));
+        showTime.setEndTime(LocalTime.of(21, 0));
+        return showTime;
+    }
+
+    private ResAdmissionDto statusAs(String email, Long showTimeId) {
+        try (MockedStatic<SecurityUtil> mocked = mockStatic(SecurityUtil.class)) {
+            mocked.when(SecurityUtil::getCurrentUserLogin).thenReturn(Optional.of(email));
+            return admissionControlService.getStatus(showTimeId);
+        }
+    }
+
+    private String claimAs(String email, Long userId, String ticket) {
+        try (MockedStatic<SecurityUtil> mocked = mockStatic(SecurityUtil.class)) {
+            mocked.when(SecurityUtil::getCurrentUserLogin).thenReturn(Optional.of(email));
+            return admissionControlService.claimForBooking(userId, ticket);
+        }
+    }
+
+    private void requireAs(String email, Long showTimeId, String ticket) {
+        try (MockedStatic<SecurityUtil> mocked = mockStatic(SecurityUtil.class)) {
+            mocked.when(SecurityUtil::getCurrentUserLogin).thenReturn(Optional.of(email));
+            admissionControlService.requireAdmission(showTimeId, ticket);
+        }
+    }
+
+    @Test
+    void join_shouldAdmitUpToBurst_thenQueueInFifoOrder() {
+        // Act
+        ResAdmissionDto a = joinAs("a@test.com", 10L);
+        ResAdmissionDto b = joinAs("b@test.com", 10L);
+        ResAdmissionDto c = joinAs("c@test.com", 10L);
+        ResAdmissionDto d = joinAs("d@test.com", 10L);
+        ResAdmissionDto dAgain = joinAs("d@test.com", 10L);
+
+        // Assert
+        assertNotNull(a.getTicket());
+        assertNotNull(b.getTicket());
+        assertNull(c.getTicket());
+        assertEquals(1, c.getPosition());
+        assertEquals(2, d.getPosition());
+        assertTrue(d.getEtaSeconds() > c.getEtaSeconds());
+        assertEquals(2, dAgain.getPosition()); // vào lại không mất chỗ
+    }
+
+    @Test
+    void requireAdmission_shouldAcceptIssuedTicket_forSameUserAndShowTime() {
+        // Arrange
+        String ticket = joinAs("a@test.com", 10L).getTicket();
+
+        // Act + Assert
+        assertDoesNotThrow(() -> requireAs("a@test.com", 10L, ticket));
+        assertDoesNotThrow(() -> requireAs("a@test.com", 10L, ticket)); // hold thêm ghế
+        assertThrows(ApiException.class, () -> requireAs("a@test.com", null, ticket));
+    }
+
+    @Test
+    void claimForBooking_shouldCheckHeldShowTime_andAllowOneBookingPerTicket() {
+        // Arrange
+        String ticket = joinAs("a@test.com", 10L).getTicket();
+        String other = joinAs("a@test.com", 11L).getTicket();
+        when(seatHoldRepository.findShowTimeIdsByUserId(1L)).thenReturn(List.of(10L));
+
+        // Act
+        String claimed = claimAs("a@test.com", 1L, ticket);
+
+        // Assert
+        assertEquals(ticket, claimed);
+        ApiException reused = assertThrows(ApiException.class, () -> claimAs("a@test.com", 1L, ticket));
+        assertEquals(HttpStatus.FORBIDDEN, reused.getStatus());
+        ApiException wrongShowTime = assertThrows(ApiException.class, () -> claimAs("a@test.com", 1L, other));
+        assertEquals(HttpStatus.FORBIDDEN, wrongShowTime.getStatus());
+
+        // Booking lỗi thì trả lại ticket
+        admissionControlService.releaseBookingClaim(claimed);
+        assertEquals(ticket, claimAs("a@test.com", 1L, ticket));
+    }
+
+    @Test
+    void getStatus_shouldReturnSameTicket_untilItIsUsed() {
+        // Arrange: phản hồi cấp ticket có thể bị mất, client hỏi lại
+        ResAdmissionDto admitted = joinAs("a@test.com", 10L);
+        when(seatHoldRepository.findShowTimeIdsByUserId(1L)).thenReturn(List.of(10L));
+
+        // Act
+        ResAdmissionDto polled = statusAs("a@test.com", 10L);
+        ResAdmissionDto rejoined = joinAs("a@test.com", 10L);
+        claimAs("a@test.com", 1L, admitted.getTicket());
+        ResAdmissionDto afterBooking = joinAs("a@test.com", 10L);
+
+        // Assert
+        assertEquals(admitted.getTicket(), polled.getTicket());
+        assertEquals(admitted.getTicketExpiresAt(), polled.getTicketExpiresAt());
+        assertEquals(admitted.getTicket(), rejoined.getTicket());
+        assertEquals(0, polled.getPosition());
+        // Ticket đã dùng thì xếp hàng lại; burst 2 còn một lượt nên được cấp ticket mới
+        assertNotNull(afterBooking.getTicket());
+        assertNotEquals(admitted.getTicket(), afterBooking.getTicket());
+    }
+
+    @Test
+    void claimForBooking_shouldReject_holdsAcrossShowTimes() {
+        // Arrange
+        String ticket = joinAs("a@test.com", 10L).getTicket();
+        when(seatHoldRepository.findShowTimeIdsByUserId(1L)).thenReturn(List.of(10L, 11L));
+
+        // Act + Assert
+        ApiException ex = assertThrows(ApiException.class, () -> claimAs("a@test.com", 1L, ticket));
+        assertEquals(HttpStatus.FORBIDDEN, ex.getStatus());
+    }
+
+    @Test
+    void join_shouldReject_pastShowTime_andEvictQueuesOnceShowTimeEnded() {
+        // Arrange
+        joinAs("a@test.com", 10L);
+        ShowTime ended = showTimeOn(LocalDate.now().minusDays(1));
+        when(showTimeRepository.findById(12L)).thenReturn(Optional.of(ended));
+
+        // Act
+        ApiException past = assertThrows(ApiException.class, () -> joinAs("a@test.com", 12L));
+        admissionControlService.evictExpired();
+        int beforeEnd = admissionControlService.queueCount();
+        admissionControlService.evictExpired(Instant.now().plus(Duration.ofDays(2)));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, past.getStatus());
+        assertEquals(1, beforeEnd);
+        assertEquals(0, admissionControlService.queueCount());
+    }
+
+    @Test
+    void requireAdmission_shouldReject_missingForgedOrForeignTickets() {
+        // Arrange
+        String ticket = joinAs("a@test.com", 10L).getTicket();
+
+        // Act + Assert
+        ApiException missing = assertThrows(ApiException.class, () -> requireAs("a@test.com", 10L, null));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, missing.getStatus());
+
+        ApiException forged = assertThrows(ApiException.class,
+                () -> requireAs("a@test.com", 10L, ticket.substring(0, ticket.length() - 2) + "xx"));
+        assertEquals(HttpStatus.FORBIDDEN, forged.getStatus());
+
+        ApiException otherUser = assertThrows(ApiException.class, () -> requireAs("b@test.com", 10L, ticket));
+        assertEquals(HttpStatus.FORBIDDEN, otherUser.getStatus());
+
+        ApiException otherShowTime = assertThrows(ApiException.class, () -> requireAs("a@test.com", 11L, ticket));
+        assertEquals(HttpStatus.FORBIDDEN, otherShowTime.getStatus());
+    }
+
+    @Test
+    void requireAdmission_shouldDoNothing_whenDisabled() {
+        // Arrange
+        ReflectionTestUtils.setField(admissionControlService, "enabled", false);
+
+        // Act + Assert
+        assertDoesNotThrow(() -> admissionControlService.requireAdmission(10L, null));
+        assertNull(admissionControlService.claimForBooking(1L, null));
+    }
+}
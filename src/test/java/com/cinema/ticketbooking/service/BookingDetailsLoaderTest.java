@@ -0,0 +1,133 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.response.ResBookingDto;
+import com.cinema.ticketbooking.repository.BookingItemRepository;
+import com.cinema.ticketbooking.repository.BookingRepository;
+import com.cinema.ticketbooking.repository.FilmRepository;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+import com.cinema.ticketbooking.repository.projection.BookingItemSeatProjection;
+import com.cinema.ticketbooking.repository.projection.BookingRowProjection;
+import com.cinema.ticketbooking.repository.projection.FilmSummaryProjection;
+import com.cinema.ticketbooking.repository.projection.ShowTimeSummaryProjection;
+import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingDetailsLoaderTest {
+
+    @Mock private BookingRepository bookingRepository;
+    @Mock private BookingItemRepository bookingItemRepository;
+    @Mock private ShowTimeRepository showTimeRepository;
+    @Mock private FilmRepository filmRepository;
+    @Spy private BookingDtoMapper bookingDtoMapper = new BookingDtoMapper();
+
+    @InjectMocks private BookingDetailsLoader bookingDetailsLoader;
+
+    @Test
+    void load_shouldAssembleDtosInRequestedOrder_withSharedShowTimeAndFilmLoadedOnce() {
+        // Arrange
+        BookingRowProjection r1 = row(1L);
+        BookingRowProjection r2 = row(2L);
+        when(bookingRepository.findRowsByIds(List.of(2L, 1L))).thenReturn(List.of(r1, r2));
+        BookingItemSeatProjection s1 = seat(1L, 11L, 9L);
+        BookingItemSeatProjection s2 = seat(1L, 12L, 9L);
+        BookingItemSeatProjection s3 = seat(2L, 13L, 9L);
+        when(bookingItemRepository.findSeatsByBookingIds(anyCollection())).thenReturn(List.of(s1, s2, s3));
+        ShowTimeSummaryProjection showtime = mock(ShowTimeSummaryProjection.class);
+        when(showtime.getId()).thenReturn(9L);
+        when(showtime.getFilmId()).thenReturn(5L);
+        when(showtime.getAuditoriumNumber()).thenReturn(3L);
+        when(showtime.getTheaterId()).thenReturn(4L);
+        when(showtime.getTheaterName()).thenReturn("CGV");
+        when(showtime.getStreetNumber()).thenReturn("12");
+        when(showtime.getStreetName()).thenReturn("Le Loi");
+        when(showtime.getCity()).thenReturn("HCM");
+        when(showTimeRepository.findSummariesByIds(Set.of(9L))).thenReturn(List.of(showtime));
+        FilmSummaryProjection film = mock(FilmSummaryProjection.class);
+        when(film.getId()).thenReturn(5L);
+        when(film.getName()).thenReturn("Dune");
+        when(filmRepository.findSummariesByIds(Set.of(5L))).thenReturn(List.of(film));
+
+        // Act
+        List<ResBookingDto> result = bookingDetailsLoader.load(List.of(2L, 1L));
+
+        // Assert
+        assertEquals(List.of(2L, 1L), result.stream().map(ResBookingDto::getId).toList());
+        ResBookingDto second = result.get(1);
+        assertEquals(2, second.getSeats().size());
+        assertEquals(100L, second.getPaymentId());
+        assertEquals("user1", second.getUser().getName());
+        assertEquals("3", second.getShowtime().getAuditoriumNumber());
+        assertEquals("Dune", second.getFilm().getName());
+        assertEquals("12 Le Loi, HCM", second.getTheater().getAddress());
+        assertSame(result.get(0).getFilm().getName(), second.getFilm().getName());
+        verify(showTimeRepository, times(1)).findSummariesByIds(any());
+        verify(filmRepository, times(1)).findSummariesByIds(any());
+    }
+
+    @Test
+    void load_shouldSkipLaterStages_whenBookingsHaveNoItems() {
+        // Arrange
+        BookingRowProjection r1 = row(1L);
+        when(bookingRepository.findRowsByIds(List.of(1L, 99L))).thenReturn(List.of(r1));
+        when(bookingItemRepository.findSeatsByBookingIds(anyCollection())).thenReturn(List.of());
+
+        // Act
+        List<ResBookingDto> result = bookingDetailsLoader.load(List.of(1L, 99L));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getSeats());
+        verifyNoInteractions(showTimeRepository, filmRepository);
+    }
+
+    @Test
+    void load_shouldReturnNull_whenSingleBookingNotFound() {
+        // Arrange
+        when(bookingRepository.findRowsByIds(List.of(99L))).thenReturn(List.of());
+
+        // Act & Assert
+        assertNull(bookingDetailsLoader.load(99L));
+        verifyNoInteractions(bookingItemRepository, showTimeRepository, filmRepository);
+    }
+
+    @Test
+    void load_shouldNotQuery_whenIdsEmpty() {
+        assertTrue(bookingDetailsLoader.load(List.of()).isEmpty());
+        verifyNoInteractions(bookingRepository, bookingItemRepository, showTimeRepository, filmRepository);
+    }
+
+    private static BookingRowProjection row(Long id) {
+        BookingRowProjection row = mock(BookingRowProjection.class);
+        when(row.getId()).thenReturn(id);
+        lenient().when(row.getStatus()).thenReturn(BookingStatusEnum.CONFIRMED);
+        lenient().when(row.getUserId()).thenReturn(id);
+        lenient().when(row.getUserName()).thenReturn("user" + id);
+        lenient().when(row.getPaymentId()).thenReturn(100L * id);
+        return row;
+    }
+
+    private static BookingItemSeatProjection seat(Long bookingId, Long seatId, Long showTimeId) {
+        BookingItemSeatProjection seat = mock(BookingItemSeatProjection.class);
+        when(seat.getBookingId()).thenReturn(bookingId);
+        lenient().when(seat.getSeatId()).thenReturn(seatId);
+        lenient().when(seat.getSeatRow()).thenReturn("A");
+        lenient().when(seat.getNumber()).thenReturn(seatId.intValue());
+        lenient().when(seat.getPrice()).thenReturn(85000.0);
+        lenient().when(seat.getShowTimeId()).thenReturn(showTimeId);
+        return seat;
+    }
+}
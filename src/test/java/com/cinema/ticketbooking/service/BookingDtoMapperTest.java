@@ -0,0 +1,72 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.response.ResBookingDto;
+import com.cinema.ticketbooking.repository.projection.BookingItemSeatProjection;
+import com.cinema.ticketbooking.repository.projection.BookingRowProjection;
+import com.cinema.ticketbooking.repository.projection.ShowTimeSummaryProjection;
+import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingDtoMapperTest {
+
+    private final SpelAwareProxyProjectionFactory factory = new SpelAwareProxyProjectionFactory();
+    private final BookingDtoMapper bookingDtoMapper = new BookingDtoMapper();
+
+    @Test
+    void toDto_shouldMapRowOnly_whenBookingHasNoSeats() {
+        // Arrange
+        BookingRowProjection row = row();
+
+        // Act
+        ResBookingDto dto = bookingDtoMapper.toDto(row, List.of(), null, null);
+
+        // Assert
+        assertEquals(1L, dto.getId());
+        assertEquals(BookingStatusEnum.PENDING, dto.getStatus());
+        assertEquals("customer", dto.getUser().getName());
+        assertEquals(7L, dto.getPaymentId());
+        assertNull(dto.getSeats());
+        assertNull(dto.getShowtime());
+    }
+
+    @Test
+    void toDto_shouldLeaveAddressNull_whenTheaterHasNoAddress() {
+        // Arrange
+        BookingItemSeatProjection seat = factory.createProjection(BookingItemSeatProjection.class, Map.of(
+                "bookingId", 1L, "seatId", 3L, "seatRow", "B", "number", 4, "price", 90000.0, "showTimeId", 2L));
+        Map<String, Object> showtimeValues = new HashMap<>();
+        showtimeValues.put("id", 2L);
+        showtimeValues.put("theaterId", 5L);
+        showtimeValues.put("theaterName", "CGV");
+        ShowTimeSummaryProjection showtime = factory.createProjection(ShowTimeSummaryProjection.class, showtimeValues);
+
+        // Act
+        ResBookingDto dto = bookingDtoMapper.toDto(row(), List.of(seat), showtime, null);
+
+        // Assert
+        assertEquals("B", dto.getSeats().get(0).getSeatRow());
+        assertNull(dto.getShowtime().getAuditoriumNumber());
+        assertNull(dto.getFilm());
+        assertEquals("CGV", dto.getTheater().getName());
+        assertNull(dto.getTheater().getAddress());
+    }
+
+    private BookingRowProjection row() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", 1L);
+        values.put("status", BookingStatusEnum.PENDING);
+        values.put("totalPrice", 90000.0);
+        values.put("userId", 2L);
+        values.put("userName", "customer");
+        values.put("paymentId", 7L);
+        return factory.createProjection(BookingRowProjection.class, values);
+    }
+}
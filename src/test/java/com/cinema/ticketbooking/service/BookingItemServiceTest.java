@@ -3,7 +3,11 @@ package com.cinema.ticketbooking.service;
 import com.cinema.ticketbooking.domain.*;
 import com.cinema.ticketbooking.repository.BookingItemRepository;
 import com.cinema.ticketbooking.repository.SeatHoldRepository;
+import com.cinema.ticketbooking.repository.SeatRepository;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+import com.cinema.ticketbooking.repository.projection.SeatHoldPricingProjection;
 import com.cinema.ticketbooking.util.error.NoResourceException;
+import com.cinema.ticketbooking.util.error.UnavailableResourceException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -22,21 +26,41 @@ class BookingItemServiceTest {
     private BookingItemRepository bookingItemRepository;
 
     @Mock
-    private SeatHoldService seatHoldService;
+    private SeatRepository seatRepository;
+
+    @Mock
+    private ShowTimeRepository showTimeRepository;
 
     @Mock
     private SeatHoldRepository seatHoldRepository;
 
+    @Mock
+    private SeatStateIndex seatStateIndex;
+
+    @Mock
+    private PricingService pricingService;
+
+    @Mock
+    private BookingMetrics bookingMetrics;
+
     @InjectMocks
     private BookingItemService bookingItemService;
 
+    private static SeatHoldPricingProjection hold(Long id, Long seatId, Long showTimeId) {
+        SeatHoldPricingProjection hold = mock(SeatHoldPricingProjection.class);
+        when(hold.getId()).thenReturn(id);
+        when(hold.getSeatId()).thenReturn(seatId);
+        when(hold.getShowTimeId()).thenReturn(showTimeId);
+        return hold;
+    }
+
     @Test
     void createListItem_shouldThrowException_whenSeatHoldListIsEmpty() {
         // Arrange
         Long userId = 1L;
         Booking booking = new Booking();
 
-        when(seatHoldService.getSeatHoldByUserId(userId))
+        when(seatHoldRepository.findPricingByUserId(userId))
                 .thenReturn(List.of());
 
         // Act & Assert
@@ -45,7 +69,8 @@ class BookingItemServiceTest {
                 () -> bookingItemService.createListItem(userId, booking)
         );
 
-        verify(bookingItemRepository, never()).save(any());
+        verifyNoInteractions(bookingItemRepository);
+        verify(seatHoldRepository, never()).deleteByIdIn(anyList());
     }
 
     @Test
@@ -54,38 +79,55 @@ class BookingItemServiceTest {
         Long userId = 1L;
         Booking booking = new Booking();
 
-        // Create Film with price
-        Film film = new Film();
-        film.setPrice(50L);
-
-        // Create ShowTime with Film
-        ShowTime showTime = new ShowTime();
-        showTime.setFilm(film);
-
-        SeatVariant seatVariant = new SeatVariant();
-        seatVariant.setBasePrice(100.0);
-        seatVariant.setBonus(20.0);
-
         Seat seat = new Seat();
-        seat.setSeatVariant(seatVariant);
-
-        SeatHold seatHold = new SeatHold();
-        seatHold.setSeat(seat);
-        seatHold.setShowTime(showTime);
-
-        when(seatHoldService.getSeatHoldByUserId(userId))
-                .thenReturn(List.of(seatHold));
+        seat.setId(100L);
+        ShowTime showTime = new ShowTime();
+        showTime.setId(10L);
 
-        when(bookingItemRepository.save(any(BookingItem.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        List<SeatHoldPricingProjection> holds = List.of(hold(5L, 100L, 10L));
+        when(seatHoldRepository.findPricingByUserId(userId)).thenReturn(holds);
+        // basePrice(100) + bonus(20) + filmPrice(50)
+        when(pricingService.priceHolds(holds)).thenReturn(new double[] { 170.0 });
+        when(seatRepository.getReferenceById(100L)).thenReturn(seat);
+        when(showTimeRepository.getReferenceById(10L)).thenReturn(showTime);
+        when(seatHoldRepository.deleteByIdIn(List.of(5L))).thenReturn(1);
 
         // Act
         Double totalPrice = bookingItemService.createListItem(userId, booking);
 
         // Assert
-        // Total = basePrice(100) + bonus(20) + filmPrice(50) = 170
         assertEquals(170.0, totalPrice);
-        verify(bookingItemRepository, times(1)).save(any(BookingItem.class));
-        verify(seatHoldRepository).deleteAll(anyList());
+        // Item được gắn vào booking, lưu cùng booking qua cascade
+        assertEquals(1, booking.getBookingItems().size());
+        BookingItem item = booking.getBookingItems().get(0);
+        assertSame(booking, item.getBooking());
+        assertSame(seat, item.getSeat());
+        assertSame(showTime, item.getShowTime());
+        assertEquals(170.0, item.getPrice());
+        verifyNoInteractions(bookingItemRepository);
+        verify(seatHoldRepository).deleteByIdIn(List.of(5L));
+        verify(seatStateIndex).markBooked(10L, List.of(100L));
+    }
+
+    @Test
+    void createListItem_shouldThrow_whenHoldsWereDeletedByConcurrentBooking() {
+        // Arrange
+        Long userId = 1L;
+        Booking booking = new Booking();
+
+        List<SeatHoldPricingProjection> holds = List.of(hold(5L, 100L, 10L), hold(6L, 101L, 10L));
+        when(seatHoldRepository.findPricingByUserId(userId)).thenReturn(holds);
+        when(pricingService.priceHolds(holds)).thenReturn(new double[] { 170.0, 170.0 });
+        // Request khác đã chuyển hold 6 thành booking
+        when(seatHoldRepository.deleteByIdIn(List.of(5L, 6L))).thenReturn(1);
+
+        // Act & Assert
+        assertThrows(
+                UnavailableResourceException.class,
+                () -> bookingItemService.createListItem(userId, booking)
+        );
+
+        verifyNoInteractions(seatStateIndex);
+        verify(bookingMetrics, never()).recordHoldsConverted(anyInt());
     }
 }
@@ -0,0 +1,108 @@
+package com.cinema.ticketbooking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private BookingMetrics bookingMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        bookingMetrics = new BookingMetrics(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void recordHoldAttempt_shouldCountOutcomePerShowTime_andSeatsOnlyWhenHeld() {
+        // Act
+        bookingMetrics.recordHoldAttempt(10L, 2, false);
+        bookingMetrics.recordHoldAttempt(10L, 3, true);
+        bookingMetrics.recordHoldAttempt(11L, 1, true);
+
+        // Assert
+        assertEquals(1.0, registry.get("seat_hold.attempts").tags("showtime", "10", "outcome", "held").counter().count());
+        assertEquals(1.0, registry.get("seat_hold.attempts").tags("showtime", "10", "outcome", "conflict").counter().count());
+        assertEquals(1.0, registry.get("seat_hold.attempts").tags("showtime", "11", "outcome", "conflict").counter().count());
+        assertEquals(2.0, registry.get("seat_hold.created").tags("showtime", "10").counter().count());
+    }
+
+    @Test
+    void recordHoldAttempt_shouldKeepMetersOnlyForRecentShowTimes() {
+        // Act
+        for (long showTimeId = 1; showTimeId <= BookingMetrics.MAX_SHOWTIMES; showTimeId++) {
+            bookingMetrics.recordHoldAttempt(showTimeId, 1, false);
+        }
+        bookingMetrics.recordHoldAttempt(1L, 1, true); // showtime 1 vừa được dùng lại
+        bookingMetrics.recordHoldAttempt(BookingMetrics.MAX_SHOWTIMES + 1L, 1, false);
+
+        // Assert: showtime dùng lâu nhất (2) bị bỏ, số series giữ nguyên giới hạn
+        assertTrue(registry.find("seat_hold.attempts").tag("showtime", "2").meters().isEmpty());
+        assertTrue(registry.find("seat_hold.created").tag("showtime", "2").meters().isEmpty());
+        assertEquals(2, registry.get("seat_hold.attempts").tag("showtime", "1").meters().size());
+        assertEquals(BookingMetrics.MAX_SHOWTIMES, registry.find("seat_hold.created").meters().size());
+    }
+
+    @Test
+    void removeShowTime_shouldDropItsMeters() {
+        // Arrange
+        bookingMetrics.recordHoldAttempt(10L, 2, false);
+        bookingMetrics.recordHoldAttempt(11L, 1, false);
+
+        // Act
+        bookingMetrics.removeShowTime(10L);
+
+        // Assert
+        assertTrue(registry.find("seat_hold.attempts").tag("showtime", "10").meters().isEmpty());
+        assertTrue(registry.find("seat_hold.created").tag("showtime", "10").meters().isEmpty());
+        assertEquals(1.0, registry.get("seat_hold.created").tag("showtime", "11").counter().count());
+    }
+
+    @Test
+    void recordHoldsConverted_shouldWaitForCommit_whenInTransaction() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        bookingMetrics.recordHoldsConverted(2);
+
+        // Assert
+        assertEquals(0.0, registry.get("seat_hold.converted").counter().count());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(2.0, registry.get("seat_hold.converted").counter().count());
+    }
+
+    @Test
+    void recordCallback_andEmail_shouldTagTimersByOutcome() {
+        // Act
+        bookingMetrics.recordCallback("paid", TimeUnit.MILLISECONDS.toNanos(30));
+        bookingMetrics.recordCallback("duplicate", TimeUnit.MILLISECONDS.toNanos(1));
+        bookingMetrics.recordEmail("booking_confirmation", false, TimeUnit.SECONDS.toNanos(2));
+
+        // Assert
+        assertEquals(30.0, registry.get("payment.callback").tag("outcome", "paid").timer()
+                .totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, registry.get("payment.callback").tag("outcome", "duplicate").timer().count());
+        assertEquals(1, registry.get("email.send").tags("type", "booking_confirmation", "outcome", "failed")
+                .timer().count());
+    }
+}
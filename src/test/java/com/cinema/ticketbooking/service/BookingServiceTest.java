@@ -3,18 +3,31 @@ package com.cinema.ticketbooking.service;
 import com.cinema.ticketbooking.domain.Booking;
 import com.cinema.ticketbooking.domain.Payment;
 import com.cinema.ticketbooking.domain.User;
+import com.cinema.ticketbooking.domain.response.ResBookingDto;
 import com.cinema.ticketbooking.domain.response.ResCreateBookingDto;
+import com.cinema.ticketbooking.domain.response.ResultPaginationDto;
 import com.cinema.ticketbooking.repository.BookingRepository;
 import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
 import com.cinema.ticketbooking.util.constant.PaymentMethodEnum;
 import com.cinema.ticketbooking.util.constant.PaymentStatusEnum;
+import com.cinema.ticketbooking.util.error.BadRequestException;
+import com.cinema.ticketbooking.util.error.NoResourceException;
+import com.cinema.ticketbooking.util.pagination.KeysetCursor;
 import org.junit.jupiter.api.Test;
 
 import java.io.UnsupportedEncodingException;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -37,9 +50,34 @@ class BookingServiceTest {
     @Mock
     private VNPayService vnPayService;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BookingMetrics bookingMetrics;
+
+    @Mock
+    private BookingDetailsLoader bookingDetailsLoader;
+
+    @Mock
+    private TicketArtifactService ticketArtifactService;
+
     @InjectMocks
     private BookingService bookingService;
 
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private void stubSaveAssigningId(Long bookingId) {
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(bookingId);
+            return booking;
+        });
+    }
+
     @Test
     void createBooking_shouldCreateBookingWithPayment_whenValidRequest_Cash() {
         // Arrange
@@ -51,18 +89,14 @@ class BookingServiceTest {
         user.setId(userId);
         user.setUsername("TestUser");
 
-        Booking savedBooking = new Booking();
-        savedBooking.setId(10L);
-        savedBooking.setStatus(BookingStatusEnum.PENDING);
-        savedBooking.setUser(user);
-
         Payment payment = new Payment();
         payment.setId(100L);
 
+        runTransactionsInline();
+        stubSaveAssigningId(10L);
         when(userService.getUserById(userId)).thenReturn(user);
-        when(bookingRepository.save(any(Booking.class))).thenReturn(savedBooking);
-        when(bookingItemService.createListItem(userId, savedBooking)).thenReturn(200000.0);
-        when(paymentService.createPayment(any(Booking.class), eq(paymentMethod))).thenReturn(payment);
+        when(bookingItemService.createListItem(eq(userId), any(Booking.class))).thenReturn(200000.0);
+        when(paymentService.buildPayment(any(Booking.class), eq(paymentMethod))).thenReturn(payment);
 
         // Act
         ResCreateBookingDto result = bookingService.createBooking(userId, paymentMethod, ipAddress);
@@ -75,10 +109,14 @@ class BookingServiceTest {
         assertEquals(100L, result.getPaymentId());
         assertNull(result.getPaymentUrl()); // CASH không có payment URL
 
-        verify(userService).getUserById(userId);
-        verify(bookingRepository, times(2)).save(any(Booking.class));
-        verify(bookingItemService).createListItem(userId, savedBooking);
-        verify(paymentService).createPayment(any(Booking.class), eq(paymentMethod));
+        // Booking được lưu một lần, item và payment đi theo qua cascade
+        ArgumentCaptor<Booking> captor = ArgumentCaptor.forClass(Booking.class);
+        verify(transactionTemplate).execute(any());
+        verify(bookingRepository, times(1)).save(captor.capture());
+        assertEquals(BookingStatusEnum.PENDING, captor.getValue().getStatus());
+        assertEquals(200000.0, captor.getValue().getTotal_price());
+        assertEquals(List.of(payment), captor.getValue().getPayments());
+        verify(paymentService, never()).createPayment(any(), any());
     }
 
     @Test
@@ -92,19 +130,16 @@ class BookingServiceTest {
         user.setId(userId);
         user.setUsername("TestUser");
 
-        Booking savedBooking = new Booking();
-        savedBooking.setId(10L);
-        savedBooking.setStatus(BookingStatusEnum.PENDING);
-        savedBooking.setUser(user);
-
         Payment payment = new Payment();
         payment.setId(100L);
+        payment.setTransactionRef("txn-ref");
 
+        runTransactionsInline();
+        stubSaveAssigningId(10L);
         when(userService.getUserById(userId)).thenReturn(user);
-        when(bookingRepository.save(any(Booking.class))).thenReturn(savedBooking);
-        when(bookingItemService.createListItem(userId, savedBooking)).thenReturn(200000.0);
-        when(paymentService.createPayment(any(Booking.class), eq(paymentMethod))).thenReturn(payment);
-        when(vnPayService.createPaymentUrl(eq(100L), eq(200000.0), anyString(), eq(ipAddress)))
+        when(bookingItemService.createListItem(eq(userId), any(Booking.class))).thenReturn(200000.0);
+        when(paymentService.buildPayment(any(Booking.class), eq(paymentMethod))).thenReturn(payment);
+        when(vnPayService.buildPaymentUrl(eq("txn-ref"), eq(200000.0), anyString(), eq(ipAddress)))
                 .thenReturn("http://vnpay.test/payment");
 
         // Act
@@ -118,7 +153,23 @@ class BookingServiceTest {
         assertEquals(100L, result.getPaymentId());
         assertEquals("http://vnpay.test/payment", result.getPaymentUrl());
 
-        verify(vnPayService).createPaymentUrl(eq(100L), eq(200000.0), anyString(), eq(ipAddress));
+        verify(vnPayService).buildPaymentUrl(eq("txn-ref"), eq(200000.0), eq("Thanh toan ve xem phim #10"),
+                eq(ipAddress));
+    }
+
+    @Test
+    void createBooking_shouldNotBuildPaymentUrl_whenTransactionFails() throws UnsupportedEncodingException {
+        // Arrange
+        runTransactionsInline();
+        when(userService.getUserById(1L)).thenReturn(new User());
+        when(bookingItemService.createListItem(eq(1L), any(Booking.class)))
+                .thenThrow(new NoResourceException("no holds"));
+
+        // Act & Assert
+        assertThrows(NoResourceException.class,
+                () -> bookingService.createBooking(1L, PaymentMethodEnum.VNPAY, "127.0.0.1"));
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(vnPayService, never()).buildPaymentUrl(any(), any(), any(), any());
     }
 
     @Test
@@ -152,12 +203,14 @@ class BookingServiceTest {
     }
 
     @Test
-    void deleteBooking_shouldCallRepositoryDeleteById() {
+    void deleteBooking_shouldRevokeTicketThenDeleteBooking() {
         // Act
         bookingService.deleteBooking(5L);
 
         // Assert
-        verify(bookingRepository).deleteById(5L);
+        InOrder inOrder = inOrder(ticketArtifactService, bookingRepository);
+        inOrder.verify(ticketArtifactService).revoke(5L);
+        inOrder.verify(bookingRepository).deleteById(5L);
     }
 
     @Test
@@ -188,6 +241,25 @@ class BookingServiceTest {
         assertEquals(BookingStatusEnum.CONFIRMED, result.getStatus());
         verify(paymentService).getPaymentsByBookingId(bookingId);
         verify(paymentService, times(2)).savePayment(any(Payment.class));
+        verify(ticketArtifactService).reinstate(bookingId);
+    }
+
+    @Test
+    void updateBookingStatus_shouldRevokeTicket_whenConfirmedBookingIsCancelled() {
+        // Arrange
+        Long bookingId = 1L;
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setStatus(BookingStatusEnum.CONFIRMED);
+
+        when(bookingRepository.findById(bookingId)).thenReturn(java.util.Optional.of(booking));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+        // Act
+        bookingService.updateBookingStatus(bookingId, BookingStatusEnum.CANCELLED);
+
+        // Assert
+        verify(ticketArtifactService).revoke(bookingId);
     }
 
     @Test
@@ -209,6 +281,7 @@ class BookingServiceTest {
         assertEquals(BookingStatusEnum.CANCELLED, result.getStatus());
         verify(paymentService, never()).getPaymentsByBookingId(anyLong());
         verify(paymentService, never()).savePayment(any(Payment.class));
+        verifyNoInteractions(ticketArtifactService);
     }
 
     @Test
@@ -222,4 +295,57 @@ class BookingServiceTest {
             bookingService.updateBookingStatus(bookingId, BookingStatusEnum.CONFIRMED);
         });
     }
+
+    @Test
+    void getBookingsByUserIdAfter_shouldReturnNextCursor_whenMoreRowsThanPageSize() {
+        // Arrange
+        Instant t = Instant.parse("2026-01-01T10:00:00Z");
+        ResBookingDto b3 = keysetBooking(3L, t.plusSeconds(2));
+        ResBookingDto b2 = keysetBooking(2L, t.plusSeconds(1));
+        ResBookingDto b1 = keysetBooking(1L, t);
+        when(bookingRepository.findFirstIdsByUserId(7L, Limit.of(3))).thenReturn(List.of(3L, 2L, 1L));
+        when(bookingDetailsLoader.load(List.of(3L, 2L, 1L))).thenReturn(List.of(b3, b2, b1));
+
+        // Act
+        ResultPaginationDto result = bookingService.getBookingsByUserIdAfter(7L, "", 2, false);
+
+        // Assert
+        assertEquals(2, ((List<?>) result.getData()).size());
+        assertEquals(new KeysetCursor(b2.getCreatedAt(), 2L), KeysetCursor.decode(result.getMeta().getNextCursor()));
+        assertEquals(-1, result.getMeta().getTotalItems());
+        verify(bookingRepository, never()).countByUserId(anyLong());
+    }
+
+    @Test
+    void getBookingsByUserIdAfter_shouldSeekPastCursorAndCount_whenWithTotal() {
+        // Arrange
+        Instant t = Instant.parse("2026-01-01T10:00:00Z");
+        String cursor = new KeysetCursor(t, 5L).encode();
+        ResBookingDto b4 = keysetBooking(4L, t);
+        when(bookingRepository.findIdsByUserIdBefore(7L, t, 5L, Limit.of(3))).thenReturn(List.of(4L));
+        when(bookingDetailsLoader.load(List.of(4L))).thenReturn(List.of(b4));
+        when(bookingRepository.countByUserId(7L)).thenReturn(5L);
+
+        // Act
+        ResultPaginationDto result = bookingService.getBookingsByUserIdAfter(7L, cursor, 2, true);
+
+        // Assert
+        assertEquals(1, ((List<?>) result.getData()).size());
+        assertNull(result.getMeta().getNextCursor());
+        assertEquals(5, result.getMeta().getTotalItems());
+        assertEquals(3, result.getMeta().getTotalPages());
+    }
+
+    @Test
+    void getBookingsByUserIdAfter_shouldThrowBadRequest_whenCursorInvalid() {
+        assertThrows(BadRequestException.class, () -> bookingService.getBookingsByUserIdAfter(7L, "###", 2, false));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private static ResBookingDto keysetBooking(Long id, Instant createdAt) {
+        ResBookingDto booking = new ResBookingDto();
+        booking.setId(id);
+        booking.setCreatedAt(createdAt);
+        return booking;
+    }
 }
@@ -0,0 +1,226 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.EmailDeadLetter;
+import com.cinema.ticketbooking.repository.EmailDeadLetterRepository;
+import com.cinema.ticketbooking.util.error.ApiException;
+import com.cinema.ticketbooking.util.mail.FakeSmtpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class EmailDispatcherTest {
+
+    private FakeSmtpServer smtp;
+    private JavaMailSenderImpl mailSender;
+    private EmailDeadLetterRepository emailDeadLetterRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private EmailDispatcher emailDispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new FakeSmtpServer();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.port());
+        emailDeadLetterRepository = mock(EmailDeadLetterRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        emailDispatcher = new EmailDispatcher(mailSender, emailDeadLetterRepository, new BookingMetrics(meterRegistry));
+        ReflectionTestUtils.setField(emailDispatcher, "workers", 2);
+        ReflectionTestUtils.setField(emailDispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(emailDispatcher, "batchSize", 20);
+        ReflectionTestUtils.setField(emailDispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(emailDispatcher, "retryBackoffMs", 20L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        emailDispatcher.shutdown();
+        smtp.close();
+    }
+
+    private MimeMessage message(String to) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom("noreply@ticketbooking.com");
+        helper.setTo(to);
+        helper.setSubject("Subject " + to);
+        helper.setText("Hello " + to);
+        return message;
+    }
+
+    private void awaitMessages(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (smtp.messages().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, smtp.messages().size());
+    }
+
+    @Test
+    void sendBatch_shouldDeliverWholeBatchInOneSmtpSession() throws Exception {
+        // Arrange
+        emailDispatcher.start();
+        List<EmailDispatcher.Envelope> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(new EmailDispatcher.Envelope("otp", message("user" + i + "@test.com")));
+        }
+
+        // Act
+        emailDispatcher.sendBatch(batch);
+
+        // Assert
+        assertEquals(10, smtp.messages().size());
+        assertEquals(1, smtp.sessions());
+        assertEquals(10, meterRegistry.timer("email.send", "type", "otp", "outcome", "sent").count());
+    }
+
+    @Test
+    void enqueue_shouldReturnBeforeDelivery_andWorkersSendInBackground() throws Exception {
+        // Arrange
+        emailDispatcher.start();
+        List<MimeMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            messages.add(message("user" + i + "@test.com"));
+        }
+
+        // Act
+        messages.forEach(message -> emailDispatcher.enqueue("otp", message));
+
+        // Assert
+        awaitMessages(30);
+        assertTrue(smtp.sessions() < 30, "sessions " + smtp.sessions());
+        verifyNoInteractions(emailDeadLetterRepository);
+    }
+
+    @Test
+    void enqueue_shouldRetryWithBackoff_whenServerRejectsTemporarily() throws Exception {
+        // Arrange
+        emailDispatcher.start();
+        smtp.rejectNext(1);
+
+        // Act
+        emailDispatcher.enqueue("booking_confirmation", message("a@test.com"));
+
+        // Assert
+        awaitMessages(1);
+        assertEquals(1, meterRegistry.timer("email.send", "type", "booking_confirmation", "outcome", "failed").count());
+        assertEquals(1, meterRegistry.timer("email.send", "type", "booking_confirmation", "outcome", "sent").count());
+        verifyNoInteractions(emailDeadLetterRepository);
+    }
+
+    @Test
+    void enqueue_shouldStoreDeadLetter_afterMaxAttempts() throws Exception {
+        // Arrange
+        emailDispatcher.start();
+        smtp.rejectNext(-1);
+
+        // Act
+        emailDispatcher.enqueue("otp", message("a@test.com"));
+
+        // Assert
+        verify(emailDeadLetterRepository, timeout(10000)).save(argThat((EmailDeadLetter d) ->
+                d.getAttempts() == 3
+                        && "a@test.com".equals(d.getRecipient())
+                        && "Subject a@test.com".equals(d.getSubject())
+                        && new String(d.getMime()).contains("Hello a@test.com")
+                        && d.getLastError() != null));
+        assertTrue(smtp.messages().isEmpty());
+    }
+
+    @Test
+    void enqueue_shouldRejectWithServiceUnavailable_whenQueueIsFull() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(emailDispatcher, "workers", 0);
+        ReflectionTestUtils.setField(emailDispatcher, "queueCapacity", 1);
+        emailDispatcher.start();
+        emailDispatcher.enqueue("otp", message("a@test.com"));
+
+        // Act & Assert
+        MimeMessage second = message("b@test.com");
+        ApiException ex = assertThrows(ApiException.class, () -> emailDispatcher.enqueue("otp", second));
+        assertEquals(503, ex.getStatus().value());
+    }
+
+    @Test
+    void shutdown_shouldDeadLetterMessagesStillQueued() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(emailDispatcher, "workers", 0);
+        emailDispatcher.start();
+        emailDispatcher.enqueue("otp", message("a@test.com"));
+
+        // Act
+        emailDispatcher.shutdown();
+
+        // Assert
+        verify(emailDeadLetterRepository).save(argThat((EmailDeadLetter d) -> d.getAttempts() == 0));
+        assertEquals(0, emailDispatcher.queued());
+    }
+
+    @Test
+    void enqueue_shouldNotifyListener_whenSent() throws Exception {
+        // Arrange
+        emailDispatcher.start();
+        EmailDispatcher.DeliveryListener listener = mock(EmailDispatcher.DeliveryListener.class);
+
+        // Act
+        emailDispatcher.enqueue("booking_confirmation", message("a@test.com"), listener);
+
+        // Assert
+        verify(listener, timeout(10000)).onSent();
+        verify(listener, never()).onDeadLettered(any());
+    }
+
+    @Test
+    void enqueue_shouldNotifyListener_afterDeadLetterIsStored() throws Exception {
+        // Arrange
+        emailDispatcher.start();
+        smtp.rejectNext(-1);
+        EmailDispatcher.DeliveryListener listener = mock(EmailDispatcher.DeliveryListener.class);
+
+        // Act
+        emailDispatcher.enqueue("booking_confirmation", message("a@test.com"), listener);
+
+        // Assert
+        verify(listener, timeout(10000)).onDeadLettered(notNull());
+        verify(emailDeadLetterRepository).save(any());
+        verify(listener, never()).onSent();
+    }
+
+    @Test
+    void shutdown_shouldLeaveListenerBackedMessagesToTheirSource() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(emailDispatcher, "workers", 0);
+        emailDispatcher.start();
+        EmailDispatcher.DeliveryListener listener = mock(EmailDispatcher.DeliveryListener.class);
+        emailDispatcher.enqueue("booking_confirmation", message("a@test.com"), listener);
+
+        // Act
+        emailDispatcher.shutdown();
+
+        // Assert
+        verifyNoInteractions(emailDeadLetterRepository, listener);
+        assertEquals(0, emailDispatcher.queued());
+    }
+
+    @Test
+    void backoff_shouldDoubleAndCap() {
+        emailDispatcher.start();
+        assertEquals(Duration.ofMillis(20), emailDispatcher.backoff(1));
+        assertEquals(Duration.ofMillis(80), emailDispatcher.backoff(3));
+        assertEquals(EmailDispatcher.MAX_BACKOFF, emailDispatcher.backoff(40));
+    }
+}
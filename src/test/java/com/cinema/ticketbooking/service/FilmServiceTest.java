@@ -34,6 +34,9 @@ class FilmServiceTest {
         @Mock
         private FilmRepository filmRepository;
 
+        @Mock
+        private PricingService pricingService;
+
         @InjectMocks
         private FilmService filmService;
 
@@ -133,6 +136,7 @@ class FilmServiceTest {
                 assertNotNull(result);
                 assertEquals("New Name", result.getName());
                 verify(filmRepository).save(film);
+                verify(pricingService).evictFilm(film.getId());
         }
 
         @Test
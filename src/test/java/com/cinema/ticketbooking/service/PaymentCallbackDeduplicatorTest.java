@@ -0,0 +1,92 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.ProcessedPaymentCallback;
+import com.cinema.ticketbooking.repository.ProcessedPaymentCallbackRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentCallbackDeduplicatorTest {
+
+    @Mock private ProcessedPaymentCallbackRepository processedPaymentCallbackRepository;
+
+    @InjectMocks private PaymentCallbackDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(deduplicator, "cacheSize", 2);
+    }
+
+    private void completeOutsideTransaction(String key, String redirectUrl) {
+        ProcessedPaymentCallback record = new ProcessedPaymentCallback();
+        record.setCallbackKey(key);
+        deduplicator.complete(record, redirectUrl);
+    }
+
+    @Test
+    void findProcessed_shouldAnswerFromMemory_withoutQueryingDatabase() {
+        // Arrange
+        completeOutsideTransaction("ref-1:123", "http://ok?paymentId=1");
+
+        // Act
+        String redirectUrl = deduplicator.findProcessed("ref-1:123");
+
+        // Assert
+        assertEquals("http://ok?paymentId=1", redirectUrl);
+        verify(processedPaymentCallbackRepository, never()).findRedirectUrlByCallbackKey(any());
+    }
+
+    @Test
+    void findProcessed_shouldFallBackToDatabase_andCacheTheResult() {
+        // Arrange
+        when(processedPaymentCallbackRepository.findRedirectUrlByCallbackKey("ref-1:123"))
+                .thenReturn(Optional.of("http://ok?paymentId=1"));
+
+        // Act
+        String first = deduplicator.findProcessed("ref-1:123");
+        String second = deduplicator.findProcessed("ref-1:123");
+
+        // Assert
+        assertEquals("http://ok?paymentId=1", first);
+        assertEquals(first, second);
+        verify(processedPaymentCallbackRepository, times(1)).findRedirectUrlByCallbackKey("ref-1:123");
+    }
+
+    @Test
+    void findProcessed_shouldReturnNull_whenCallbackIsNew() {
+        // Arrange
+        when(processedPaymentCallbackRepository.findRedirectUrlByCallbackKey("ref-2:")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertNull(deduplicator.findProcessed(PaymentCallbackDeduplicator.callbackKey("ref-2", null)));
+    }
+
+    @Test
+    void cache_shouldEvictLeastRecentlyUsed_whenFull() {
+        // Arrange
+        completeOutsideTransaction("a:1", "url-a");
+        completeOutsideTransaction("b:1", "url-b");
+        deduplicator.findProcessed("a:1"); // a mới được dùng, b cũ nhất
+        completeOutsideTransaction("c:1", "url-c");
+        when(processedPaymentCallbackRepository.findRedirectUrlByCallbackKey("b:1")).thenReturn(Optional.of("url-b"));
+
+        // Act
+        deduplicator.findProcessed("a:1");
+        deduplicator.findProcessed("b:1");
+
+        // Assert
+        verify(processedPaymentCallbackRepository, never()).findRedirectUrlByCallbackKey("a:1");
+        verify(processedPaymentCallbackRepository).findRedirectUrlByCallbackKey("b:1");
+    }
+}
@@ -0,0 +1,132 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.SeatVariant;
+import com.cinema.ticketbooking.repository.FilmRepository;
+import com.cinema.ticketbooking.repository.SeatVariantRepository;
+import com.cinema.ticketbooking.repository.projection.SeatHoldPricingProjection;
+import com.cinema.ticketbooking.util.constant.SeatTypeEnum;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PricingServiceTest {
+
+    @Mock private SeatVariantRepository seatVariantRepository;
+    @Mock private FilmRepository filmRepository;
+
+    @InjectMocks private PricingService pricingService;
+
+    private SeatVariant regular;
+    private SeatVariant vip;
+
+    @BeforeEach
+    void setUp() {
+        regular = new SeatVariant();
+        regular.setId(1L);
+        regular.setSeatType(SeatTypeEnum.REG);
+        regular.setBasePrice(50000);
+        regular.setBonus(0);
+
+        vip = new SeatVariant();
+        vip.setId(2L);
+        vip.setSeatType(SeatTypeEnum.VIP);
+        vip.setBasePrice(70000);
+        vip.setBonus(10000);
+    }
+
+    private static SeatHoldPricingProjection hold(Long seatVariantId, Long filmId) {
+        SeatHoldPricingProjection hold = mock(SeatHoldPricingProjection.class);
+        when(hold.getSeatVariantId()).thenReturn(seatVariantId);
+        when(hold.getFilmId()).thenReturn(filmId);
+        return hold;
+    }
+
+    @Test
+    void priceHolds_shouldPriceWholeSet_withOneLoadPerVariantTableAndFilm() {
+        // Arrange
+        when(seatVariantRepository.findAll()).thenReturn(List.of(regular, vip));
+        when(filmRepository.findPriceById(7L)).thenReturn(Optional.of(45000L));
+        List<SeatHoldPricingProjection> holds = List.of(hold(1L, 7L), hold(2L, 7L), hold(2L, 7L));
+
+        // Act
+        double[] prices = pricingService.priceHolds(holds);
+        double[] again = pricingService.priceHolds(holds);
+
+        // Assert
+        assertArrayEquals(new double[] { 95000, 125000, 125000 }, prices);
+        assertArrayEquals(prices, again);
+        verify(seatVariantRepository, times(1)).findAll();
+        verify(filmRepository, times(1)).findPriceById(7L);
+    }
+
+    @Test
+    void evict_shouldReloadPricesOnNextRead() {
+        // Arrange
+        when(seatVariantRepository.findAll()).thenReturn(List.of(regular, vip));
+        when(filmRepository.findPriceById(7L)).thenReturn(Optional.of(45000L), Optional.of(60000L));
+        assertEquals(80000, pricingService.getVariantPrice(2L).total());
+        assertEquals(45000, pricingService.getFilmPrice(7L));
+
+        // Act
+        vip.setBonus(20000);
+        pricingService.evictVariants();
+        pricingService.evictFilm(7L);
+
+        // Assert
+        assertEquals(90000, pricingService.getVariantPrice(2L).total());
+        assertEquals(60000, pricingService.getFilmPrice(7L));
+        verify(seatVariantRepository, times(2)).findAll();
+    }
+
+    @Test
+    void evict_shouldWinOverLoadThatReadPricesBeforeCommit() {
+        // Arrange: giá cũ được đọc, rồi transaction đổi giá commit và xoá cache trong lúc nạp
+        SeatVariant staleVip = new SeatVariant();
+        staleVip.setId(2L);
+        staleVip.setBasePrice(70000);
+        staleVip.setBonus(10000);
+        vip.setBonus(20000);
+        when(seatVariantRepository.findAll()).thenAnswer(invocation -> {
+            pricingService.evictVariants();
+            return List.of(regular, staleVip);
+        }).thenReturn(List.of(regular, vip));
+        when(filmRepository.findPriceById(7L)).thenAnswer(invocation -> {
+            pricingService.evictFilm(7L);
+            return Optional.of(45000L);
+        }).thenReturn(Optional.of(60000L));
+
+        // Act
+        pricingService.getVariantPrice(2L);
+        pricingService.getFilmPrice(7L);
+
+        // Assert: giá cũ không ở lại trong cache
+        assertEquals(90000, pricingService.getVariantPrice(2L).total());
+        assertEquals(60000, pricingService.getFilmPrice(7L));
+        assertEquals(60000, pricingService.getFilmPrice(7L));
+        verify(seatVariantRepository, times(2)).findAll();
+        verify(filmRepository, times(2)).findPriceById(7L);
+    }
+
+    @Test
+    void priceHolds_shouldThrow_whenSeatHasNoVariant() {
+        // Arrange
+        SeatHoldPricingProjection hold = mock(SeatHoldPricingProjection.class);
+        when(hold.getSeatVariantId()).thenReturn(null);
+        when(hold.getSeatId()).thenReturn(100L);
+
+        // Act & Assert
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> pricingService.priceHolds(List.of(hold)));
+        assertEquals("Seat variant not found for seat 100", ex.getMessage());
+    }
+}
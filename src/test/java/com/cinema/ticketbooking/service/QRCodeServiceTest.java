@@ -0,0 +1,60 @@
+package com.cinema.ticketbooking.service;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QRCodeServiceTest {
+
+    private final TicketTokenCodec ticketTokenCodec = new TicketTokenCodec("test-secret");
+    private final QRCodeService qrCodeService = new QRCodeService(new BookingMetrics(new SimpleMeterRegistry()),
+            ticketTokenCodec);
+
+    @Test
+    void generateTicketQRCodePng_shouldWriteOneBitPngThatDecodesToSignedToken() throws Exception {
+        // Arrange
+        TicketTokenCodec.Claims claims = new TicketTokenCodec.Claims(1024L, 57L, List.of(1201L, 1202L),
+                Instant.parse("2026-10-17T15:00:00Z"));
+
+        // Act
+        byte[] png = qrCodeService.generateTicketQRCodePng(claims);
+
+        // Assert
+        assertEquals(1, png[24], "bit depth");
+        assertEquals(0, png[25], "grayscale");
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertTrue(image.getWidth() <= 300 && image.getWidth() > 250, "width " + image.getWidth());
+        String text = new QRCodeReader().decode(
+                new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)))).getText();
+        assertEquals(ticketTokenCodec.encode(claims), text);
+        assertEquals(claims, ticketTokenCodec.decode(text));
+    }
+
+    @Test
+    void generateQRCodePng_shouldReuseBuffersAcrossCalls() throws Exception {
+        // Arrange
+        byte[] large = qrCodeService.generateQRCodePng(
+                "{\"bookingId\":1024,\"email\":\"customer@gmail.com\",\"total\":170000.00}", 300, 300);
+
+        // Act
+        byte[] small = qrCodeService.generateQRCodePng("BOOKING-1", 300, 300);
+
+        // Assert
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(small));
+        String text = new QRCodeReader().decode(
+                new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)))).getText();
+        assertEquals("BOOKING-1", text);
+        assertNotEquals(large.length, small.length);
+    }
+}
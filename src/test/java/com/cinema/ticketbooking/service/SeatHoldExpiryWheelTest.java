@@ -0,0 +1,85 @@
+package com.cinema.ticketbooking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatHoldExpiryWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private static List<Long> ids(List<SeatHoldExpiryWheel.Entry> entries) {
+        return entries.stream().map(SeatHoldExpiryWheel.Entry::holdId).toList();
+    }
+
+    @Test
+    void advance_shouldReturnHold_onlyOnceItsExpiryTickHasPassed() {
+        // Arrange
+        SeatHoldExpiryWheel wheel = new SeatHoldExpiryWheel(START);
+        wheel.schedule(1L, Instant.ofEpochMilli(START + 5_500));
+
+        // Act & Assert
+        assertTrue(wheel.advance(START + 5_000).isEmpty());
+        assertEquals(List.of(1L), ids(wheel.advance(START + 6_000)));
+        assertTrue(wheel.advance(START + 10_000).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_shouldReturnImmediately_whenAlreadyExpired() {
+        // Arrange
+        SeatHoldExpiryWheel wheel = new SeatHoldExpiryWheel(START);
+
+        // Act
+        wheel.schedule(1L, Instant.ofEpochMilli(START - 1_000));
+
+        // Assert
+        assertEquals(List.of(1L), ids(wheel.advance(START)));
+    }
+
+    @Test
+    void advance_shouldCascadeHigherLevels_forLongExpiries() {
+        // Arrange: 5 phút (tầng 1) và ~2 giờ (tầng 2)
+        SeatHoldExpiryWheel wheel = new SeatHoldExpiryWheel(START);
+        wheel.schedule(1L, Instant.ofEpochMilli(START + 300_000));
+        wheel.schedule(2L, Instant.ofEpochMilli(START + 7_200_000));
+
+        // Act & Assert
+        assertTrue(wheel.advance(START + 299_000).isEmpty());
+        assertEquals(List.of(1L), ids(wheel.advance(START + 300_000)));
+        assertTrue(wheel.advance(START + 7_199_000).isEmpty());
+        assertEquals(List.of(2L), ids(wheel.advance(START + 7_200_000)));
+    }
+
+    @Test
+    void advance_shouldFireEveryHold_withinOneTickOfItsExpiry() {
+        // Arrange
+        SeatHoldExpiryWheel wheel = new SeatHoldExpiryWheel(START);
+        List<Long> offsets = new ArrayList<>();
+        for (long i = 0; i < 500; i++) {
+            long offset = (i * 7_919 + 13) % 400_000;
+            offsets.add(offset);
+            wheel.schedule(i, Instant.ofEpochMilli(START + offset));
+        }
+
+        // Act: tick từng giây, ghi lại thời điểm mỗi hold được trả về
+        long[] firedAt = new long[offsets.size()];
+        for (long now = START + 1_000; now <= START + 401_000; now += 1_000) {
+            for (SeatHoldExpiryWheel.Entry entry : wheel.advance(now)) {
+                firedAt[entry.holdId().intValue()] = now;
+            }
+        }
+
+        // Assert
+        for (int i = 0; i < offsets.size(); i++) {
+            long expiresAt = START + offsets.get(i);
+            assertTrue(firedAt[i] >= expiresAt, "hold " + i + " fired early");
+            assertTrue(firedAt[i] - expiresAt < 1_000 + SeatHoldExpiryWheel.TICK_MILLIS, "hold " + i + " fired late");
+        }
+        assertEquals(0, wheel.size());
+    }
+}
@@ -11,6 +11,7 @@ import com.cinema.ticketbooking.repository.SeatRepository;
 import com.cinema.ticketbooking.repository.ShowTimeRepository;
 import com.cinema.ticketbooking.repository.UserRepository;
 import com.cinema.ticketbooking.util.SecurityUtil;
+import com.cinema.ticketbooking.util.error.UnavailableResourceException;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +19,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -35,6 +37,9 @@ class SeatHoldServiceTest {
     @Mock private ShowTimeRepository showTimeRepository;
     @Mock private SeatRepository seatRepository;
     @Mock private BookingItemRepository bookingItemRepository;
+    @Mock private SeatStateIndex seatStateIndex;
+    @Mock private SeatHoldExpiryWheel seatHoldExpiryWheel;
+    @Mock private BookingMetrics bookingMetrics;
 
     @InjectMocks private SeatHoldService seatHoldService;
 
@@ -63,9 +68,7 @@ class SeatHoldServiceTest {
 
             when(userRepository.findUserByEmail(email)).thenReturn(user);
             when(showTimeRepository.findById(10L)).thenReturn(Optional.of(showTime));
-            when(seatRepository.lockSeats(List.of(100L))).thenReturn(List.of(seat));
-            when(seatHoldRepository.existsBySeatIdAndShowTimeId(100L, 10L)).thenReturn(false);
-            when(bookingItemRepository.existsBySeatIdAndShowTimeId(100L, 10L)).thenReturn(false);
+            when(seatRepository.getReferenceById(100L)).thenReturn(seat);
 
             // Act
             List<SeatHold> result = seatHoldService.createSeatHold(req);
@@ -79,8 +82,11 @@ class SeatHoldServiceTest {
             assertEquals(seat, seatHold.getSeat());
             assertEquals(showTime, seatHold.getShowTime());
 
-            // SeatHold được save
-            verify(seatHoldRepository).saveAll(anyList());
+            // Ghế được giữ trong bộ nhớ trước, SeatHold được save sau
+            verify(seatStateIndex).claim(10L, List.of(100L));
+            verify(seatHoldRepository).saveAllAndFlush(anyList());
+            verify(seatHoldExpiryWheel).schedule(seatHold.getId(), seatHold.getExpiresAt());
+            verify(bookingMetrics).recordHoldAttempt(10L, 1, false);
 
             assertNotNull(seatHold.getExpiresAt());
             Instant min = start.plus(4, ChronoUnit.MINUTES);
@@ -130,7 +136,7 @@ class SeatHoldServiceTest {
                     () -> seatHoldService.createSeatHold(req));
             assertEquals("ShowTime not found", ex.getMessage());
 
-            verify(seatHoldRepository, never()).saveAll(anyList());
+            verify(seatHoldRepository, never()).saveAllAndFlush(anyList());
         }
     }
 
@@ -155,15 +161,16 @@ class SeatHoldServiceTest {
 
             when(userRepository.findUserByEmail(email)).thenReturn(user);
             when(showTimeRepository.findById(10L)).thenReturn(Optional.of(showTime));
-            // Only return 1 seat when requesting 2
-            when(seatRepository.lockSeats(List.of(100L, 101L))).thenReturn(List.of(seat));
+            // Seat 101 không thuộc phòng chiếu của showtime
+            doThrow(new RuntimeException("Some seats not found"))
+                    .when(seatStateIndex).claim(10L, List.of(100L, 101L));
 
             // Act + Assert
             RuntimeException ex = assertThrows(RuntimeException.class,
                     () -> seatHoldService.createSeatHold(req));
             assertEquals("Some seats not found", ex.getMessage());
 
-            verify(seatHoldRepository, never()).saveAll(anyList());
+            verify(seatHoldRepository, never()).saveAllAndFlush(anyList());
         }
     }
 
@@ -188,15 +195,42 @@ class SeatHoldServiceTest {
 
             when(userRepository.findUserByEmail(email)).thenReturn(user);
             when(showTimeRepository.findById(10L)).thenReturn(Optional.of(showTime));
-            when(seatRepository.lockSeats(List.of(100L))).thenReturn(List.of(seat));
-            when(seatHoldRepository.existsBySeatIdAndShowTimeId(100L, 10L)).thenReturn(true);
+            doThrow(new UnavailableResourceException("Seat 100 is already held for this showtime"))
+                    .when(seatStateIndex).claim(10L, List.of(100L));
 
             // Act + Assert
-            RuntimeException ex = assertThrows(RuntimeException.class,
+            RuntimeException ex = assertThrows(UnavailableResourceException.class,
                     () -> seatHoldService.createSeatHold(req));
             assertEquals("Seat 100 is already held for this showtime", ex.getMessage());
 
-            verify(seatHoldRepository, never()).saveAll(anyList());
+            verify(seatHoldRepository, never()).saveAllAndFlush(anyList());
+            verify(bookingMetrics).recordHoldAttempt(10L, 1, true);
+        }
+    }
+
+    @Test
+    void createSeatHold_shouldThrowConflict_whenUniqueConstraintViolated() {
+        // Arrange
+        String email = "test@gmail.com";
+
+        ReqCreateSeatHoldDto req = new ReqCreateSeatHoldDto();
+        req.setSeatIds(List.of(100L));
+        req.setShowtimeId(10L);
+
+        ShowTime showTime = new ShowTime();
+        showTime.setId(10L);
+
+        try (MockedStatic<SecurityUtil> mocked = mockStatic(SecurityUtil.class)) {
+            mocked.when(SecurityUtil::getCurrentUserLogin).thenReturn(Optional.of(email));
+
+            when(userRepository.findUserByEmail(email)).thenReturn(new User());
+            when(showTimeRepository.findById(10L)).thenReturn(Optional.of(showTime));
+            when(seatHoldRepository.saveAllAndFlush(anyList()))
+                    .thenThrow(new DataIntegrityViolationException("uk_seat_holds_seat_show_time"));
+
+            // Act + Assert
+            assertThrows(UnavailableResourceException.class, () -> seatHoldService.createSeatHold(req));
+            verify(bookingMetrics).recordHoldAttempt(10L, 1, true);
         }
     }
 
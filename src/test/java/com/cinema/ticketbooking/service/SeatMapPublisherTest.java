@@ -0,0 +1,175 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.response.ResSeatAvailabilityDto;
+import com.cinema.ticketbooking.util.constant.SeatStatusEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapPublisherTest {
+
+    private final SeatMapPublisher publisher = new SeatMapPublisher(new ObjectMapper());
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    /**
+     * Emitter giả: đếm số sự kiện đã gửi, có thể chặn send tới khi {@code release} mở
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final AtomicInteger sent = new AtomicInteger();
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            sent.incrementAndGet();
+        }
+    }
+
+    private static void await(AtomicInteger counter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, counter.get());
+    }
+
+    @Test
+    void subscribe_shouldRegisterEmitterAndTakeSnapshotOnCallerThread() throws Exception {
+        // Arrange
+        Thread caller = Thread.currentThread();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        SseEmitter emitter = publisher.subscribe(10L, () -> {
+            assertSame(caller, Thread.currentThread());
+            calls.incrementAndGet();
+            ResSeatAvailabilityDto dto = new ResSeatAvailabilityDto();
+            dto.setSeatId(100L);
+            dto.setStatus(SeatStatusEnum.AVAILABLE);
+            return List.of(dto);
+        });
+
+        // Assert
+        assertNotNull(emitter);
+        assertEquals(1, calls.get());
+        assertEquals(1, publisher.subscriberCount(10L));
+        assertEquals(0, publisher.subscriberCount(11L));
+    }
+
+    @Test
+    void publish_shouldFanOutWithoutFailing_whenSubscribersExist() throws Exception {
+        // Arrange
+        CountDownLatch ready = new CountDownLatch(2);
+        publisher.subscribe(10L, () -> { ready.countDown(); return List.of(); });
+        publisher.subscribe(10L, () -> { ready.countDown(); return List.of(); });
+        assertTrue(ready.await(2, TimeUnit.SECONDS));
+
+        // Act
+        publisher.publish(10L, SeatStatusEnum.HOLD, List.of(100L, 101L));
+        publisher.publish(11L, SeatStatusEnum.HOLD, List.of(100L)); // không ai xem
+
+        // Assert: các emitter chưa gắn với request vẫn nhận sự kiện vào buffer
+        CountDownLatch drained = new CountDownLatch(1);
+        publisher.subscribe(12L, () -> { drained.countDown(); return List.of(); });
+        assertTrue(drained.await(2, TimeUnit.SECONDS));
+        assertEquals(2, publisher.subscriberCount(10L));
+    }
+
+    @Test
+    void publish_shouldDropSlowSubscriber_withoutDelayingOthers() throws Exception {
+        // Arrange
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stalled);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter otherShowTime = new RecordingEmitter(new CountDownLatch(0));
+        publisher.subscribe(10L, List::of, slow);
+        publisher.subscribe(10L, List::of, fast);
+        publisher.subscribe(11L, List::of, otherShowTime);
+
+        // Act
+        for (int i = 0; i < SeatMapPublisher.MAX_PENDING_EVENTS + 1; i++) {
+            publisher.publish(10L, SeatStatusEnum.HOLD, List.of(100L + i));
+        }
+        publisher.publish(11L, SeatStatusEnum.HOLD, List.of(1L));
+
+        // Assert: client chậm bị ngắt, các client khác nhận đủ snapshot + delta
+        await(fast.sent, SeatMapPublisher.MAX_PENDING_EVENTS + 2);
+        await(otherShowTime.sent, 2);
+        assertEquals(1, publisher.subscriberCount(10L));
+        stalled.countDown();
+    }
+
+    @Test
+    void publish_shouldKeepDeliveringToOthers_whenManyClientsNeverRead() throws Exception {
+        // Arrange: nhiều client treo hơn số thread gửi cũ
+        CountDownLatch stalled = new CountDownLatch(1);
+        List<RecordingEmitter> stuck = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            RecordingEmitter emitter = new RecordingEmitter(stalled);
+            stuck.add(emitter);
+            publisher.subscribe(i % 2 == 0 ? 10L : 11L, List::of, emitter);
+        }
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter otherShowTime = new RecordingEmitter(new CountDownLatch(0));
+        publisher.subscribe(10L, List::of, fast);
+        publisher.subscribe(12L, List::of, otherShowTime);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            publisher.publish(10L, SeatStatusEnum.HOLD, List.of(100L + i));
+        }
+        publisher.publish(12L, SeatStatusEnum.HOLD, List.of(1L));
+
+        // Assert: client đọc được nhận đủ snapshot + delta dù các client kia treo
+        await(fast.sent, 11);
+        await(otherShowTime.sent, 2);
+        stuck.forEach(emitter -> assertEquals(0, emitter.sent.get()));
+        stalled.countDown();
+    }
+
+    @Test
+    void evictStalled_shouldDropClientStuckInSend_afterTimeout() throws Exception {
+        // Arrange
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingEmitter stuck = new RecordingEmitter(stalled);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        publisher.subscribe(10L, List::of, stuck);
+        publisher.subscribe(10L, List::of, fast);
+        await(fast.sent, 1);
+        Thread.sleep(50); // để thread gửi của client treo vào send
+
+        // Act
+        publisher.evictStalled(System.nanoTime());
+        int beforeTimeout = publisher.subscriberCount(10L);
+        publisher.evictStalled(System.nanoTime() + SeatMapPublisher.SEND_TIMEOUT_NANOS + 1);
+
+        // Assert
+        assertEquals(2, beforeTimeout);
+        assertEquals(1, publisher.subscriberCount(10L));
+        stalled.countDown();
+    }
+}
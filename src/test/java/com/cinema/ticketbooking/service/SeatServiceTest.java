@@ -5,6 +5,7 @@ import com.cinema.ticketbooking.domain.Seat;
 import com.cinema.ticketbooking.domain.SeatVariant;
 import com.cinema.ticketbooking.domain.request.ReqCreateSeatDto;
 import com.cinema.ticketbooking.domain.request.ReqUpdateSeatDto;
+import com.cinema.ticketbooking.domain.response.ResSeatAvailabilityDto;
 import com.cinema.ticketbooking.domain.response.ResultPaginationDto;
 import com.cinema.ticketbooking.repository.AuditoriumRepository;
 import com.cinema.ticketbooking.repository.SeatRepository;
@@ -31,6 +32,8 @@ class SeatServiceTest {
     @Mock private SeatRepository seatRepository;
     @Mock private AuditoriumRepository auditoriumRepository;
     @Mock private SeatVariantRepository seatVariantRepository;
+    @Mock private SeatStateIndex seatStateIndex;
+    @Mock private SeatMapPublisher seatMapPublisher;
 
     @InjectMocks private SeatService seatService;
 
@@ -221,4 +224,21 @@ class SeatServiceTest {
         // Note: Seat entity no longer has status field
         verify(seatRepository).save(existing);
     }
+
+    // -----------------------
+    // getSeatAvailabilityByShowTime
+    // -----------------------
+    @Test
+    void getSeatAvailabilityByShowTime_shouldReadFromSeatStateIndex() {
+        // Arrange
+        List<ResSeatAvailabilityDto> expected = List.of(new ResSeatAvailabilityDto());
+        when(seatStateIndex.getSeatAvailability(10L)).thenReturn(expected);
+
+        // Act
+        List<ResSeatAvailabilityDto> result = seatService.getSeatAvailabilityByShowTime(10L);
+
+        // Assert
+        assertSame(expected, result);
+        verifyNoInteractions(seatRepository);
+    }
 }
@@ -0,0 +1,204 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.Auditorium;
+import com.cinema.ticketbooking.domain.Seat;
+import com.cinema.ticketbooking.domain.SeatVariant;
+import com.cinema.ticketbooking.domain.ShowTime;
+import com.cinema.ticketbooking.domain.response.ResSeatAvailabilityDto;
+import com.cinema.ticketbooking.repository.BookingItemRepository;
+import com.cinema.ticketbooking.repository.SeatHoldRepository;
+import com.cinema.ticketbooking.repository.SeatRepository;
+import com.cinema.ticketbooking.repository.ShowTimeRepository;
+import com.cinema.ticketbooking.util.constant.SeatStatusEnum;
+import com.cinema.ticketbooking.util.constant.SeatTypeEnum;
+import com.cinema.ticketbooking.util.error.UnavailableResourceException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatStateIndexTest {
+
+    @Mock private ShowTimeRepository showTimeRepository;
+    @Mock private SeatRepository seatRepository;
+    @Mock private BookingItemRepository bookingItemRepository;
+    @Mock private SeatHoldRepository seatHoldRepository;
+    @Mock private SeatMapPublisher seatMapPublisher;
+    @Mock private PricingService pricingService;
+
+    @InjectMocks private SeatStateIndex seatStateIndex;
+
+    @BeforeEach
+    void setUp() {
+        Auditorium auditorium = new Auditorium();
+        auditorium.setId(3L);
+        ShowTime showTime = new ShowTime();
+        showTime.setId(10L);
+        showTime.setAuditorium(auditorium);
+
+        SeatVariant variant = new SeatVariant();
+        variant.setId(1L);
+        variant.setSeatType(SeatTypeEnum.VIP);
+        variant.setBasePrice(70000);
+        variant.setBonus(10000);
+
+        Seat s1 = new Seat();
+        s1.setId(100L);
+        s1.setSeatVariant(variant);
+        Seat s2 = new Seat();
+        s2.setId(101L);
+        s2.setSeatVariant(variant);
+        Seat s3 = new Seat();
+        s3.setId(102L);
+        s3.setSeatVariant(variant);
+
+        when(showTimeRepository.findById(10L)).thenReturn(Optional.of(showTime));
+        when(seatRepository.findByAuditoriumIdFetchVariant(3L)).thenReturn(List.of(s3, s1, s2));
+        when(bookingItemRepository.findSeatIdsByShowTimeId(10L)).thenReturn(List.of(100L));
+        when(seatHoldRepository.findSeatIdsByShowTimeId(10L)).thenReturn(List.of(100L, 101L));
+        lenient().when(pricingService.getVariantPrice(1L)).thenReturn(new PricingService.VariantPrice(70000, 10000));
+    }
+
+    @Test
+    void getSeatAvailability_shouldLoadOnceFromSetQueries() {
+        // Act
+        List<ResSeatAvailabilityDto> first = seatStateIndex.getSeatAvailability(10L);
+        List<ResSeatAvailabilityDto> second = seatStateIndex.getSeatAvailability(10L);
+
+        // Assert
+        assertEquals(3, first.size());
+        assertEquals(100L, first.get(0).getSeatId());
+        assertEquals(SeatStatusEnum.BOOKED, first.get(0).getStatus());
+        assertEquals(SeatStatusEnum.HOLD, first.get(1).getStatus());
+        assertEquals(SeatStatusEnum.AVAILABLE, first.get(2).getStatus());
+        assertEquals(80000.0, first.get(2).getTotalPrice());
+        assertNotSame(first.get(0), second.get(0));
+
+        // Lần đọc thứ hai không chạm DB
+        verify(showTimeRepository, times(1)).findById(10L);
+        verify(bookingItemRepository, never()).existsBySeatIdAndShowTimeId(anyLong(), anyLong());
+        verify(seatHoldRepository, never()).existsBySeatIdAndShowTimeId(anyLong(), anyLong());
+    }
+
+    @Test
+    void writeThrough_shouldUpdateLoadedShowTime() {
+        // Arrange
+        seatStateIndex.getSeatAvailability(10L);
+
+        // Act
+        seatStateIndex.claim(10L, List.of(102L));
+        seatStateIndex.markBooked(10L, List.of(101L));
+        seatStateIndex.releaseHolds(10L, List.of(100L));
+
+        // Assert
+        List<ResSeatAvailabilityDto> result = seatStateIndex.getSeatAvailability(10L);
+        assertEquals(SeatStatusEnum.BOOKED, result.get(0).getStatus()); // release chỉ áp dụng cho HOLD
+        assertEquals(SeatStatusEnum.BOOKED, result.get(1).getStatus());
+        assertEquals(SeatStatusEnum.HOLD, result.get(2).getStatus());
+
+        // Act
+        seatStateIndex.releaseBookings(10L, List.of(100L, 101L));
+
+        // Assert
+        result = seatStateIndex.getSeatAvailability(10L);
+        assertEquals(SeatStatusEnum.AVAILABLE, result.get(0).getStatus());
+        assertEquals(SeatStatusEnum.AVAILABLE, result.get(1).getStatus());
+        verify(showTimeRepository, times(1)).findById(10L);
+    }
+
+    @Test
+    void writeThrough_shouldPublishOnlySeatsThatChanged() {
+        // Arrange
+        seatStateIndex.getSeatAvailability(10L);
+
+        // Act
+        seatStateIndex.claim(10L, List.of(102L));
+        seatStateIndex.releaseHolds(10L, List.of(100L, 101L)); // 100 đã booked
+
+        // Assert
+        verify(seatMapPublisher).publish(10L, SeatStatusEnum.HOLD, List.of(102L));
+        verify(seatMapPublisher).publish(10L, SeatStatusEnum.AVAILABLE, List.of(101L));
+    }
+
+    @Test
+    void evict_shouldReloadFromDatabaseOnNextRead() {
+        // Arrange
+        seatStateIndex.getSeatAvailability(10L);
+
+        // Act
+        seatStateIndex.evict(10L);
+        seatStateIndex.getSeatAvailability(10L);
+
+        // Assert
+        verify(showTimeRepository, times(2)).findById(10L);
+    }
+
+    @Test
+    void claim_shouldBeAllOrNothing_whenOneSeatIsTaken() {
+        // Act + Assert: 102 trống nhưng 101 đang được hold
+        UnavailableResourceException ex = assertThrows(UnavailableResourceException.class,
+                () -> seatStateIndex.claim(10L, List.of(102L, 101L)));
+        assertEquals("Seat 101 is already held for this showtime", ex.getMessage());
+
+        // 102 được trả lại
+        assertEquals(SeatStatusEnum.AVAILABLE, seatStateIndex.getSeatAvailability(10L).get(2).getStatus());
+    }
+
+    @Test
+    void claim_shouldReportBookedSeat() {
+        UnavailableResourceException ex = assertThrows(UnavailableResourceException.class,
+                () -> seatStateIndex.claim(10L, List.of(100L)));
+        assertEquals("Seat 100 is already booked for this showtime", ex.getMessage());
+    }
+
+    @Test
+    void claim_shouldRejectSeatOutsideAuditorium() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> seatStateIndex.claim(10L, List.of(999L)));
+        assertEquals("Some seats not found", ex.getMessage());
+    }
+
+    @Test
+    void claim_shouldLetOnlyOneThreadWinTheSameSeat() throws Exception {
+        // Arrange
+        seatStateIndex.getSeatAvailability(10L);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        // Act
+        for (int i = 0; i < threads; i++) {
+            pool.submit(() -> {
+                start.await();
+                try {
+                    seatStateIndex.claim(10L, List.of(102L));
+                    winners.incrementAndGet();
+                } catch (UnavailableResourceException ignored) {
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(1, winners.get());
+    }
+}
@@ -27,6 +27,10 @@ class SeatVariantServiceTest {
 
     @Mock
     private SeatVariantRepository seatVariantRepository;
+    @Mock
+    private SeatStateIndex seatStateIndex;
+    @Mock
+    private PricingService pricingService;
 
     @InjectMocks
     private SeatVariantService seatVariantService;
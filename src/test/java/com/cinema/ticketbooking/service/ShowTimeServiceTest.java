@@ -37,6 +37,10 @@ class ShowTimeServiceTest {
     private AuditoriumRepository auditoriumRepository;
     @Mock
     private BookingItemRepository bookingItemRepository;
+    @Mock
+    private SeatStateIndex seatStateIndex;
+    @Mock
+    private BookingMetrics bookingMetrics;
 
     @InjectMocks
     private ShowTimeService showTimeService;
@@ -184,6 +188,8 @@ class ShowTimeServiceTest {
 
         // Assert
         verify(showTimeRepository).deleteById(5L);
+        verify(seatStateIndex).evict(5L);
+        verify(bookingMetrics).removeShowTime(5L);
     }
 
     // -----------------------
@@ -0,0 +1,207 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.Booking;
+import com.cinema.ticketbooking.domain.BookingItem;
+import com.cinema.ticketbooking.domain.Seat;
+import com.cinema.ticketbooking.domain.ShowTime;
+import com.cinema.ticketbooking.domain.TicketArtifact;
+import com.cinema.ticketbooking.domain.User;
+import com.cinema.ticketbooking.repository.BookingRepository;
+import com.cinema.ticketbooking.repository.TicketArtifactRepository;
+import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
+import com.cinema.ticketbooking.util.error.IdInvalidException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketArtifactServiceTest {
+
+    @Mock private TicketArtifactRepository ticketArtifactRepository;
+    @Mock private BookingRepository bookingRepository;
+    @Mock private QRCodeService qrCodeService;
+    @Mock private TicketGateService ticketGateService;
+
+    @InjectMocks private TicketArtifactService ticketArtifactService;
+
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(3L);
+        user.setEmail("a@test.com");
+        booking = new Booking();
+        booking.setId(10L);
+        booking.setUser(user);
+        booking.setTotal_price(170000.0);
+        booking.setStatus(BookingStatusEnum.CONFIRMED);
+        booking.setBookingItems(List.of(item(7L), item(3L)));
+        ReflectionTestUtils.setField(ticketArtifactService, "cacheSize", 2);
+    }
+
+    private BookingItem item(Long seatId) {
+        ShowTime showTime = new ShowTime();
+        showTime.setId(5L);
+        showTime.setDate(LocalDate.of(2026, 10, 17));
+        showTime.setStartTime(LocalTime.of(22, 30));
+        showTime.setEndTime(LocalTime.of(0, 45));
+        Seat seat = new Seat();
+        seat.setId(seatId);
+        BookingItem item = new BookingItem();
+        item.setSeat(seat);
+        item.setShowTime(showTime);
+        return item;
+    }
+
+    @Test
+    void ticketClaims_shouldCoverShowTimeSeatsAndExpireAtEndOfLateShow() {
+        // Act
+        TicketTokenCodec.Claims claims = TicketArtifactService.ticketClaims(booking);
+
+        // Assert
+        assertEquals(10L, claims.bookingId());
+        assertEquals(5L, claims.showTimeId());
+        assertEquals(List.of(7L, 3L), claims.seatIds());
+        assertEquals(LocalDateTime.of(2026, 10, 18, 0, 45).atZone(ZoneId.systemDefault()).toInstant(),
+                claims.expiresAt());
+    }
+
+    @Test
+    void getOrRender_shouldReturnStoredArtifact_withoutRendering() {
+        // Arrange
+        TicketArtifact stored = new TicketArtifact();
+        when(ticketArtifactRepository.findById(10L)).thenReturn(Optional.of(stored));
+
+        // Act
+        TicketArtifact result = ticketArtifactService.getOrRender(10L);
+
+        // Assert
+        assertSame(stored, result);
+        verifyNoInteractions(bookingRepository, qrCodeService);
+    }
+
+    @Test
+    void getOrRender_shouldRenderAndStoreWithContentEtag_whenMissing() {
+        // Arrange
+        byte[] png = { 1, 2, 3 };
+        when(ticketArtifactRepository.findById(10L)).thenReturn(Optional.empty());
+        when(bookingRepository.findByIdWithDetails(10L)).thenReturn(Optional.of(booking));
+        when(qrCodeService.generateTicketQRCodePng(TicketArtifactService.ticketClaims(booking))).thenReturn(png);
+        when(ticketArtifactRepository.saveAndFlush(any(TicketArtifact.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        TicketArtifact result = ticketArtifactService.getOrRender(10L);
+
+        // Assert
+        assertEquals(10L, result.getBookingId());
+        assertEquals(3L, result.getUserId());
+        assertArrayEquals(png, result.getPng());
+        assertEquals(TicketArtifactService.etag(png), result.getEtag());
+        assertEquals(64, result.getEtag().length());
+    }
+
+    @Test
+    void getOrRender_shouldReject_whenBookingNotConfirmed() {
+        // Arrange
+        booking.setStatus(BookingStatusEnum.PENDING);
+        when(ticketArtifactRepository.findById(10L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IdInvalidException.class, () -> ticketArtifactService.getOrRender(booking));
+        verifyNoInteractions(qrCodeService);
+    }
+
+    @Test
+    void getOrRender_shouldReturnConcurrentlyStoredArtifact_whenInsertConflicts() {
+        // Arrange
+        TicketArtifact winner = new TicketArtifact();
+        when(ticketArtifactRepository.findById(10L)).thenReturn(Optional.empty(), Optional.of(winner));
+        when(qrCodeService.generateTicketQRCodePng(any())).thenReturn(new byte[] { 9 });
+        when(ticketArtifactRepository.saveAndFlush(any(TicketArtifact.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        // Act
+        TicketArtifact result = ticketArtifactService.getOrRender(booking);
+
+        // Assert
+        assertSame(winner, result);
+    }
+
+    @Test
+    void getOrRender_shouldServeRecentArtifactsFromMemory_andEvictLeastRecentlyUsed() {
+        // Arrange
+        for (long id = 1; id <= 3; id++) {
+            TicketArtifact stored = new TicketArtifact();
+            stored.setBookingId(id);
+            stored.setEtag("etag-" + id);
+            when(ticketArtifactRepository.findById(id)).thenReturn(Optional.of(stored));
+        }
+        ticketArtifactService.getOrRender(1L);
+        ticketArtifactService.getOrRender(2L);
+        ticketArtifactService.getOrRender(1L);
+
+        // Act
+        ticketArtifactService.getOrRender(3L); // cacheSize = 2 → đẩy booking 2 ra
+        Optional<String> etag1 = ticketArtifactService.findEtag(1L);
+        ticketArtifactService.getOrRender(2L);
+
+        // Assert
+        assertEquals(Optional.of("etag-1"), etag1);
+        verify(ticketArtifactRepository, times(1)).findById(1L);
+        verify(ticketArtifactRepository, times(2)).findById(2L);
+        verify(ticketArtifactRepository, never()).findEtagByBookingId(anyLong());
+    }
+
+    @Test
+    void findOwnerId_shouldUseCachedArtifact_beforeQueryingBooking() {
+        // Arrange
+        TicketArtifact stored = new TicketArtifact();
+        stored.setBookingId(10L);
+        stored.setUserId(3L);
+        when(ticketArtifactRepository.findById(10L)).thenReturn(Optional.of(stored));
+        when(bookingRepository.findUserIdById(11L)).thenReturn(Optional.of(4L));
+        ticketArtifactService.getOrRender(10L);
+
+        // Act & Assert
+        assertEquals(3L, ticketArtifactService.findOwnerId(10L));
+        assertEquals(4L, ticketArtifactService.findOwnerId(11L));
+        verify(bookingRepository, never()).findUserIdById(10L);
+    }
+
+    @Test
+    void revoke_shouldDropStoredAndCachedArtifact_andRevokeTicketAtGate() {
+        // Arrange
+        TicketArtifact stored = new TicketArtifact();
+        stored.setBookingId(10L);
+        when(ticketArtifactRepository.findById(10L)).thenReturn(Optional.of(stored), Optional.empty());
+        when(bookingRepository.findByIdWithDetails(10L)).thenReturn(Optional.of(booking));
+        ticketArtifactService.getOrRender(10L);
+        booking.setStatus(BookingStatusEnum.CANCELLED);
+
+        // Act
+        ticketArtifactService.revoke(10L);
+
+        // Assert
+        verify(ticketArtifactRepository).deleteByBookingId(10L);
+        verify(ticketGateService).revoke(10L, TicketArtifactService.ticketClaims(booking).expiresAt());
+        assertThrows(IdInvalidException.class, () -> ticketArtifactService.getOrRender(10L));
+    }
+}
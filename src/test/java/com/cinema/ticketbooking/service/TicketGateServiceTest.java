@@ -0,0 +1,175 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.request.ReqVerifyTicketDto;
+import com.cinema.ticketbooking.domain.response.ResTicketVerificationDto;
+import com.cinema.ticketbooking.util.constant.TicketVerificationStatusEnum;
+
+import com.cinema.ticketbooking.domain.TicketAdmission;
+import com.cinema.ticketbooking.repository.TicketAdmissionRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TicketGateServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T12:00:00Z");
+
+    private final TicketTokenCodec codec = new TicketTokenCodec("test-secret");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<Instant> now = new AtomicReference<>(NOW);
+    // ticket_admissions giả: trùng booking_id thì lỗi như khoá chính
+    private final Set<Long> admissionRows = ConcurrentHashMap.newKeySet();
+    private final TicketAdmissionRepository ticketAdmissionRepository = admissionRepository();
+    private final Clock clock = new Clock() {
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+
+        @Override
+        public java.time.ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    };
+    private final TicketGateService ticketGateService = newGate();
+
+    private TicketGateService newGate() {
+        return new TicketGateService(codec, ticketAdmissionRepository, new BookingMetrics(meterRegistry), clock);
+    }
+
+    private TicketAdmissionRepository admissionRepository() {
+        TicketAdmissionRepository repository = mock(TicketAdmissionRepository.class);
+        when(repository.saveAndFlush(any(TicketAdmission.class))).thenAnswer(invocation -> {
+            TicketAdmission admission = invocation.getArgument(0);
+            if (!admissionRows.add(admission.getBookingId())) {
+                throw new DataIntegrityViolationException("Duplicate entry for ticket_admissions.PRIMARY");
+            }
+            return admission;
+        });
+        return repository;
+    }
+
+    private ReqVerifyTicketDto req(long bookingId, Instant expiresAt, Long gateShowTimeId) {
+        ReqVerifyTicketDto req = new ReqVerifyTicketDto();
+        req.setToken(codec.encode(new TicketTokenCodec.Claims(bookingId, 57L, List.of(1201L, 1202L), expiresAt)));
+        req.setShowTimeId(gateShowTimeId);
+        return req;
+    }
+
+    @Test
+    void verify_shouldAdmitOnce_thenReportAlreadyUsed() {
+        // Arrange
+        ReqVerifyTicketDto req = req(10L, NOW.plusSeconds(3600), 57L);
+
+        // Act
+        ResTicketVerificationDto first = ticketGateService.verify(req);
+        ResTicketVerificationDto second = ticketGateService.verify(req);
+
+        // Assert
+        assertEquals(TicketVerificationStatusEnum.ADMITTED, first.getStatus());
+        assertEquals(10L, first.getBookingId());
+        assertEquals(List.of(1201L, 1202L), first.getSeatIds());
+        assertEquals(TicketVerificationStatusEnum.ALREADY_USED, second.getStatus());
+        assertEquals(1.0, meterRegistry.counter("ticket.verify", "outcome", "admitted").count());
+        assertEquals(1.0, meterRegistry.counter("ticket.verify", "outcome", "already_used").count());
+    }
+
+    @Test
+    void verify_shouldReportAlreadyUsed_afterRestartOrOnAnotherInstance() {
+        // Arrange
+        ReqVerifyTicketDto req = req(10L, NOW.plusSeconds(3600), 57L);
+        ticketGateService.verify(req);
+
+        // Act: instance mới không có gì trong bộ nhớ, chỉ còn dòng trong ticket_admissions
+        ResTicketVerificationDto afterRestart = newGate().verify(req);
+
+        // Assert
+        assertEquals(TicketVerificationStatusEnum.ALREADY_USED, afterRestart.getStatus());
+        verify(ticketAdmissionRepository, times(2)).saveAndFlush(any());
+    }
+
+    @Test
+    void verify_shouldRejectInvalidExpiredAndWrongShowTime_withoutConsumingTicket() {
+        // Arrange
+        ReqVerifyTicketDto forged = new ReqVerifyTicketDto();
+        forged.setToken(new TicketTokenCodec("other-secret")
+                .encode(new TicketTokenCodec.Claims(10L, 57L, List.of(1201L), NOW.plusSeconds(3600))));
+
+        // Act & Assert
+        ResTicketVerificationDto invalid = ticketGateService.verify(forged);
+        assertEquals(TicketVerificationStatusEnum.INVALID, invalid.getStatus());
+        assertNull(invalid.getBookingId());
+        assertEquals(TicketVerificationStatusEnum.EXPIRED,
+                ticketGateService.verify(req(11L, NOW, null)).getStatus());
+        assertEquals(TicketVerificationStatusEnum.WRONG_SHOWTIME,
+                ticketGateService.verify(req(12L, NOW.plusSeconds(3600), 58L)).getStatus());
+        assertEquals(TicketVerificationStatusEnum.ADMITTED,
+                ticketGateService.verify(req(12L, NOW.plusSeconds(3600), 57L)).getStatus());
+    }
+
+    @Test
+    void verifyAll_shouldAdmitDuplicateInSameBatchOnlyOnce() {
+        // Arrange
+        ReqVerifyTicketDto a = req(20L, NOW.plusSeconds(3600), null);
+        ReqVerifyTicketDto b = req(21L, NOW.plusSeconds(3600), null);
+
+        // Act
+        List<ResTicketVerificationDto> results = ticketGateService.verifyAll(List.of(a, b, a));
+
+        // Assert
+        assertEquals(List.of(TicketVerificationStatusEnum.ADMITTED, TicketVerificationStatusEnum.ADMITTED,
+                TicketVerificationStatusEnum.ALREADY_USED),
+                results.stream().map(ResTicketVerificationDto::getStatus).toList());
+    }
+
+    @Test
+    void evictExpired_shouldDropOnlyExpiredAdmissions() {
+        // Arrange
+        ticketGateService.verify(req(30L, NOW.plusSeconds(60), null));
+        ticketGateService.verify(req(31L, NOW.plusSeconds(7200), null));
+        now.set(NOW.plusSeconds(120));
+
+        // Act
+        ticketGateService.evictExpired();
+
+        // Assert
+        assertEquals(1, ticketGateService.admittedCount());
+        verify(ticketAdmissionRepository).deleteExpired(NOW.plusSeconds(120));
+        assertEquals(TicketVerificationStatusEnum.ALREADY_USED,
+                ticketGateService.verify(req(31L, NOW.plusSeconds(7200), null)).getStatus());
+    }
+
+    @Test
+    void verify_shouldRejectRevokedBooking_untilReinstated() {
+        // Arrange
+        ReqVerifyTicketDto req = req(10L, NOW.plusSeconds(3600), 57L);
+        ticketGateService.revoke(10L, NOW.plusSeconds(3600));
+
+        // Act
+        ResTicketVerificationDto revoked = ticketGateService.verify(req);
+        ticketGateService.reinstate(10L);
+        ResTicketVerificationDto reinstated = ticketGateService.verify(req);
+
+        // Assert
+        assertEquals(TicketVerificationStatusEnum.REVOKED, revoked.getStatus());
+        assertEquals(TicketVerificationStatusEnum.ADMITTED, reinstated.getStatus());
+    }
+}
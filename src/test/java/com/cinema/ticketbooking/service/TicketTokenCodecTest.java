@@ -0,0 +1,66 @@
+package com.cinema.ticketbooking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketTokenCodecTest {
+
+    private static final Instant EXPIRES_AT = Instant.parse("2026-10-17T15:00:00Z");
+
+    private final TicketTokenCodec codec = new TicketTokenCodec("test-secret");
+
+    @Test
+    void encode_shouldRoundTripWithSortedSeatsAndStayInQrAlphanumericSet() {
+        for (long bookingId : new long[] { 0L, 1L, 127L, 128L, 1024L, 9_876_543_210L, Long.MAX_VALUE }) {
+            // Arrange
+            TicketTokenCodec.Claims claims = new TicketTokenCodec.Claims(bookingId, 57L,
+                    List.of(1203L, 1201L, 1202L), EXPIRES_AT);
+
+            // Act
+            String token = codec.encode(claims);
+            TicketTokenCodec.Claims decoded = codec.decode(token);
+
+            // Assert
+            assertTrue(token.matches("[A-Z2-7]+"), token);
+            assertEquals(bookingId, decoded.bookingId());
+            assertEquals(57L, decoded.showTimeId());
+            assertEquals(List.of(1201L, 1202L, 1203L), decoded.seatIds());
+            assertEquals(EXPIRES_AT, decoded.expiresAt());
+        }
+    }
+
+    @Test
+    void encode_shouldStayShort_forTypicalTicket() {
+        // Arrange
+        TicketTokenCodec.Claims claims = new TicketTokenCodec.Claims(1024L, 57L,
+                List.of(1201L, 1202L, 1203L, 1204L), EXPIRES_AT);
+
+        // Act
+        String token = codec.encode(claims);
+
+        // Assert
+        assertTrue(token.length() <= 40, token);
+    }
+
+    @Test
+    void decode_shouldRejectTamperedOrForeignTokens() {
+        // Arrange
+        String token = codec.encode(new TicketTokenCodec.Claims(1024L, 57L, List.of(1201L), EXPIRES_AT));
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+        String otherId = codec.encode(new TicketTokenCodec.Claims(1025L, 57L, List.of(1201L), EXPIRES_AT));
+        String spliced = otherId.substring(0, 4) + token.substring(4);
+
+        // Act & Assert
+        assertNull(codec.decode(tampered));
+        assertNull(codec.decode(spliced));
+        assertNull(new TicketTokenCodec("other-secret").decode(token));
+        assertNull(codec.decode("BOOKING-1024"));
+        assertNull(codec.decode(""));
+        assertNull(codec.decode(null));
+    }
+}
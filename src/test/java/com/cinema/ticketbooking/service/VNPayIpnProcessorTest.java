@@ -0,0 +1,183 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.Booking;
+import com.cinema.ticketbooking.domain.Payment;
+import com.cinema.ticketbooking.domain.ProcessedPaymentCallback;
+import com.cinema.ticketbooking.domain.response.ResVnPayIpnDto;
+import com.cinema.ticketbooking.util.constant.OutboxEventTypeEnum;
+import com.cinema.ticketbooking.util.constant.PaymentStatusEnum;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VNPayIpnProcessorTest {
+
+    private static final String SECRET = "test-secret";
+
+    @Mock private PaymentService paymentService;
+    @Mock private BookingService bookingService;
+    @Mock private OutboxService outboxService;
+    @Mock private SeatStateIndex seatStateIndex;
+    @Mock private PaymentCallbackDeduplicator paymentCallbackDeduplicator;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private final VNPayStubGateway gateway = new VNPayStubGateway(SECRET);
+    private VNPayService vnPayService;
+
+    @BeforeEach
+    void setUp() {
+        vnPayService = new VNPayService(paymentService, bookingService, outboxService,
+                seatStateIndex, paymentCallbackDeduplicator, transactionTemplate, new VNPaySigner(SECRET),
+                new BookingMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(vnPayService, "directUrlSuccess", "http://front/payment-success");
+    }
+
+    private VNPayIpnProcessor startProcessor(VNPayService service, int maxConcurrent) {
+        VNPayIpnProcessor processor = new VNPayIpnProcessor(service);
+        ReflectionTestUtils.setField(processor, "maxConcurrent", maxConcurrent);
+        processor.start();
+        return processor;
+    }
+
+    private Payment payment(PaymentStatusEnum status, double totalPrice) {
+        Booking booking = new Booking();
+        booking.setId(10L);
+        booking.setTotal_price(totalPrice);
+        Payment payment = new Payment();
+        payment.setId(5L);
+        payment.setStatus(status);
+        payment.setBooking(booking);
+        return payment;
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void process_shouldConfirmPayment_beforeAnswering00() {
+        // Arrange
+        runTransactionsInline();
+        when(paymentCallbackDeduplicator.claim("ref-1:123")).thenReturn(new ProcessedPaymentCallback());
+        Payment payment = payment(PaymentStatusEnum.UNPAID, 85000.0);
+        when(paymentService.findPaymentByTransactionRef("ref-1")).thenReturn(payment);
+        when(paymentService.getPaymentByTransactionRef("ref-1")).thenReturn(payment);
+        Map<String, String> ipn = gateway.ipn("ref-1", "123", "00", 8500000L);
+
+        // Act
+        ResVnPayIpnDto response = startProcessor(vnPayService, 2).process(ipn);
+
+        // Assert
+        assertEquals("00", response.getRspCode());
+        assertTrue(ipn.containsKey("vnp_SecureHash")); // xử lý trên bản sao tham số
+        verify(paymentService).updatePaymentStatus(5L, PaymentStatusEnum.PAID);
+        verify(outboxService).enqueue(OutboxEventTypeEnum.BOOKING_CONFIRMED, 10L);
+        verify(paymentCallbackDeduplicator).complete(any(), any());
+    }
+
+    @Test
+    void process_shouldAnswer97_whenSignatureIsInvalid() {
+        // Arrange
+        Map<String, String> ipn = new HashMap<>(gateway.ipn("ref-1", "123", "00", 8500000L));
+        ipn.put("vnp_Amount", "100");
+
+        // Act
+        ResVnPayIpnDto response = startProcessor(vnPayService, 2).process(ipn);
+
+        // Assert
+        assertEquals("97", response.getRspCode());
+        verifyNoInteractions(paymentService, transactionTemplate);
+    }
+
+    @Test
+    void process_shouldAnswer01_02_04_withoutUpdatingPayment() {
+        // Arrange
+        runTransactionsInline();
+        when(paymentService.findPaymentByTransactionRef("missing")).thenReturn(null);
+        when(paymentService.findPaymentByTransactionRef("paid")).thenReturn(payment(PaymentStatusEnum.PAID, 85000.0));
+        when(paymentService.findPaymentByTransactionRef("cheap")).thenReturn(payment(PaymentStatusEnum.UNPAID, 85000.0));
+        VNPayIpnProcessor processor = startProcessor(vnPayService, 2);
+
+        // Act
+        ResVnPayIpnDto notFound = processor.process(gateway.ipn("missing", "1", "00", 8500000L));
+        ResVnPayIpnDto alreadyPaid = processor.process(gateway.ipn("paid", "2", "00", 8500000L));
+        ResVnPayIpnDto wrongAmount = processor.process(gateway.ipn("cheap", "3", "00", 100L));
+
+        // Assert
+        assertEquals("01", notFound.getRspCode());
+        assertEquals("02", alreadyPaid.getRspCode());
+        assertEquals("04", wrongAmount.getRspCode());
+        verify(paymentService, never()).updatePaymentStatus(any(), any());
+        verify(paymentCallbackDeduplicator, never()).claim(any());
+    }
+
+    @Test
+    void process_shouldAnswer02_whenCallbackWasAlreadyProcessed() {
+        // Arrange
+        when(paymentCallbackDeduplicator.findProcessed("ref-1:123")).thenReturn("http://front/payment-success");
+
+        // Act
+        ResVnPayIpnDto response = startProcessor(vnPayService, 2).process(gateway.ipn("ref-1", "123", "00", 8500000L));
+
+        // Assert
+        assertEquals("02", response.getRspCode());
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void process_shouldAnswer99_whenUpdateFails() {
+        // Arrange
+        when(transactionTemplate.execute(any())).thenThrow(new IllegalStateException("db down"));
+
+        // Act
+        ResVnPayIpnDto response = startProcessor(vnPayService, 2).process(gateway.ipn("ref-1", "123", "00", 8500000L));
+
+        // Assert
+        assertEquals("99", response.getRspCode());
+    }
+
+    @Test
+    void process_shouldAnswer99WithoutBlocking_whenSaturated() throws Exception {
+        // Arrange
+        VNPayService slow = mock(VNPayService.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(slow.processIpn(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ResVnPayIpnDto("00", "Confirm Success");
+        });
+        VNPayIpnProcessor processor = startProcessor(slow, 1);
+
+        // Act
+        CompletableFuture<ResVnPayIpnDto> first = CompletableFuture.supplyAsync(
+                () -> processor.process(gateway.ipn("ref-1", "1", "00", 100L)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        ResVnPayIpnDto rejected = processor.process(gateway.ipn("ref-2", "2", "00", 100L));
+        release.countDown();
+
+        // Assert
+        assertEquals("99", rejected.getRspCode());
+        assertEquals("00", first.get(5, TimeUnit.SECONDS).getRspCode());
+    }
+}
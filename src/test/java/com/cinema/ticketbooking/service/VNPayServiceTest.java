@@ -0,0 +1,123 @@
+package com.cinema.ticketbooking.service;
+
+import com.cinema.ticketbooking.domain.Booking;
+import com.cinema.ticketbooking.domain.Payment;
+import com.cinema.ticketbooking.domain.ProcessedPaymentCallback;
+import com.cinema.ticketbooking.util.constant.BookingStatusEnum;
+import com.cinema.ticketbooking.util.constant.OutboxEventTypeEnum;
+import com.cinema.ticketbooking.util.constant.PaymentStatusEnum;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VNPayServiceTest {
+
+    private static final String SECRET = "test-secret";
+
+    @Mock private PaymentService paymentService;
+    @Mock private BookingService bookingService;
+    @Mock private OutboxService outboxService;
+    @Mock private SeatStateIndex seatStateIndex;
+    @Mock private PaymentCallbackDeduplicator paymentCallbackDeduplicator;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Spy private VNPaySigner vnPaySigner = new VNPaySigner(SECRET);
+    @Mock private BookingMetrics bookingMetrics;
+
+    @InjectMocks private VNPayService vnPayService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(vnPayService, "directUrlSuccess", "http://front/payment-success");
+        ReflectionTestUtils.setField(vnPayService, "directUrlError", "http://front/payment-error");
+    }
+
+    private static Map<String, String> signedCallback(String responseCode) {
+        return new VNPayStubGateway(SECRET).callback("ref-1", "123", responseCode);
+    }
+
+    @Test
+    void processCallback_shouldConfirmOnce_andRecordRedirectUrl() {
+        // Arrange
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        ProcessedPaymentCallback record = new ProcessedPaymentCallback();
+        when(paymentCallbackDeduplicator.claim("ref-1:123")).thenReturn(record);
+        Booking booking = new Booking();
+        booking.setId(10L);
+        Payment payment = new Payment();
+        payment.setId(5L);
+        payment.setBooking(booking);
+        when(paymentService.getPaymentByTransactionRef("ref-1")).thenReturn(payment);
+
+        // Act
+        String redirectUrl = vnPayService.processCallback(signedCallback("00"));
+
+        // Assert
+        assertEquals("http://front/payment-success?paymentId=5&bookingId=10", redirectUrl);
+        assertEquals(BookingStatusEnum.CONFIRMED, booking.getStatus());
+        verify(paymentService).updatePaymentStatus(5L, PaymentStatusEnum.PAID);
+        verify(outboxService).enqueue(OutboxEventTypeEnum.BOOKING_CONFIRMED, 10L);
+        verify(paymentCallbackDeduplicator).complete(record, redirectUrl);
+        verify(bookingMetrics).recordCallback(eq("paid"), anyLong());
+    }
+
+    @Test
+    void processCallback_shouldShortCircuit_whenCallbackWasAlreadyProcessed() {
+        // Arrange
+        when(paymentCallbackDeduplicator.findProcessed("ref-1:123")).thenReturn("http://front/payment-success?paymentId=5");
+
+        // Act
+        String redirectUrl = vnPayService.processCallback(signedCallback("00"));
+
+        // Assert
+        assertEquals("http://front/payment-success?paymentId=5", redirectUrl);
+        verifyNoInteractions(paymentService, bookingService, outboxService, transactionTemplate);
+        verify(bookingMetrics).recordCallback(eq("duplicate"), anyLong());
+    }
+
+    @Test
+    void processCallback_shouldReturnWinnersRedirect_whenConcurrentDuplicateLosesClaim() {
+        // Arrange
+        when(paymentCallbackDeduplicator.findProcessed("ref-1:123"))
+                .thenReturn(null, "http://front/payment-success?paymentId=5");
+        when(transactionTemplate.execute(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        // Act
+        String redirectUrl = vnPayService.processCallback(signedCallback("00"));
+
+        // Assert
+        assertEquals("http://front/payment-success?paymentId=5", redirectUrl);
+        verifyNoInteractions(paymentService, outboxService);
+    }
+
+    @Test
+    void processCallback_shouldRejectInvalidSignature_withoutRecording() {
+        // Arrange
+        Map<String, String> params = signedCallback("00");
+        params.put("vnp_SecureHash", "forged");
+
+        // Act
+        String redirectUrl = vnPayService.processCallback(params);
+
+        // Assert
+        assertEquals("http://front/payment-error?message=Invalid+signature", redirectUrl);
+        verifyNoInteractions(paymentCallbackDeduplicator, paymentService);
+        verify(bookingMetrics).recordCallback(eq("invalid_signature"), anyLong());
+    }
+}
@@ -0,0 +1,90 @@
+package com.cinema.ticketbooking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VNPaySignerTest {
+
+    private final VNPaySigner signer = new VNPaySigner("test-secret");
+
+    @Test
+    void appendEncoded_shouldMatchUrlEncoder() {
+        for (String value : List.of("Thanh toan ve xem phim #12", "Thanh toán vé 🎬 ~!@$^()+=/?",
+                "http://localhost:8080/api/v1/payments/vnpay/callback", "a.b-c*d_e", "é\ud83c")) {
+            StringBuilder sb = new StringBuilder();
+
+            VNPaySigner.appendEncoded(sb, value);
+
+            assertEquals(URLEncoder.encode(value, StandardCharsets.UTF_8), sb.toString(), value);
+        }
+    }
+
+    @Test
+    void canonicalQuery_shouldSortNamesAndSkipEmptyValues() {
+        // Arrange
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("vnp_TxnRef", "ref-1");
+        params.put("vnp_Amount", "17000000");
+        params.put("vnp_BankCode", "");
+        params.put("vnp_OrderInfo", "Thanh toan ve");
+
+        // Act
+        String query = signer.canonicalQuery(params);
+
+        // Assert
+        assertEquals("vnp_Amount=17000000&vnp_OrderInfo=Thanh+toan+ve&vnp_TxnRef=ref-1", query);
+        assertEquals(query, signer.canonicalQuery(new TreeMap<>(params)));
+    }
+
+    @Test
+    void sign_shouldMatchGatewaySignature_andVerify() {
+        // Arrange
+        Map<String, String> signed = new VNPayStubGateway("test-secret").callback("ref-1", "123", "00");
+        String secureHash = signed.remove("vnp_SecureHash");
+
+        // Act
+        String hashData = signer.canonicalQuery(signed);
+
+        // Assert
+        assertEquals(secureHash, signer.sign(hashData));
+        assertTrue(signer.verify(hashData, secureHash));
+        assertFalse(signer.verify(hashData, secureHash.substring(1) + "0"));
+        assertFalse(signer.verify(hashData, null));
+    }
+
+    @Test
+    void sign_shouldBeStable_acrossThreads() throws Exception {
+        // Arrange
+        String expected = signer.sign("vnp_Amount=100");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Map<String, Boolean> results = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            futures.add(pool.submit(() -> results.put("r" + n, expected.equals(signer.sign("vnp_Amount=100")))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(200, results.size());
+        assertFalse(results.containsValue(false));
+    }
+}
@@ -0,0 +1,65 @@
+package com.cinema.ticketbooking.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Giả lập phía VNPay trong test: tạo tham số return URL/IPN được ký bằng
+ * HmacSHA512 giống gateway thật, để đi qua {@link VNPayService#verifyCallback}.
+ */
+class VNPayStubGateway {
+    private final String hashSecret;
+
+    VNPayStubGateway(String hashSecret) {
+        this.hashSecret = hashSecret;
+    }
+
+    Map<String, String> callback(String transactionRef, String transactionNo, String responseCode) {
+        Map<String, String> params = new TreeMap<>();
+        params.put("vnp_TxnRef", transactionRef);
+        params.put("vnp_TransactionNo", transactionNo);
+        params.put("vnp_ResponseCode", responseCode);
+        params.put("vnp_TransactionStatus", responseCode);
+        params.put("vnp_OrderInfo", "Thanh toan ve xem phim");
+        return sign(params);
+    }
+
+    /**
+     * IPN kèm vnp_Amount (VND x 100)
+     */
+    Map<String, String> ipn(String transactionRef, String transactionNo, String responseCode, long amount) {
+        Map<String, String> params = new TreeMap<>(callback(transactionRef, transactionNo, responseCode));
+        params.remove("vnp_SecureHash");
+        params.put("vnp_Amount", String.valueOf(amount));
+        return sign(params);
+    }
+
+    Map<String, String> sign(Map<String, String> params) {
+        String hashData = new TreeMap<>(params).entrySet().stream()
+                .map(e -> e.getKey() + "=" + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        Map<String, String> signed = new HashMap<>(params);
+        signed.put("vnp_SecureHash", hmacSHA512(hashData));
+        return signed;
+    }
+
+    private String hmacSHA512(String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA512");
+            mac.init(new SecretKeySpec(hashSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+            StringBuilder hash = new StringBuilder();
+            for (byte b : mac.doFinal(data.getBytes(StandardCharsets.UTF_8))) {
+                hash.append(String.format("%02x", b & 0xff));
+            }
+            return hash.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
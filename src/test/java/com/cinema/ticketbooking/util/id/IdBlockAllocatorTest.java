@@ -0,0 +1,144 @@
+package com.cinema.ticketbooking.util.id;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdBlockAllocatorTest {
+
+    private String url;
+    private Connection keepAlive;
+    private HikariDataSource dataSource;
+    private IdBlockAllocator allocator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        url = "jdbc:h2:mem:ids-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=MySQL";
+        keepAlive = DriverManager.getConnection(url, "sa", "");
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE seat_holds (id BIGINT PRIMARY KEY)");
+            statement.execute("INSERT INTO seat_holds (id) VALUES (41), (7)");
+            statement.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY)");
+        }
+
+        dataSource = newDataSource();
+        allocator = new IdBlockAllocator(dataSource);
+    }
+
+    private HikariDataSource newDataSource() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(url);
+        properties.setUsername("sa");
+        properties.setPassword("");
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dataSource.close();
+        keepAlive.close();
+    }
+
+    @Test
+    void next_shouldStartAfterExistingMaxId() {
+        // Act
+        long first = allocator.next("seat_holds");
+        long second = allocator.next("seat_holds");
+
+        // Assert
+        assertEquals(42L, first);
+        assertEquals(43L, second);
+        assertEquals(1L, allocator.next("payments"));
+    }
+
+    @Test
+    void next_shouldReserveWholeBlockInTable() throws Exception {
+        // Act
+        for (int i = 0; i < IdBlockAllocator.BLOCK_SIZE + 1; i++) {
+            allocator.next("payments");
+        }
+
+        // Assert: hai khối đã được giữ
+        try (Statement statement = keepAlive.createStatement();
+                ResultSet rs = statement.executeQuery(
+                        "SELECT next_val FROM id_generators WHERE sequence_name = 'payments'")) {
+            assertTrue(rs.next());
+            assertEquals(1L + 2L * IdBlockAllocator.BLOCK_SIZE, rs.getLong(1));
+        }
+    }
+
+    @Test
+    void next_shouldNotOverlapWithAnotherAllocatorOnSameTable() throws Exception {
+        // Arrange
+        HikariDataSource otherDataSource = newDataSource();
+        IdBlockAllocator other = new IdBlockAllocator(otherDataSource);
+
+        // Act
+        long fromFirst = allocator.next("payments");
+        long fromOther = other.next("payments");
+        otherDataSource.close();
+
+        // Assert
+        assertEquals(1L, fromFirst);
+        assertEquals(1L + IdBlockAllocator.BLOCK_SIZE, fromOther);
+    }
+
+    @Test
+    void next_shouldHandOutUniqueIds_whenCalledConcurrently() throws Exception {
+        // Arrange
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Callable<List<Long>>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tasks.add(() -> {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(allocator.next(i % 2 == 0 ? "seat_holds" : "payments"));
+                }
+                return ids;
+            });
+        }
+
+        // Act
+        Set<String> seen = new HashSet<>();
+        int total = 0;
+        for (Future<List<Long>> future : pool.invokeAll(tasks)) {
+            List<Long> ids = future.get();
+            for (int i = 0; i < ids.size(); i++) {
+                seen.add((i % 2 == 0 ? "seat_holds:" : "payments:") + ids.get(i));
+                total++;
+            }
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(threads * perThread, total);
+        assertEquals(total, seen.size());
+    }
+
+    @Test
+    void next_shouldRejectInvalidSequenceName() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> allocator.next("payments; DROP TABLE x"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.cinema.ticketbooking.util.mail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SMTP server tối giản chạy trong test (không STARTTLS, không AUTH): đếm số phiên,
+ * lưu nội dung các email đã nhận và có thể từ chối {@code rejectNext} email tiếp theo
+ * bằng mã 451 sau DATA.
+ */
+public class FakeSmtpServer implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final AtomicInteger rejectNext = new AtomicInteger();
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+    public FakeSmtpServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int sessions() {
+        return sessions.get();
+    }
+
+    public List<String> messages() {
+        synchronized (messages) {
+            return new ArrayList<>(messages);
+        }
+    }
+
+    /**
+     * Từ chối (451) {@code count} email kế tiếp, hoặc mọi email nếu count âm
+     */
+    public void rejectNext(int count) {
+        rejectNext.set(count);
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.incrementAndGet();
+                Thread session = new Thread(() -> handle(socket), "fake-smtp-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 localhost ESMTP fake");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 localhost");
+                    case "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder data = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            data.append(line).append("\r\n");
+                        }
+                        if (rejectNext.get() < 0 || rejectNext.getAndUpdate(n -> n > 0 ? n - 1 : n) > 0) {
+                            reply(out, "451 Try again later");
+                        } else {
+                            messages.add(data.toString());
+                            reply(out, "250 OK queued");
+                        }
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // client đóng kết nối
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,36 @@
+package com.cinema.ticketbooking.util.pagination;
+
+import com.cinema.ticketbooking.util.error.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encode_shouldRoundTrip_withNanosecondPrecision() {
+        // Arrange
+        KeysetCursor cursor = new KeysetCursor(Instant.parse("2026-03-01T08:15:30.123456789Z"), 42L);
+
+        // Act
+        String encoded = cursor.encode();
+
+        // Assert
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+        assertEquals(cursor, KeysetCursor.decode(encoded));
+    }
+
+    @Test
+    void decode_shouldReturnNull_forFirstPage() {
+        assertNull(KeysetCursor.decode(""));
+        assertNull(KeysetCursor.decode(null));
+    }
+
+    @Test
+    void decode_shouldThrowBadRequest_whenTampered() {
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not-a-cursor"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("%%%"));
+    }
+}
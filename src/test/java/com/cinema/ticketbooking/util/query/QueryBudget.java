@@ -0,0 +1,19 @@
+package com.cinema.ticketbooking.util.query;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Số câu SQL tối đa mà thân test (không tính @BeforeEach) được phép chạy.
+ * Dùng cho test endpoint để N+1 làm test fail thay vì lọt lên production.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+    int value();
+}
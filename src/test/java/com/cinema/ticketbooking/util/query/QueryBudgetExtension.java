@@ -0,0 +1,38 @@
+package com.cinema.ticketbooking.util.query;
+
+import java.util.List;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Đếm câu SQL trong thân test có {@link QueryBudget} và fail nếu vượt ngân sách,
+ * kèm danh sách câu SQL để thấy ngay query nào bị lặp.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        QueryCounter.start();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        List<String> statements = QueryCounter.stop();
+        QueryBudget budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class);
+        if (budget == null || context.getExecutionException().isPresent()) {
+            return;
+        }
+        if (statements.size() > budget.value()) {
+            StringBuilder message = new StringBuilder()
+                    .append("Expected at most ").append(budget.value())
+                    .append(" SQL statements but ").append(statements.size()).append(" were executed:");
+            for (int i = 0; i < statements.size(); i++) {
+                message.append(System.lineSeparator()).append(i + 1).append(". ").append(statements.get(i));
+            }
+            throw new AssertionFailedError(message.toString(), budget.value(), statements.size());
+        }
+    }
+}
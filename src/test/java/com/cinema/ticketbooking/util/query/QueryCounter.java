@@ -0,0 +1,43 @@
+package com.cinema.ticketbooking.util.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Đếm các câu SQL chạy trên thread đang đo (thread của test/MockMvc).
+ * Scheduler (wheel tick, outbox) chạy trên thread khác nên không làm sai số đếm.
+ * Một lần executeBatch được tính là một câu.
+ */
+public final class QueryCounter implements QueryExecutionListener {
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    public static void start() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    /**
+     * Dừng đếm và trả về các câu SQL đã chạy từ lúc {@link #start()}
+     */
+    public static List<String> stop() {
+        List<String> statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements == null ? List.of() : statements;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null && !queryInfoList.isEmpty()) {
+            statements.add(queryInfoList.get(0).getQuery()
+                    + (execInfo.isBatch() ? " [batch x" + execInfo.getBatchSize() + "]" : ""));
+        }
+    }
+}
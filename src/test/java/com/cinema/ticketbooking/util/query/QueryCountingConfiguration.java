@@ -0,0 +1,32 @@
+package com.cinema.ticketbooking.util.query;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Bọc DataSource của ứng dụng bằng datasource-proxy để {@link QueryCounter} thấy mọi câu SQL
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountingConfiguration {
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("query-counter")
+                            .listener(new QueryCounter())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}